@@ -0,0 +1,317 @@
+package algo;
+
+import containers.RecordCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+/**
+ * External merge sort of a file of fixed-width records which doesn't fit in the heap.
+ * <p>
+ * The input is read in chunks sized to the memory budget, each chunk is decoded, sorted with
+ * {@link Sorts#timsort} and spilled to a temporary file as a sorted run. The runs are then merged
+ * with a {@link LoserTree}, at most {@link #fanIn()} at a time, so a huge number of runs takes more than one pass.
+ * All file access goes through {@link FileChannel}s with large direct buffers.
+ * Merging keeps equal records in the order of their runs, so the sort is as stable as {@link Sorts#timsort}.
+ */
+public final class ExternalSort<T> {
+
+
+    /**
+     * Rough heap cost of a decoded record besides its encoded bytes: object header, reference in the chunk
+     * and in the timsort buffer.
+     */
+    public static final int RECORD_HEAP_OVERHEAD = 64;
+
+    /**
+     * The least read buffer of a run being merged: smaller ones would make merging seek-bound.
+     */
+    public static final int MIN_MERGE_BUFFER = 1 << 20;
+
+    /**
+     * The largest single I/O buffer.
+     */
+    public static final int MAX_BUFFER = 1 << 26;
+
+
+    private final RecordCodec<T> codec;
+    private final Comparator<? super T> comparator;
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+
+    /**
+     * @param memoryBudget heap bytes the sort may take, records and buffers included
+     * @param tempDirectory directory for the sorted runs
+     */
+    public ExternalSort(RecordCodec<T> codec, Comparator<? super T> comparator, long memoryBudget, Path tempDirectory) {
+        if (memoryBudget < 2L * MIN_MERGE_BUFFER)
+            throw new IllegalArgumentException("Memory budget " + memoryBudget + " < " + 2L * MIN_MERGE_BUFFER);
+        this.codec = codec;
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+
+    /**
+     * @return the number of records a chunk holds in memory
+     */
+    public int chunkRecords() {
+        long records = memoryBudget / 2 / (codec.recordSize() + RECORD_HEAP_OVERHEAD);
+        return (int) Math.max(1, Math.min(records, Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * @return the number of runs merged at a time
+     */
+    public int fanIn() {
+        return (int) Math.max(2, Math.min(memoryBudget / MIN_MERGE_BUFFER - 1, 1 << 12));
+    }
+
+
+    /**
+     * Sorts the records of input into output, which is replaced if it exists.
+     * @return the number of records
+     * @throws IOException if input is not a whole number of records, or reading or writing fails
+     */
+    public long sort(Path input, Path output) throws IOException {
+
+        Path[] runs = new Path[16];
+        int runCount = 0;
+        long records = 0;
+
+        try {
+            try (RecordReader<T> reader = new RecordReader<>(input, codec, bufferSize(8))) {
+                final int chunkRecords = chunkRecords();
+                Object[] chunk = new Object[(int) Math.min(chunkRecords, Files.size(input) / codec.recordSize())];
+                SortWorkspace workspace = new SortWorkspace();
+                while (true) {
+                    int size = 0;
+                    for (T t; size < chunk.length && (t = reader.next()) != null; )
+                        chunk[size++] = t;
+                    if (size == 0)
+                        break;
+                    records += size;
+                    boolean last = size < chunk.length || !reader.hasNext();
+                    // a single run is the output already
+                    Path run = last && runCount == 0 ? output : Files.createTempFile(tempDirectory, "run", ".tmp");
+                    if (runCount == runs.length) {
+                        Path[] newRuns = new Path[runCount << 1];
+                        System.arraycopy(runs, 0, newRuns, 0, runCount);
+                        runs = newRuns;
+                    }
+                    runs[runCount++] = run;
+                    writeRun(chunk, size, run, workspace);
+                    if (last)
+                        break;
+                }
+            }
+
+            if (records == 0) {
+                Files.write(output, new byte[0]);
+                return 0;
+            }
+            if (runs[0] == output)
+                return records;
+
+            while (runCount > 1) {
+                final int fanIn = fanIn();
+                int mergedCount = 0;
+                for (int from = 0; from < runCount; from += fanIn) {
+                    int to = Math.min(from + fanIn, runCount);
+                    Path merged;
+                    if (to - from == 1)
+                        merged = runs[from];
+                    else {
+                        merged = runCount <= fanIn ? output : Files.createTempFile(tempDirectory, "run", ".tmp");
+                        try {
+                            merge(runs, from, to, merged);
+                        } catch (IOException | RuntimeException e) {
+                            // not in runs yet, so the cleanup below doesn't know it
+                            if (merged != output)
+                                Files.deleteIfExists(merged);
+                            throw e;
+                        }
+                        for (int i = from; i < to; i++) {
+                            Files.delete(runs[i]);
+                            runs[i] = null;
+                        }
+                    }
+                    runs[mergedCount++] = merged;
+                }
+                runCount = mergedCount;
+            }
+            return records;
+        } finally {
+            for (int i = 0; i < runCount; i++)
+                if (runs[i] != null && runs[i] != output)
+                    Files.deleteIfExists(runs[i]);
+        }
+    }
+
+
+    private int bufferSize(int buffers) {
+        long size = memoryBudget / 2 / buffers;
+        size = Math.max(codec.recordSize(), Math.min(size, MAX_BUFFER));
+        return (int) (size - size % codec.recordSize());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeRun(Object[] chunk, int size, Path run, SortWorkspace workspace) throws IOException {
+        Sorts.timsort((T[]) chunk, 0, size, comparator, workspace);
+        try (RecordWriter<T> writer = new RecordWriter<>(run, codec, bufferSize(8))) {
+            for (int i = 0; i < size; i++) {
+                writer.write((T) chunk[i]);
+                chunk[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Merges runs[from, to) into output with a {@link LoserTree}, ties go to the earlier run.
+     */
+    @SuppressWarnings("unchecked")
+    private void merge(Path[] runs, int from, int to, Path output) throws IOException {
+
+        final int k = to - from;
+        final int bufferSize = bufferSize(k + 1);
+
+        RecordReader<T>[] readers = RecordReader.newArray(k);
+        try (RecordWriter<T> writer = new RecordWriter<>(output, codec, bufferSize)) {
+
+            // null heads are exhausted runs
+            final Object[] heads = new Object[k];
+            for (int i = 0; i < k; i++) {
+                readers[i] = new RecordReader<>(runs[from + i], codec, bufferSize);
+                heads[i] = readers[i].next();
+            }
+
+            LoserTree tree = new LoserTree(k) {
+                @Override
+                boolean beats(int a, int b) {
+                    if (heads[a] == null)
+                        return false;
+                    if (heads[b] == null)
+                        return true;
+                    int diff = comparator.compare((T) heads[a], (T) heads[b]);
+                    return diff < 0 || diff == 0 && a < b;
+                }
+            };
+            tree.build();
+
+            for (int winner = tree.winner(); heads[winner] != null; winner = tree.winner()) {
+                writer.write((T) heads[winner]);
+                heads[winner] = readers[winner].next();
+                tree.replay(winner);
+            }
+        } finally {
+            for (RecordReader<T> reader : readers)
+                if (reader != null)
+                    reader.close();
+        }
+    }
+
+
+    private static final class RecordReader<T> implements Closeable {
+
+        private final FileChannel channel;
+        private final RecordCodec<T> codec;
+        private final ByteBuffer buffer;
+        private boolean endOfFile = false;
+
+        RecordReader(Path path, RecordCodec<T> codec, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.codec = codec;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            buffer.flip();
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> RecordReader<T>[] newArray(int length) {
+            return (RecordReader<T>[]) new RecordReader<?>[length];
+        }
+
+        boolean hasNext() throws IOException {
+            return buffer.remaining() >= codec.recordSize() || fill();
+        }
+
+        /**
+         * @return the next record, or null at the end of the file
+         */
+        T next() throws IOException {
+            if (!hasNext())
+                return null;
+            int position = buffer.position();
+            T t = codec.decode(buffer);
+            buffer.position(position + codec.recordSize());
+            return t;
+        }
+
+        private boolean fill() throws IOException {
+            if (endOfFile)
+                return false;
+            buffer.compact();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    endOfFile = true;
+                    break;
+                }
+            }
+            buffer.flip();
+            if (endOfFile && buffer.remaining() % codec.recordSize() != 0)
+                throw new IOException("File ends with a partial record of " + buffer.remaining() % codec.recordSize() + " bytes");
+            return buffer.remaining() >= codec.recordSize();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+
+    private static final class RecordWriter<T> implements Closeable {
+
+        private final FileChannel channel;
+        private final RecordCodec<T> codec;
+        private final ByteBuffer buffer;
+
+        RecordWriter(Path path, RecordCodec<T> codec, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.codec = codec;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        void write(T t) throws IOException {
+            if (buffer.remaining() < codec.recordSize())
+                flush();
+            int position = buffer.position();
+            codec.encode(t, buffer);
+            buffer.position(position + codec.recordSize());
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
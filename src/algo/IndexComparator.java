@@ -0,0 +1,10 @@
+package algo;
+
+/**
+ * Compares the elements at two indexes of a sequence which needn't be an array,
+ * for {@link Sorts#sort(int, int, IndexComparator, IndexSwapper)}.
+ */
+@FunctionalInterface
+public interface IndexComparator {
+    int compare(int i, int j);
+}
@@ -0,0 +1,104 @@
+package algo;
+
+/**
+ * Sorting of sequences reachable only by index, through an {@link IndexComparator} and an {@link IndexSwapper},
+ * behind {@link Sorts#sort(int, int, IndexComparator, IndexSwapper)}.
+ * <p>
+ * No element can be held aside, so the pivot is swapped to the front of the range and compared by its index there,
+ * and every move is a swap. Introsort: quicksort with Hoare partitioning, which stops on keys equal to the pivot
+ * on both sides and so splits runs of duplicates evenly, insertion sort for short ranges,
+ * and heap sort once the depth reaches twice log2(n). Not stable, O(n log n) in the worst case.
+ */
+final class IndexSorts {
+
+    private IndexSorts() {
+        new Error("Forbidden instance of class " + IndexSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    static final int INSERTION_THRESHOLD = Sorts.PDQSORT_INSERTION_THRESHOLD;
+
+
+    static void sort(int start, int end, IndexComparator comparator, IndexSwapper swapper) {
+
+        int depthAllowed = 2 * Sorts.pdqSortBadPartitionLimit(end - start);
+
+        while (end - start > INSERTION_THRESHOLD) {
+
+            if (depthAllowed-- == 0) {
+                heapSort(start, end, comparator, swapper);
+                return;
+            }
+
+            int mid = start + ((end - start) >> 1);
+            swapper.swap(start, medianOf3(start + 1, mid, end - 1, comparator));
+
+            int i = start;
+            int j = end;
+            while (true) {
+                do ++i; while (i < end && comparator.compare(i, start) < 0);
+                do --j; while (comparator.compare(j, start) > 0);
+                if (i >= j)
+                    break;
+                swapper.swap(i, j);
+            }
+            // swapping pivot with the last element not greater
+            swapper.swap(start, j);
+
+            // recursion on the smaller side
+            if (j - start < end - j - 1) {
+                sort(start, j, comparator, swapper);
+                start = j + 1;
+            } else {
+                sort(j + 1, end, comparator, swapper);
+                end = j;
+            }
+        }
+
+        insertionSort(start, end, comparator, swapper);
+    }
+
+
+    static void insertionSort(int start, int end, IndexComparator comparator, IndexSwapper swapper) {
+        for (int i = start + 1; i < end; i++)
+            for (int j = i; j > start && comparator.compare(j - 1, j) > 0; j--)
+                swapper.swap(j - 1, j);
+    }
+
+
+    static void heapSort(int start, int end, IndexComparator comparator, IndexSwapper swapper) {
+        final int size = end - start;
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(start, size, i, comparator, swapper);
+        for (int last = size - 1; last > 0; last--) {
+            swapper.swap(start, start + last);
+            siftDown(start, last, 0, comparator, swapper);
+        }
+    }
+
+    private static void siftDown(int start, int size, int i, IndexComparator comparator, IndexSwapper swapper) {
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && comparator.compare(start + child + 1, start + child) > 0)
+                ++child;
+            if (comparator.compare(start + child, start + i) <= 0)
+                return;
+            swapper.swap(start + i, start + child);
+            i = child;
+        }
+    }
+
+
+    private static int medianOf3(int i, int j, int k, IndexComparator comparator) {
+        if (comparator.compare(i, j) < 0) {
+            if (comparator.compare(j, k) < 0)
+                return j;
+            return comparator.compare(i, k) < 0 ? k : i;
+        } else {
+            if (comparator.compare(i, k) < 0)
+                return i;
+            return comparator.compare(j, k) < 0 ? k : j;
+        }
+    }
+}
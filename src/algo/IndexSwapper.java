@@ -0,0 +1,9 @@
+package algo;
+
+/**
+ * Swaps the elements at two indexes of a sequence, for {@link Sorts#sort(int, int, IndexComparator, IndexSwapper)}.
+ */
+@FunctionalInterface
+public interface IndexSwapper {
+    void swap(int i, int j);
+}
@@ -0,0 +1,236 @@
+package algo;
+
+import containers.ArrayList;
+import containers.List;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Merging of many sorted sources at once with a {@link LoserTree}: log k comparisons per element
+ * instead of the k - 1 of a linear scan or the log k copies of merging pairwise.
+ * <p>
+ * Merging is stable: equal elements come in the order of their sources, and within a source in its own order.
+ * Arrays and lists may gallop: once one source has won {@link Sorts#MAX_GALLOP_COUNT} times in a row,
+ * the run of its elements going before the runner-up's head is found by exponential and binary search
+ * and copied at once, which makes merging sources of disjoint ranges nearly a concatenation.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+        new Error("Forbidden instance of class " + KWayMerge.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public static <T> void merge(T[][] sources, T[] destination, int destinationStart, Comparator<? super T> comparator) {
+        merge(sources, destination, destinationStart, comparator, true);
+    }
+
+    /**
+     * Merges sorted arrays into destination from destinationStart on.
+     * @throws IndexOutOfBoundsException if destination can't hold all elements
+     */
+    public static <T> void merge(T[][] sources, T[] destination, int destinationStart, Comparator<? super T> comparator,
+                                 boolean gallop) {
+        long total = 0;
+        for (T[] source : sources)
+            total += source.length;
+        if (destinationStart < 0 || destinationStart + total > destination.length)
+            throw new IndexOutOfBoundsException();
+        mergeArrays(sources, new int[sources.length], lengths(sources), destination, destinationStart, comparator, gallop);
+    }
+
+    /**
+     * Merges sorted ranges sources[i][starts[i], ends[i]) into destination from destinationStart on.
+     * @throws IndexOutOfBoundsException if a range is out of its source or destination can't hold all elements
+     */
+    public static <T> void merge(T[][] sources, int[] starts, int[] ends, T[] destination, int destinationStart,
+                                 Comparator<? super T> comparator, boolean gallop) {
+        if (starts.length != sources.length || ends.length != sources.length)
+            throw new IllegalArgumentException("Expected " + sources.length + " ranges");
+        long total = 0;
+        for (int i = 0; i < sources.length; i++) {
+            if (starts[i] < 0 || ends[i] > sources[i].length || starts[i] > ends[i])
+                throw new IndexOutOfBoundsException();
+            total += ends[i] - starts[i];
+        }
+        if (destinationStart < 0 || destinationStart + total > destination.length)
+            throw new IndexOutOfBoundsException();
+        mergeArrays(sources, starts.clone(), ends, destination, destinationStart, comparator, gallop);
+    }
+
+    public static <T> ArrayList<T> merge(List<? extends List<? extends T>> sources, Comparator<? super T> comparator) {
+        return merge(sources, comparator, true);
+    }
+
+    /**
+     * @return a new list of the elements of sorted lists
+     */
+    public static <T> ArrayList<T> merge(List<? extends List<? extends T>> sources, Comparator<? super T> comparator,
+                                         boolean gallop) {
+        Object[][] arrays = new Object[sources.size()][];
+        int total = 0;
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = sources.get(i).toArray();
+            total += arrays[i].length;
+        }
+        Object[] merged = new Object[total];
+        mergeArrays(arrays, new int[arrays.length], lengths(arrays), merged, 0, comparator, gallop);
+        ArrayList<T> result = new ArrayList<>(0);
+        result.setData(merged);
+        return result;
+    }
+
+    /**
+     * @return an iterator over the merged elements of sorted iterators, advancing each source only as far as needed
+     */
+    public static <T> Iterator<T> lazyMerge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        return new MergingIterator<>(sources, comparator);
+    }
+
+
+    private static int[] lengths(Object[][] sources) {
+        int[] lengths = new int[sources.length];
+        for (int i = 0; i < sources.length; i++)
+            lengths[i] = sources[i].length;
+        return lengths;
+    }
+
+    /**
+     * Merges sources[i][positions[i], ends[i]), moving positions.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void mergeArrays(Object[][] sources, int[] positions, int[] ends, Object[] destination,
+                                        int destinationStart, Comparator<? super T> comparator, boolean gallop) {
+
+        final int k = sources.length;
+        if (k == 0)
+            return;
+
+        LoserTree tree = new LoserTree(k) {
+            @Override
+            boolean beats(int a, int b) {
+                if (positions[a] == ends[a])
+                    return false;
+                if (positions[b] == ends[b])
+                    return true;
+                int diff = comparator.compare((T) sources[a][positions[a]], (T) sources[b][positions[b]]);
+                return diff < 0 || diff == 0 && a < b;
+            }
+        };
+        tree.build();
+
+        int d = destinationStart;
+        int lastWinner = -1;
+        int winCount = 0;
+
+        for (int winner = tree.winner(); positions[winner] < ends[winner]; winner = tree.winner()) {
+
+            Object[] source = sources[winner];
+
+            if (winner != lastWinner) {
+                lastWinner = winner;
+                winCount = 0;
+            }
+
+            if (gallop && ++winCount > Sorts.MAX_GALLOP_COUNT) {
+                winCount = 0;
+                int runnerUp = tree.runnerUp();
+                int runEnd;
+                if (runnerUp == -1 || positions[runnerUp] == ends[runnerUp])
+                    runEnd = ends[winner];
+                else
+                    // ties go to the earlier source
+                    runEnd = gallopEnd(source, positions[winner] + 1, ends[winner],
+                            (T) sources[runnerUp][positions[runnerUp]], winner < runnerUp, comparator);
+                System.arraycopy(source, positions[winner], destination, d, runEnd - positions[winner]);
+                d += runEnd - positions[winner];
+                positions[winner] = runEnd;
+            } else {
+                destination[d++] = source[positions[winner]++];
+            }
+
+            tree.replay(winner);
+        }
+    }
+
+    /**
+     * @return the first index of [from, end) whose element doesn't go before sample, or end;
+     * elements equal to sample go before it if inclusive
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> int gallopEnd(Object[] array, int from, int end, T sample, boolean inclusive,
+                                     Comparator<? super T> comparator) {
+        final int limit = inclusive ? 0 : -1;
+        // [from, lo) go before sample, hi is end or doesn't
+        int lo = from;
+        int hi = from;
+        for (int step = 1; hi < end && comparator.compare((T) array[hi], sample) <= limit; step <<= 1) {
+            lo = hi + 1;
+            hi = Math.min(hi + step, end);
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare((T) array[mid], sample) <= limit)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+
+    private static final class MergingIterator<T> extends LoserTree implements Iterator<T> {
+
+        private static final Object END = new Object();
+
+        private final Iterator<? extends T>[] sources;
+        private final Object[] heads;
+        private final Comparator<? super T> comparator;
+
+        MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+            super(sources.size());
+            @SuppressWarnings("unchecked")
+            Iterator<? extends T>[] array = (Iterator<? extends T>[]) new Iterator<?>[sources.size()];
+            this.sources = array;
+            this.heads = new Object[sources.size()];
+            this.comparator = comparator;
+            for (int i = 0; i < heads.length; i++) {
+                this.sources[i] = sources.get(i);
+                heads[i] = this.sources[i].hasNext() ? this.sources[i].next() : END;
+            }
+            if (heads.length > 0)
+                build();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean beats(int a, int b) {
+            if (heads[a] == END)
+                return false;
+            if (heads[b] == END)
+                return true;
+            int diff = comparator.compare((T) heads[a], (T) heads[b]);
+            return diff < 0 || diff == 0 && a < b;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return heads.length > 0 && heads[winner()] != END;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            final int winner = winner();
+            T t = (T) heads[winner];
+            heads[winner] = sources[winner].hasNext() ? sources[winner].next() : END;
+            replay(winner);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package algo;
+
+import java.util.Arrays;
+
+/**
+ * Comparator-free kernels behind {@link Sorts#sort(long[], int, int, Sorts.SortingType)}.
+ * Every method mirrors the {@code T[]} algorithm of the same name in {@link Sorts}, but compares elements with
+ * {@code <} directly, so nothing is boxed and no {@code Comparator} is called.
+ */
+final class LongSorts {
+
+    private LongSorts() {
+        new Error("Forbidden instance of class " + LongSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final long[] EMPTY_ARRAY = {};
+
+
+    static void sort(long[] array, int start, int end, Sorts.SortingType sortingType) {
+        switch (sortingType) {
+            case ADAPTIVE -> adaptiveSort(array, start, end);
+            case MYSORT -> mySort(array, start, end);
+            case TIMSORT, PARALLEL -> timsort(array, start, end);
+            case RADIX_SORT -> RadixSorts.sort(array, start, end, new SortWorkspace());
+            case QUICK_SORT -> quickSort(array, start, end);
+            case PDQSORT -> pdqSort(array, start, end);
+            case HEAP_SORT -> heapSort(array, start, end);
+            case MERGE_SORT -> mergeSort(array, start, end);
+            case INSERTION_SORT -> insertionSort(array, start, end);
+            case SELECTION_SORT -> selectionSort(array, start, end);
+            case BUBBLE_SORT -> bubbleSort(array, start, end);
+            case DEFAULT -> throw new RuntimeException();
+        }
+    }
+
+
+    static Presortedness adaptiveSort(long[] array, int start, int end) {
+        Presortedness presortedness
+                = Presortedness.probe(start, end, (i, j) -> Long.compare(array[i], array[j]), true);
+        sort(array, start, end, presortedness.choice);
+        return presortedness;
+    }
+
+
+    static void selectionSort(long[] array, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int minIndex = i;
+            long min = array[i];
+            for (int j = i + 1; j < end; j++) {
+                if (array[j] < min) {
+                    minIndex = j;
+                    min = array[j];
+                }
+            }
+            array[minIndex] = array[i];
+            array[i] = min;
+        }
+    }
+
+
+    static void bubbleSort(long[] array, int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            for (int j = start; j < i; j++) {
+                if (array[j] > array[j+1]) {
+                    long tmp = array[j];
+                    array[j] = array[j+1];
+                    array[j+1] = tmp;
+                }
+            }
+        }
+    }
+
+
+    static void insertionSort(long[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            long cur = array[i];
+            int indexToPaste = i;
+            while (indexToPaste > start && cur < array[indexToPaste-1]) {
+                array[indexToPaste] = array[indexToPaste-1];
+                --indexToPaste;
+            }
+            array[indexToPaste] = cur;
+        }
+    }
+
+
+    static void mergeSort(long[] array, int start, int end) {
+        if (end - start <= 1)
+            return;
+        // the left half of any subrange is never longer than the left half of the whole range
+        mergeSort(array, start, end, new long[(end - start) >> 1]);
+    }
+
+    private static void mergeSort(long[] array, int start, int end, long[] tmpArr) {
+        if (end - start <= 1)
+            return;
+        if (end - start == 2) {
+            if (array[start] > array[start+1]) {
+                long tmp = array[start];
+                array[start] = array[start+1];
+                array[start+1] = tmp;
+            }
+        } else {
+            int mid = start + ((end - start) >> 1);
+            mergeSort(array, start, mid, tmpArr);
+            mergeSort(array, mid, end, tmpArr);
+            merge(array, start, mid, end, tmpArr);
+        }
+    }
+
+    private static void merge(long[] array, int start, int mid, int end, long[] tmpArr) {
+
+        final int length = mid - start;
+
+        System.arraycopy(array, start, tmpArr, 0, length);
+
+        int index = 0;
+
+        while (index < length && mid < end)
+            if (tmpArr[index] <= array[mid])
+                array[start++] = tmpArr[index++];
+            else
+                array[start++] = array[mid++];
+
+        System.arraycopy(tmpArr, index, array, start, length - index);
+    }
+
+    private static void mergeWithGallop(long[] array, int start, int mid, int end, long[] tmpArr) {
+
+        final int length = mid - start;
+
+        System.arraycopy(array, start, tmpArr, 0, length);
+
+        int index = 0;
+
+        int leftGallopCount = 0;
+        int rightGallopCount = 0;
+
+        while (index < length && mid < end) {
+            if (leftGallopCount == Sorts.MAX_GALLOP_COUNT) {
+                leftGallopCount = 0;
+                int maxIndex = findFirstGreater(tmpArr, array[mid], index, length);
+                System.arraycopy(tmpArr, index, array, start, maxIndex - index);
+                start += maxIndex - index;
+                index = maxIndex;
+            } else if (rightGallopCount == Sorts.MAX_GALLOP_COUNT) {
+                rightGallopCount = 0;
+                int maxIndex = findFirstNotLess(array, tmpArr[index], mid, end);
+                System.arraycopy(array, mid, array, start, maxIndex - mid);
+                start += maxIndex - mid;
+                mid = maxIndex;
+            } else if (tmpArr[index] <= array[mid]) {
+                array[start++] = tmpArr[index++];
+                ++leftGallopCount;
+                rightGallopCount = 0;
+            } else {
+                array[start++] = array[mid++];
+                leftGallopCount = 0;
+                ++rightGallopCount;
+            }
+        }
+
+        System.arraycopy(tmpArr, index, array, start, length - index);
+    }
+
+    /**
+     * @return the first index in [left, right) whose element is greater than sample, or right if there is none.
+     */
+    private static int findFirstGreater(long[] arr, long sample, int left, int right) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (arr[mid] <= sample)
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
+    }
+
+    /**
+     * @return the first index in [left, right) whose element is not less than sample, or right if there is none.
+     */
+    private static int findFirstNotLess(long[] arr, long sample, int left, int right) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (arr[mid] < sample)
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
+    }
+
+
+    static void quickSort(long[] array, int start, int end) {
+        quickSort(array, start, end, Sorts.quickSortDepthLimit(end - start));
+    }
+
+    /**
+     * See {@link Sorts#quickSort(Object[], int, int, java.util.Comparator)}.
+     */
+    private static void quickSort(long[] array, int start, int end, int depthLimit) {
+
+        while (end - start > 1) {
+
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+
+            int mid = start + ((end - start) >> 1);
+
+            long pivot = array[mid];
+
+            // swapping pivot with last
+            array[mid] = array[end-1];
+            array[end-1] = pivot;
+
+            int lastMin = start - 1;
+            for (int i = start; i < end - 1; i++) {
+                if (array[i] < pivot) {
+                    ++lastMin;
+                    long tmp = array[lastMin];
+                    array[lastMin] = array[i];
+                    array[i] = tmp;
+                }
+            }
+            ++lastMin;
+            // swapping pivot with first greater
+            array[end-1] = array[lastMin];
+            array[lastMin] = pivot;
+
+            // recursion on the smaller side, the larger one is sorted by the next iteration
+            if (lastMin - start < end - lastMin - 1) {
+                quickSort(array, start, lastMin, depthLimit);
+                start = lastMin + 1;
+            } else {
+                quickSort(array, lastMin + 1, end, depthLimit);
+                end = lastMin;
+            }
+        }
+    }
+
+
+    static void pdqSort(long[] array, int start, int end) {
+
+        // ranges waiting to be sorted, three ints each: start, end and bad partitions allowed;
+        // the smaller side of a partition is sorted first, so no more than log2(n) ranges ever wait
+        int[] pending = new int[3 * Integer.SIZE];
+        int pendingCount = 0;
+
+        int badPartitionsAllowed = Sorts.pdqSortBadPartitionLimit(end - start);
+
+        while (true) {
+
+            if (end - start <= Sorts.PDQSORT_INSERTION_THRESHOLD) {
+                insertionSort(array, start, end);
+                if (pendingCount == 0)
+                    return;
+                badPartitionsAllowed = pending[--pendingCount];
+                end = pending[--pendingCount];
+                start = pending[--pendingCount];
+                continue;
+            }
+
+            final int length = end - start;
+
+            final long bounds = partition3(array, start, end);
+            final int lt = (int) (bounds >>> 32);
+            final int gt = (int) bounds;
+
+            if (Math.max(lt - start, end - gt) > length - (length >> 3)) {
+                if (--badPartitionsAllowed == 0) {
+                    heapSort(array, start, end);
+                    end = start;
+                    continue;
+                }
+                breakPatterns(array, start, lt);
+                breakPatterns(array, gt, end);
+            }
+
+            // the larger side waits
+            if (lt - start < end - gt) {
+                pending[pendingCount++] = gt;
+                pending[pendingCount++] = end;
+                end = lt;
+            } else {
+                pending[pendingCount++] = start;
+                pending[pendingCount++] = lt;
+                start = gt;
+            }
+            pending[pendingCount++] = badPartitionsAllowed;
+        }
+    }
+
+    /**
+     * Splits [start, end) into elements less than, equal to and greater than a median-of-3 or ninther pivot.
+     * @return lt &lt;&lt; 32 | gt, where [start, lt) &lt; pivot, [lt, gt) == pivot and [gt, end) &gt; pivot
+     */
+    private static long partition3(long[] array, int start, int end) {
+
+        final int length = end - start;
+        final int mid = start + (length >> 1);
+
+        int pivotIndex;
+        if (length > Sorts.PDQSORT_NINTHER_THRESHOLD) {
+            int step = length >> 3;
+            pivotIndex = medianOf3(array,
+                    medianOf3(array, start, start + step, start + 2 * step),
+                    medianOf3(array, mid - step, mid, mid + step),
+                    medianOf3(array, end - 1 - 2 * step, end - 1 - step, end - 1));
+        } else {
+            pivotIndex = medianOf3(array, start, mid, end - 1);
+        }
+
+        long pivot = array[pivotIndex];
+
+        int lt = start, i = start, gt = end;
+        while (i < gt) {
+            long cur = array[i];
+            if (cur < pivot) {
+                array[i++] = array[lt];
+                array[lt++] = cur;
+            } else if (cur > pivot) {
+                array[i] = array[--gt];
+                array[gt] = cur;
+            } else {
+                ++i;
+            }
+        }
+        return (long) lt << 32 | gt;
+    }
+
+    private static int medianOf3(long[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k])
+                return j;
+            return array[i] < array[k] ? k : i;
+        } else {
+            if (array[i] < array[k])
+                return i;
+            return array[j] < array[k] ? k : j;
+        }
+    }
+
+    private static void breakPatterns(long[] array, int start, int end) {
+        final int length = end - start;
+        if (length < Sorts.PDQSORT_INSERTION_THRESHOLD)
+            return;
+        long tmp = array[start];
+        array[start] = array[start + (length >> 2)];
+        array[start + (length >> 2)] = tmp;
+        tmp = array[end - 1];
+        array[end - 1] = array[end - 1 - (length >> 2)];
+        array[end - 1 - (length >> 2)] = tmp;
+    }
+
+
+    static void heapSort(long[] array, int start, int end) {
+
+        int size = end - start;
+
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            correctDown(array, start, size, i);
+
+        while (--size > 0) {
+            long tmp = array[start];
+            array[start] = array[start+size];
+            array[start+size] = tmp;
+            correctDown(array, start, size, 0);
+        }
+    }
+
+    private static void correctDown(long[] array, int start, int size, int i) {
+        long cur = array[start+i];
+        for (int child = 2 * i + 1; child < size; child = 2 * i + 1) {
+            if (child + 1 < size && array[start+child+1] > array[start+child])
+                ++child;
+            if (array[start+child] <= cur)
+                break;
+            array[start+i] = array[start+child];
+            i = child;
+        }
+        array[start+i] = cur;
+    }
+
+
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array from start inclusive to end exclusive: [start, end).
+     */
+    static void timsort(long[] array, int start, int end) {
+
+        if (end - start <= 1)
+            return;
+
+        final int minrun = Sorts.calculateMinrun(end - start);
+
+        int[] runBases = new int[16];
+        int[] runLengths = new int[16];
+        int runCount = 0;
+
+        long[] tmpArr = EMPTY_ARRAY;
+
+        for (int curRunStart = start; curRunStart < end;) {
+
+            int curRunEnd = curRunStart + 1;
+
+            if (curRunEnd < end) {
+                if (array[curRunEnd++] < array[curRunStart]) {
+                    while (curRunEnd < end && array[curRunEnd] < array[curRunEnd-1])
+                        ++curRunEnd;
+                    // 'a0 > a1 > ... > an' TO 'an < an-1 < ... < a0'
+                    for (int i = curRunStart, j = curRunEnd - 1; i < j; i++, j--) {
+                        long tmp = array[i];
+                        array[i] = array[j];
+                        array[j] = tmp;
+                    }
+                } else {
+                    while (curRunEnd < end && array[curRunEnd] >= array[curRunEnd-1])
+                        ++curRunEnd;
+                }
+            }
+
+            if (curRunEnd - curRunStart < minrun) {
+                curRunEnd = Math.min(curRunStart + minrun, end);
+                insertionSort(array, curRunStart, curRunEnd);
+            }
+
+            if (runCount == runBases.length) {
+                runBases = Arrays.copyOf(runBases, runCount << 1);
+                runLengths = Arrays.copyOf(runLengths, runCount << 1);
+            }
+            runBases[runCount] = curRunStart;
+            runLengths[runCount] = curRunEnd - curRunStart;
+            ++runCount;
+
+            // keeping 'X > Y + Z' and 'Y > Z' for the three topmost runs
+            while (runCount > 1) {
+                int n = runCount - 2;
+                if (n > 0 && runLengths[n-1] <= runLengths[n] + runLengths[n+1]
+                        || n > 1 && runLengths[n-2] <= runLengths[n] + runLengths[n-1]) {
+                    if (runLengths[n-1] < runLengths[n+1])
+                        --n;
+                } else if (runLengths[n] > runLengths[n+1]) {
+                    break;
+                }
+                tmpArr = mergeRuns(array, runBases, runLengths, runCount--, n, tmpArr);
+            }
+
+            curRunStart = curRunEnd;
+        }
+
+        while (runCount > 1) {
+            int n = runCount - 2;
+            if (n > 0 && runLengths[n-1] < runLengths[n+1])
+                --n;
+            tmpArr = mergeRuns(array, runBases, runLengths, runCount--, n, tmpArr);
+        }
+    }
+
+    /**
+     * Merges the runs n and n + 1 of the run stack, which holds runCount runs.
+     * @return tmpArr or a bigger buffer replacing it
+     */
+    private static long[] mergeRuns(long[] array, int[] runBases, int[] runLengths, int runCount, int n, long[] tmpArr) {
+        int base = runBases[n];
+        int leftLength = runLengths[n];
+        int rightLength = runLengths[n+1];
+        runLengths[n] = leftLength + rightLength;
+        if (n == runCount - 3) {
+            runBases[n+1] = runBases[n+2];
+            runLengths[n+1] = runLengths[n+2];
+        }
+        if (tmpArr.length < leftLength)
+            tmpArr = new long[leftLength];
+        mergeWithGallop(array, base, base + leftLength, base + leftLength + rightLength, tmpArr);
+        return tmpArr;
+    }
+
+
+    static void mySort(long[] array, int start, int end) {
+        if (end - start <= Sorts.MYSORT_MIN_LENGTH) {
+            insertionSort(array, start, end);
+            return;
+        }
+        mySort(array, start, end, new long[(end - start) >> 1]);
+    }
+
+    private static void mySort(long[] array, int start, int end, long[] tmpArr) {
+
+        if (end - start <= Sorts.MYSORT_MIN_LENGTH) {
+            insertionSort(array, start, end);
+            return;
+        }
+
+        int mid = start + ((end - start) >> 1);
+        mySort(array, start, mid, tmpArr);
+        mySort(array, mid, end, tmpArr);
+        merge(array, start, mid, end, tmpArr);
+    }
+}
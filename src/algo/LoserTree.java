@@ -0,0 +1,72 @@
+package algo;
+
+import java.util.Arrays;
+
+/**
+ * Tournament tree of k sources for k-way merging: tree[0] is the source holding the least head,
+ * every other node the source which lost the match played there. Leaves are implicit: source s
+ * sits at k + s, so the parent of node n is n / 2. Replacing the winner's head replays only the
+ * log k matches on its path, comparing with the stored losers and never with siblings.
+ * <p>
+ * Subclasses define the order of heads, an exhausted source must lose to any other.
+ */
+abstract class LoserTree {
+
+    final int[] tree;
+
+
+    LoserTree(int k) {
+        tree = new int[k];
+    }
+
+
+    /**
+     * @return whether the head of source a goes before the head of source b
+     */
+    abstract boolean beats(int a, int b);
+
+
+    final void build() {
+        Arrays.fill(tree, -1);
+        for (int s = 0; s < tree.length; s++)
+            replay(s);
+    }
+
+    final int winner() {
+        return tree[0];
+    }
+
+    /**
+     * Plays the matches on the way from the leaf of source s up to the root. While the tree is being built
+     * a node still holding -1 has seen only one side yet: the candidate waits there.
+     */
+    final void replay(int s) {
+        final int k = tree.length;
+        int winner = s;
+        for (int node = (s + k) >> 1; node > 0; node >>= 1) {
+            int other = tree[node];
+            if (other == -1) {
+                tree[node] = winner;
+                return;
+            }
+            if (beats(other, winner)) {
+                tree[node] = winner;
+                winner = other;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * @return the source which would win if the winner were removed, -1 if there is a single source
+     */
+    final int runnerUp() {
+        final int k = tree.length;
+        int best = -1;
+        // the runner-up lost its last match to the winner, so it is on the winner's path
+        for (int node = (tree[0] + k) >> 1; node > 0; node >>= 1)
+            if (best == -1 || beats(tree[node], best))
+                best = tree[node];
+        return best;
+    }
+}
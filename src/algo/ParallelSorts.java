@@ -0,0 +1,200 @@
+package algo;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join merge sort behind {@link Sorts#parallelSort}.
+ * <p>
+ * A range longer than the sequential cutoff is split into four quarters which are sorted in parallel,
+ * the two pairs of quarters are merged into a buffer, and the two halves are merged back into the array.
+ * Ranges up to the cutoff are sorted with {@link Sorts#sort} and the chosen sorting type,
+ * merges longer than the cutoff are split in two by binary search and run in parallel as well.
+ * Ties always go to the left run, so the sort is stable whenever the chunk sorting type is.
+ */
+final class ParallelSorts {
+
+    private ParallelSorts() {
+        new Error("Forbidden instance of class " + ParallelSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    /**
+     * The least cutoff for which each quarter of a range to split is shorter than the range and not empty.
+     */
+    static final int MIN_SEQUENTIAL_CUTOFF = 4;
+
+
+    @SuppressWarnings("unchecked")
+    static <T> void sort(T[] array, int start, int end, Comparator<? super T> comparator,
+                         Sorts.SortingType chunkSortingType, int sequentialCutoff, ForkJoinPool pool) {
+        if (sequentialCutoff < MIN_SEQUENTIAL_CUTOFF)
+            throw new IllegalArgumentException("Sequential cutoff " + sequentialCutoff + " < " + MIN_SEQUENTIAL_CUTOFF);
+        if (chunkSortingType == Sorts.SortingType.DEFAULT)
+            chunkSortingType = Sorts.SortingType.getCurrentDefault();
+        if (chunkSortingType == Sorts.SortingType.PARALLEL)
+            throw new IllegalArgumentException("Chunks can't be sorted with " + chunkSortingType);
+        if (end - start <= sequentialCutoff) {
+            Sorts.sort(array, start, end, comparator, chunkSortingType);
+            return;
+        }
+        Job job = new Job(array, new Object[end - start], start, (Comparator<Object>) comparator, chunkSortingType, sequentialCutoff);
+        pool.invoke(new SortTask(job, start, end));
+    }
+
+
+    private static final class Job {
+
+        final Object[] array;
+        final Object[] buffer;
+        // buffer[i - bufferShift] stands for array[i]
+        final int bufferShift;
+        final Comparator<Object> comparator;
+        final Sorts.SortingType chunkSortingType;
+        final int sequentialCutoff;
+
+        Job(Object[] array, Object[] buffer, int bufferShift, Comparator<Object> comparator,
+            Sorts.SortingType chunkSortingType, int sequentialCutoff) {
+            this.array = array;
+            this.buffer = buffer;
+            this.bufferShift = bufferShift;
+            this.comparator = comparator;
+            this.chunkSortingType = chunkSortingType;
+            this.sequentialCutoff = sequentialCutoff;
+        }
+    }
+
+
+    @SuppressWarnings("serial")
+    private static final class SortTask extends RecursiveAction {
+
+        final Job job;
+        final int start;
+        final int end;
+
+        SortTask(Job job, int start, int end) {
+            this.job = job;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            final int length = end - start;
+            if (length <= job.sequentialCutoff) {
+                Sorts.sort(job.array, start, end, job.comparator, job.chunkSortingType);
+                return;
+            }
+            int half = length >>> 1;
+            int quarter = half >>> 1;
+            int a = start, b = start + quarter, c = start + half, d = c + quarter;
+            invokeAll(
+                    new SortTask(job, a, b),
+                    new SortTask(job, b, c),
+                    new SortTask(job, c, d),
+                    new SortTask(job, d, end));
+            invokeAll(
+                    new MergeTask(job, job.array, 0, job.buffer, job.bufferShift, a, b, b, c, a),
+                    new MergeTask(job, job.array, 0, job.buffer, job.bufferShift, c, d, d, end, c));
+            new MergeTask(job, job.buffer, job.bufferShift, job.array, 0, a, c, c, end, a).compute();
+        }
+    }
+
+
+    /**
+     * Merges the sorted runs src[leftStart, leftEnd) and src[rightStart, rightEnd) into dst starting at dstStart.
+     * Indexes are those of the sorted array, shifts convert them to indexes of src and dst.
+     */
+    @SuppressWarnings("serial")
+    private static final class MergeTask extends RecursiveAction {
+
+        final Job job;
+        final Object[] src;
+        final int srcShift;
+        final Object[] dst;
+        final int dstShift;
+        final int leftStart, leftEnd;
+        final int rightStart, rightEnd;
+        final int dstStart;
+
+        MergeTask(Job job, Object[] src, int srcShift, Object[] dst, int dstShift,
+                  int leftStart, int leftEnd, int rightStart, int rightEnd, int dstStart) {
+            this.job = job;
+            this.src = src;
+            this.srcShift = srcShift;
+            this.dst = dst;
+            this.dstShift = dstShift;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.dstStart = dstStart;
+        }
+
+        @Override
+        protected void compute() {
+            final int leftLength = leftEnd - leftStart;
+            final int rightLength = rightEnd - rightStart;
+            if (leftLength + rightLength <= job.sequentialCutoff) {
+                merge();
+                return;
+            }
+            int leftMid, rightMid;
+            if (leftLength >= rightLength) {
+                leftMid = leftStart + (leftLength >>> 1);
+                rightMid = findFirstNotLess(src[leftMid - srcShift], rightStart, rightEnd);
+            } else {
+                rightMid = rightStart + (rightLength >>> 1);
+                leftMid = findFirstGreater(src[rightMid - srcShift], leftStart, leftEnd);
+            }
+            invokeAll(
+                    new MergeTask(job, src, srcShift, dst, dstShift, leftStart, leftMid, rightStart, rightMid, dstStart),
+                    new MergeTask(job, src, srcShift, dst, dstShift, leftMid, leftEnd, rightMid, rightEnd,
+                            dstStart + (leftMid - leftStart) + (rightMid - rightStart)));
+        }
+
+        private void merge() {
+            final Comparator<Object> comparator = job.comparator;
+            int left = leftStart - srcShift, leftLast = leftEnd - srcShift;
+            int right = rightStart - srcShift, rightLast = rightEnd - srcShift;
+            int index = dstStart - dstShift;
+            while (left < leftLast && right < rightLast)
+                if (comparator.compare(src[left], src[right]) <= 0)
+                    dst[index++] = src[left++];
+                else
+                    dst[index++] = src[right++];
+            System.arraycopy(src, left, dst, index, leftLast - left);
+            System.arraycopy(src, right, dst, index + leftLast - left, rightLast - right);
+        }
+
+        /**
+         * @return the first index in [left, right) whose element is not less than sample, or right if there is none.
+         */
+        private int findFirstNotLess(Object sample, int left, int right) {
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (job.comparator.compare(src[mid - srcShift], sample) < 0)
+                    left = mid + 1;
+                else
+                    right = mid;
+            }
+            return left;
+        }
+
+        /**
+         * @return the first index in [left, right) whose element is greater than sample, or right if there is none.
+         */
+        private int findFirstGreater(Object sample, int left, int right) {
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (job.comparator.compare(src[mid - srcShift], sample) <= 0)
+                    left = mid + 1;
+                else
+                    right = mid;
+            }
+            return left;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package algo;
+
+/**
+ * A cheap estimate of how sorted a range already is, and the {@link Sorts.SortingType} chosen for it
+ * by {@link Sorts.SortingType#ADAPTIVE}: insertion sort for short ranges, timsort for long runs or nearly sorted data,
+ * otherwise radix sort for long ranges of primitives with few duplicates, and pattern-defeating quicksort else.
+ * <p>
+ * The probe compares a few hundred elements at most, whatever the size of the range:
+ * adjacent pairs in {@value #SAMPLE_BLOCKS} evenly spread blocks give the number of ascending and descending runs,
+ * and all pairs of {@value #STRIDED_SAMPLE} evenly spread elements
+ * give the share of inversions and, once the sample is sorted, the share of duplicates.
+ */
+public final class Presortedness {
+
+    static final int SAMPLE_BLOCKS = 32;
+
+    static final int BLOCK_LENGTH = 8;
+
+    static final int STRIDED_SAMPLE = 16;
+
+    /**
+     * Ranges up to this length are insertion sorted without probing.
+     */
+    static final int INSERTION_THRESHOLD = Sorts.PDQSORT_INSERTION_THRESHOLD;
+
+    /**
+     * Less than this share of turns means long runs, which timsort merges cheaply.
+     */
+    static final double LONG_RUNS_TURN_RATIO = 0.1;
+
+    /**
+     * Less than this share of inversions means the range is sorted but for local noise, which timsort absorbs.
+     */
+    static final double NEARLY_SORTED_INVERSION_RATIO = 0.05;
+
+    /**
+     * Radix sort's passes pay off from this length on.
+     */
+    static final int RADIX_THRESHOLD = 1 << 12;
+
+    /**
+     * From this share of duplicates on three-way partitioning beats the fixed number of radix passes.
+     */
+    static final double RADIX_DUPLICATE_RATIO = 0.25;
+
+
+    public final int size;
+
+    /**
+     * Share of sampled adjacent pairs where ascending order turns into descending or back,
+     * about (number of runs - 1) / (size - 1): 0 for sorted, reversed or organ pipe, 2/3 for random.
+     */
+    public final double turnRatio;
+
+    /**
+     * Share of sampled pairs of distant elements in descending order: 0 for sorted, 1 for reversed, 0.5 for random.
+     */
+    public final double inversionRatio;
+
+    /**
+     * Share of sampled elements equal to another sampled element.
+     */
+    public final double duplicateRatio;
+
+    public final Sorts.SortingType choice;
+
+
+    private Presortedness(int size, double turnRatio, double inversionRatio, double duplicateRatio, Sorts.SortingType choice) {
+        this.size = size;
+        this.turnRatio = turnRatio;
+        this.inversionRatio = inversionRatio;
+        this.duplicateRatio = duplicateRatio;
+        this.choice = choice;
+    }
+
+
+    /**
+     * @param radixAvailable whether the array may be radix sorted
+     */
+    static Presortedness probe(int start, int end, IndexComparator comparator, boolean radixAvailable) {
+
+        final int size = end - start;
+
+        if (size <= INSERTION_THRESHOLD)
+            return new Presortedness(size, 0, 0, 0, Sorts.SortingType.INSERTION_SORT);
+
+        int turns;
+        int pairs;
+        if (size <= SAMPLE_BLOCKS * BLOCK_LENGTH) {
+            turns = countTurns(start, end, comparator);
+            pairs = size - 1;
+        } else {
+            turns = 0;
+            for (int b = 0; b < SAMPLE_BLOCKS; b++) {
+                int blockStart = start + (int) ((long) b * (size - BLOCK_LENGTH) / (SAMPLE_BLOCKS - 1));
+                turns += countTurns(blockStart, blockStart + BLOCK_LENGTH, comparator);
+            }
+            pairs = SAMPLE_BLOCKS * (BLOCK_LENGTH - 1);
+        }
+        final double turnRatio = (double) turns / pairs;
+
+        int[] sample = new int[STRIDED_SAMPLE];
+        for (int k = 0; k < STRIDED_SAMPLE; k++)
+            sample[k] = start + (int) ((long) k * (size - 1) / (STRIDED_SAMPLE - 1));
+
+        int inversions = 0;
+        for (int k = 0; k < STRIDED_SAMPLE; k++)
+            for (int l = k + 1; l < STRIDED_SAMPLE; l++)
+                if (comparator.compare(sample[k], sample[l]) > 0)
+                    ++inversions;
+        final double inversionRatio = (double) inversions / (STRIDED_SAMPLE * (STRIDED_SAMPLE - 1) / 2);
+
+        for (int k = 1; k < STRIDED_SAMPLE; k++) {
+            int cur = sample[k];
+            int indexToPaste = k;
+            while (indexToPaste > 0 && comparator.compare(cur, sample[indexToPaste-1]) < 0) {
+                sample[indexToPaste] = sample[indexToPaste-1];
+                --indexToPaste;
+            }
+            sample[indexToPaste] = cur;
+        }
+        int duplicates = 0;
+        for (int k = 1; k < STRIDED_SAMPLE; k++)
+            if (comparator.compare(sample[k - 1], sample[k]) == 0)
+                ++duplicates;
+        final double duplicateRatio = (double) duplicates / (STRIDED_SAMPLE - 1);
+
+        Sorts.SortingType choice;
+        if (turnRatio < LONG_RUNS_TURN_RATIO || inversionRatio < NEARLY_SORTED_INVERSION_RATIO)
+            choice = Sorts.SortingType.TIMSORT;
+        else if (radixAvailable && size >= RADIX_THRESHOLD && duplicateRatio < RADIX_DUPLICATE_RATIO)
+            choice = Sorts.SortingType.RADIX_SORT;
+        else
+            choice = Sorts.SortingType.PDQSORT;
+
+        return new Presortedness(size, turnRatio, inversionRatio, duplicateRatio, choice);
+    }
+
+
+    /**
+     * @return how many times the order of adjacent pairs in [start, end) turns from ascending to descending or back,
+     * equal pairs keep the current order
+     */
+    private static int countTurns(int start, int end, IndexComparator comparator) {
+        int turns = 0;
+        int previousOrder = 0;
+        for (int i = start + 1; i < end; i++) {
+            int order = Integer.signum(comparator.compare(i - 1, i));
+            if (order == 0)
+                continue;
+            if (previousOrder != 0 && order != previousOrder)
+                ++turns;
+            previousOrder = order;
+        }
+        return turns;
+    }
+
+
+    @Override
+    public String toString() {
+        return "{ size: " + size + ", turns: " + turnRatio + ", inversions: " + inversionRatio
+                + ", duplicates: " + duplicateRatio + ", choice: " + choice + " }";
+    }
+}
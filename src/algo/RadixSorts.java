@@ -0,0 +1,330 @@
+package algo;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Radix sorts behind {@link Sorts#radixSort} and {@link Sorts.SortingType#RADIX_SORT}.
+ * <p>
+ * Fixed-width keys (ints, longs, doubles as their ordered bits) are sorted least significant byte first:
+ * one pass counts every byte of every key, then each byte is a stable scatter from the data into a buffer
+ * and back, skipped when all keys share that byte. Flipping the sign bit of the top byte orders signed keys.
+ * Elements sorted by a key move together with their keys.
+ * <p>
+ * Variable-length keys (Strings as UTF-16 code units split into two bytes, byte arrays as unsigned bytes)
+ * are sorted most significant byte first, recursively by bucket, with insertion sort for short buckets.
+ * <p>
+ * All radix sorts are stable, histograms and buffers come from a {@link SortWorkspace}.
+ */
+final class RadixSorts {
+
+    private RadixSorts() {
+        new Error("Forbidden instance of class " + RadixSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    static final int RADIX_BITS = 8;
+    static final int RADIX = 1 << RADIX_BITS;
+    static final int MASK = RADIX - 1;
+
+    /**
+     * Ranges up to this length are insertion sorted, LSD passes wouldn't pay off.
+     */
+    static final int INSERTION_THRESHOLD = 64;
+
+    /**
+     * Buckets up to this length are insertion sorted by the MSD sorts.
+     */
+    static final int MSD_INSERTION_THRESHOLD = 32;
+
+    /**
+     * MSD buckets: one for keys already ended, then one for every byte value.
+     */
+    private static final int MSD_BUCKETS = RADIX + 1;
+
+
+    static void sort(int[] array, int start, int end, SortWorkspace workspace) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            IntSorts.insertionSort(array, start, end);
+            return;
+        }
+        sortInts(array, start, null, 0, end - start, workspace);
+    }
+
+    static void sort(long[] array, int start, int end, SortWorkspace workspace) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            LongSorts.insertionSort(array, start, end);
+            return;
+        }
+        sortLongs(array, start, null, 0, end - start, workspace);
+    }
+
+    /**
+     * Sorts doubles without NaNs in the order of {@link Double#compare},
+     * as longs whose order is the same: the bits of negative doubles but the sign bit are flipped.
+     */
+    static void sort(double[] array, int start, int end, SortWorkspace workspace) {
+        final int length = end - start;
+        if (length <= INSERTION_THRESHOLD) {
+            DoubleSorts.insertionSort(array, start, end);
+            return;
+        }
+        long[] keys = workspace.longKeys(length);
+        for (int i = 0; i < length; i++) {
+            long bits = Double.doubleToRawLongBits(array[start+i]);
+            keys[i] = bits ^ (bits >> 63 & Long.MAX_VALUE);
+        }
+        sortLongs(keys, 0, null, 0, length, workspace);
+        for (int i = 0; i < length; i++) {
+            long key = keys[i];
+            array[start+i] = Double.longBitsToDouble(key ^ (key >> 63 & Long.MAX_VALUE));
+        }
+    }
+
+    static <T> void sortByIntKey(T[] array, int start, int end, ToIntFunction<? super T> keyExtractor, SortWorkspace workspace) {
+        final int length = end - start;
+        if (length <= 1)
+            return;
+        int[] keys = workspace.intKeys(length);
+        for (int i = 0; i < length; i++)
+            keys[i] = keyExtractor.applyAsInt(array[start+i]);
+        sortInts(keys, 0, array, start, length, workspace);
+    }
+
+    static <T> void sortByLongKey(T[] array, int start, int end, ToLongFunction<? super T> keyExtractor, SortWorkspace workspace) {
+        final int length = end - start;
+        if (length <= 1)
+            return;
+        long[] keys = workspace.longKeys(length);
+        for (int i = 0; i < length; i++)
+            keys[i] = keyExtractor.applyAsLong(array[start+i]);
+        sortLongs(keys, 0, array, start, length, workspace);
+    }
+
+
+    /**
+     * LSD sort of keys[keysStart, keysStart + length), moving objects[objectsStart, objectsStart + length)
+     * along with them unless objects is null.
+     */
+    private static void sortInts(int[] keys, int keysStart, Object[] objects, int objectsStart, int length,
+                                 SortWorkspace workspace) {
+
+        int[] count = workspace.histogram(Integer.BYTES * RADIX);
+        Arrays.fill(count, 0, Integer.BYTES * RADIX, 0);
+        for (int i = keysStart; i < keysStart + length; i++) {
+            int key = keys[i] ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < Integer.BYTES; pass++)
+                ++count[pass * RADIX + (key >>> pass * RADIX_BITS & MASK)];
+        }
+
+        int[] keyBuffer = workspace.intBuffer(length);
+        Object[] objectBuffer = objects == null ? null : workspace.buffer(length);
+
+        boolean inBuffer = false;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+
+            final int shift = pass * RADIX_BITS;
+            final int base = pass * RADIX;
+
+            int[] srcKeys = inBuffer ? keyBuffer : keys;
+            int[] dstKeys = inBuffer ? keys : keyBuffer;
+            Object[] srcObjects = inBuffer ? objectBuffer : objects;
+            Object[] dstObjects = inBuffer ? objects : objectBuffer;
+            final int srcKeysStart = inBuffer ? 0 : keysStart;
+            final int dstKeysStart = inBuffer ? keysStart : 0;
+            final int srcObjectsStart = inBuffer ? 0 : objectsStart;
+            final int dstObjectsStart = inBuffer ? objectsStart : 0;
+
+            // every key has the same byte
+            if (count[base + ((srcKeys[srcKeysStart] ^ Integer.MIN_VALUE) >>> shift & MASK)] == length)
+                continue;
+
+            for (int r = 0, sum = 0; r < RADIX; r++) {
+                int c = count[base + r];
+                count[base + r] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < length; i++) {
+                int key = srcKeys[srcKeysStart + i];
+                int position = count[base + ((key ^ Integer.MIN_VALUE) >>> shift & MASK)]++;
+                dstKeys[dstKeysStart + position] = key;
+                if (objects != null)
+                    dstObjects[dstObjectsStart + position] = srcObjects[srcObjectsStart + i];
+            }
+
+            inBuffer = !inBuffer;
+        }
+
+        if (inBuffer) {
+            System.arraycopy(keyBuffer, 0, keys, keysStart, length);
+            if (objects != null)
+                System.arraycopy(objectBuffer, 0, objects, objectsStart, length);
+        }
+    }
+
+    /**
+     * Same as {@link #sortInts} for long keys.
+     */
+    private static void sortLongs(long[] keys, int keysStart, Object[] objects, int objectsStart, int length,
+                                  SortWorkspace workspace) {
+
+        int[] count = workspace.histogram(Long.BYTES * RADIX);
+        Arrays.fill(count, 0, Long.BYTES * RADIX, 0);
+        for (int i = keysStart; i < keysStart + length; i++) {
+            long key = keys[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < Long.BYTES; pass++)
+                ++count[pass * RADIX + (int) (key >>> pass * RADIX_BITS & MASK)];
+        }
+
+        long[] keyBuffer = workspace.longBuffer(length);
+        Object[] objectBuffer = objects == null ? null : workspace.buffer(length);
+
+        boolean inBuffer = false;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+
+            final int shift = pass * RADIX_BITS;
+            final int base = pass * RADIX;
+
+            long[] srcKeys = inBuffer ? keyBuffer : keys;
+            long[] dstKeys = inBuffer ? keys : keyBuffer;
+            Object[] srcObjects = inBuffer ? objectBuffer : objects;
+            Object[] dstObjects = inBuffer ? objects : objectBuffer;
+            final int srcKeysStart = inBuffer ? 0 : keysStart;
+            final int dstKeysStart = inBuffer ? keysStart : 0;
+            final int srcObjectsStart = inBuffer ? 0 : objectsStart;
+            final int dstObjectsStart = inBuffer ? objectsStart : 0;
+
+            // every key has the same byte
+            if (count[base + (int) ((srcKeys[srcKeysStart] ^ Long.MIN_VALUE) >>> shift & MASK)] == length)
+                continue;
+
+            for (int r = 0, sum = 0; r < RADIX; r++) {
+                int c = count[base + r];
+                count[base + r] = sum;
+                sum += c;
+            }
+
+            for (int i = 0; i < length; i++) {
+                long key = srcKeys[srcKeysStart + i];
+                int position = count[base + (int) ((key ^ Long.MIN_VALUE) >>> shift & MASK)]++;
+                dstKeys[dstKeysStart + position] = key;
+                if (objects != null)
+                    dstObjects[dstObjectsStart + position] = srcObjects[srcObjectsStart + i];
+            }
+
+            inBuffer = !inBuffer;
+        }
+
+        if (inBuffer) {
+            System.arraycopy(keyBuffer, 0, keys, keysStart, length);
+            if (objects != null)
+                System.arraycopy(objectBuffer, 0, objects, objectsStart, length);
+        }
+    }
+
+
+    /**
+     * Byte access to a variable-length key for the MSD sorts.
+     */
+    private interface ByteKey<T> {
+
+        /**
+         * @return the byte at position d as 0..255, or -1 if the key is shorter
+         */
+        int byteAt(T t, int d);
+
+        int compare(T o1, T o2);
+    }
+
+    private static final ByteKey<String> STRING_KEY = new ByteKey<>() {
+        @Override
+        public int byteAt(String s, int d) {
+            int index = d >> 1;
+            if (index >= s.length())
+                return -1;
+            char c = s.charAt(index);
+            return (d & 1) == 0 ? c >>> RADIX_BITS : c & MASK;
+        }
+
+        @Override
+        public int compare(String o1, String o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    private static final ByteKey<byte[]> BYTES_KEY = new ByteKey<>() {
+        @Override
+        public int byteAt(byte[] b, int d) {
+            return d < b.length ? b[d] & MASK : -1;
+        }
+
+        @Override
+        public int compare(byte[] o1, byte[] o2) {
+            return Arrays.compareUnsigned(o1, o2);
+        }
+    };
+
+
+    static void sort(String[] array, int start, int end, SortWorkspace workspace) {
+        msdSort(array, start, end, 0, STRING_KEY, workspace);
+    }
+
+    static void sort(byte[][] array, int start, int end, SortWorkspace workspace) {
+        msdSort(array, start, end, 0, BYTES_KEY, workspace);
+    }
+
+    /**
+     * Sorts [start, end) whose keys are all equal before the byte d.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void msdSort(T[] array, int start, int end, int d, ByteKey<T> byteKey, SortWorkspace workspace) {
+
+        while (end - start > MSD_INSERTION_THRESHOLD) {
+
+            final int length = end - start;
+
+            // every depth has its own histogram
+            int[] count = workspace.histogram((d + 1) * (MSD_BUCKETS + 1));
+            final int base = d * (MSD_BUCKETS + 1);
+            Arrays.fill(count, base, base + MSD_BUCKETS + 1, 0);
+            for (int i = start; i < end; i++)
+                ++count[base + byteKey.byteAt(array[i], d) + 2];
+
+            // every key has the same byte: no need to move anything
+            int firstBucket = byteKey.byteAt(array[start], d) + 1;
+            if (count[base + firstBucket + 1] == length) {
+                if (firstBucket == 0)
+                    return;
+                ++d;
+                continue;
+            }
+
+            for (int r = 0; r < MSD_BUCKETS; r++)
+                count[base + r + 1] += count[base + r];
+
+            Object[] buffer = workspace.buffer(length);
+            for (int i = start; i < end; i++)
+                buffer[count[base + byteKey.byteAt(array[i], d) + 1]++] = array[i];
+            for (int i = 0; i < length; i++)
+                array[start+i] = (T) buffer[i];
+
+            // count[base + r] is the end of bucket r now, the ended keys of bucket 0 are sorted already
+            for (int r = 1; r < MSD_BUCKETS; r++)
+                msdSort(array, start + count[base + r - 1], start + count[base + r], d + 1, byteKey, workspace);
+            return;
+        }
+
+        for (int i = start + 1; i < end; i++) {
+            T cur = array[i];
+            int indexToPaste = i;
+            while (indexToPaste > start && byteKey.compare(cur, array[indexToPaste-1]) < 0) {
+                array[indexToPaste] = array[indexToPaste-1];
+                --indexToPaste;
+            }
+            array[indexToPaste] = cur;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package algo;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of one object sort run through {@link #measure}: comparisons, element moves (writes to the array
+ * or to the merge buffer), merges, gallops, timsort runs with a histogram of their lengths, the deepest quickSort
+ * recursion, the bytes allocated by the sorting thread and the time taken. Finished measurements go to every
+ * {@link Sink} added, {@link #registerMBeans()} adds one exporting totals per sorting type over JMX.
+ * <p>
+ * Comparisons are counted by a wrapping comparator, so {@link #measure} always has them. The other counters
+ * come from hooks inside {@link Sorts}, compiled in only with {@code -Dalgo.sortMetrics=true}: the hooks test
+ * the constant {@link #ENABLED} first, so without the property the JIT drops them and sorting costs nothing more.
+ * Primitive sorts, which take no comparator, are not counted, and the hooks count only on the thread that called
+ * {@link #measure}, so the chunks parallel sorts hand to other threads are missing from everything but comparisons.
+ */
+public final class SortMetrics {
+
+
+    public static final boolean ENABLED = Boolean.getBoolean("algo.sortMetrics");
+
+    /**
+     * Bucket i of the run length histogram counts runs of length in [2^i, 2^(i+1)).
+     */
+    public static final int HISTOGRAM_BUCKETS = Integer.SIZE;
+
+
+    /**
+     * Receives every finished measurement on the sorting thread.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(SortMetrics metrics);
+    }
+
+
+    private static final ThreadLocal<SortMetrics> CURRENT = new ThreadLocal<>();
+
+    private static final CopyOnWriteArrayList<Sink> SINKS = new CopyOnWriteArrayList<>();
+
+
+    private final Sorts.SortingType sortingType;
+    private final int length;
+
+    private long compares;
+    private long moves;
+    private long merges;
+    private long gallops;
+    private long runs;
+    private final long[] runLengthHistogram = new long[HISTOGRAM_BUCKETS];
+    private int depth;
+    private int maxQuickSortDepth;
+    private long allocatedBytes;
+    private long nanos;
+
+
+    private SortMetrics(Sorts.SortingType sortingType, int length) {
+        this.sortingType = sortingType;
+        this.length = length;
+    }
+
+
+    public static <T> SortMetrics measure(T[] array, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        return measure(array, 0, array.length, comparator, sortingType);
+    }
+
+    /**
+     * Sorts [start, end) with {@link Sorts#sort(Object[], int, int, Comparator, Sorts.SortingType)} counting,
+     * and passes the counters to the sinks.
+     */
+    public static <T> SortMetrics measure(
+            T[] array, int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+
+        final SortMetrics metrics = new SortMetrics(sortingType, end - start);
+        final Comparator<T> counting = (a, b) -> {
+            ++metrics.compares;
+            return comparator.compare(a, b);
+        };
+
+        com.sun.management.ThreadMXBean threadMXBean
+                = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        final SortMetrics outer = CURRENT.get();
+        CURRENT.set(metrics);
+        final long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        final long startNanos = System.nanoTime();
+        try {
+            Sorts.sort(array, start, end, counting, sortingType);
+        } finally {
+            metrics.nanos = System.nanoTime() - startNanos;
+            metrics.allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            CURRENT.set(outer);
+        }
+
+        for (Sink sink : SINKS)
+            sink.accept(metrics);
+        return metrics;
+    }
+
+
+    public static void addSink(Sink sink) {
+        SINKS.add(sink);
+    }
+
+    public static void removeSink(Sink sink) {
+        SINKS.remove(sink);
+    }
+
+    /**
+     * Registers an MXBean of totals for every sorting type as {@code algo:type=SortMetrics,sortingType=<type>}
+     * with the platform MBean server, fed by a sink.
+     * @return the sink, for {@link #removeSink}
+     */
+    public static Sink registerMBeans() throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final Totals[] totals = new Totals[Sorts.SortingType.values().length];
+        for (Sorts.SortingType type : Sorts.SortingType.values()) {
+            totals[type.ordinal()] = new Totals();
+            server.registerMBean(totals[type.ordinal()],
+                    new ObjectName("algo:type=SortMetrics,sortingType=" + type));
+        }
+        Sink sink = metrics -> totals[metrics.sortingType.ordinal()].add(metrics);
+        addSink(sink);
+        return sink;
+    }
+
+
+    // HOOKS, each call is guarded by ENABLED
+
+    static void countMoves(long n) {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            metrics.moves += n;
+    }
+
+    static void countMerge(long moves) {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            ++metrics.merges;
+            metrics.moves += moves;
+        }
+    }
+
+    static void countGallop() {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            ++metrics.gallops;
+    }
+
+    static void countRun(int length) {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            ++metrics.runs;
+            ++metrics.runLengthHistogram[bucket(length)];
+        }
+    }
+
+    static void enterQuickSort() {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null && ++metrics.depth > metrics.maxQuickSortDepth)
+            metrics.maxQuickSortDepth = metrics.depth;
+    }
+
+    static void exitQuickSort() {
+        SortMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            --metrics.depth;
+    }
+
+    private static int bucket(int length) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(Math.max(length, 1));
+    }
+
+
+    public Sorts.SortingType sortingType() {
+        return sortingType;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long compares() {
+        return compares;
+    }
+
+    public long moves() {
+        return moves;
+    }
+
+    public long merges() {
+        return merges;
+    }
+
+    public long gallops() {
+        return gallops;
+    }
+
+    public long runs() {
+        return runs;
+    }
+
+    /**
+     * @return a copy of the histogram, see {@link #HISTOGRAM_BUCKETS}
+     */
+    public long[] runLengthHistogram() {
+        return runLengthHistogram.clone();
+    }
+
+    public int maxQuickSortDepth() {
+        return maxQuickSortDepth;
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+
+    @Override
+    public String toString() {
+        int lastBucket = HISTOGRAM_BUCKETS;
+        while (lastBucket > 0 && runLengthHistogram[lastBucket-1] == 0)
+            --lastBucket;
+        return "SortMetrics{type=" + sortingType + ", length=" + length + ", compares=" + compares
+                + ", moves=" + moves + ", merges=" + merges + ", gallops=" + gallops + ", runs=" + runs
+                + ", runLengthHistogram=" + Arrays.toString(Arrays.copyOf(runLengthHistogram, lastBucket))
+                + ", maxQuickSortDepth=" + maxQuickSortDepth + ", allocatedBytes=" + allocatedBytes
+                + ", nanos=" + nanos + "}";
+    }
+
+
+    /**
+     * Totals of the measurements of one sorting type, safe to read from the JMX thread while sorts add to it.
+     */
+    public static final class Totals implements SortMetricsMXBean {
+
+        private static final int SORTS = 0;
+        private static final int ELEMENTS = 1;
+        private static final int COMPARES = 2;
+        private static final int MOVES = 3;
+        private static final int MERGES = 4;
+        private static final int GALLOPS = 5;
+        private static final int RUNS = 6;
+        private static final int ALLOCATED_BYTES = 7;
+        private static final int NANOS = 8;
+        private static final int MAX_QUICK_SORT_DEPTH = 9;
+        private static final int COUNTERS = 10;
+
+        private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+        private final AtomicLongArray runLengthHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+        void add(SortMetrics metrics) {
+            counters.incrementAndGet(SORTS);
+            counters.addAndGet(ELEMENTS, metrics.length);
+            counters.addAndGet(COMPARES, metrics.compares);
+            counters.addAndGet(MOVES, metrics.moves);
+            counters.addAndGet(MERGES, metrics.merges);
+            counters.addAndGet(GALLOPS, metrics.gallops);
+            counters.addAndGet(RUNS, metrics.runs);
+            counters.addAndGet(ALLOCATED_BYTES, metrics.allocatedBytes);
+            counters.addAndGet(NANOS, metrics.nanos);
+            counters.accumulateAndGet(MAX_QUICK_SORT_DEPTH, metrics.maxQuickSortDepth, Math::max);
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+                if (metrics.runLengthHistogram[i] != 0)
+                    runLengthHistogram.addAndGet(i, metrics.runLengthHistogram[i]);
+        }
+
+        @Override
+        public long getSorts() {
+            return counters.get(SORTS);
+        }
+
+        @Override
+        public long getElements() {
+            return counters.get(ELEMENTS);
+        }
+
+        @Override
+        public long getCompares() {
+            return counters.get(COMPARES);
+        }
+
+        @Override
+        public long getMoves() {
+            return counters.get(MOVES);
+        }
+
+        @Override
+        public long getMerges() {
+            return counters.get(MERGES);
+        }
+
+        @Override
+        public long getGallops() {
+            return counters.get(GALLOPS);
+        }
+
+        @Override
+        public long getRuns() {
+            return counters.get(RUNS);
+        }
+
+        @Override
+        public long[] getRunLengthHistogram() {
+            long[] histogram = new long[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+                histogram[i] = runLengthHistogram.get(i);
+            return histogram;
+        }
+
+        @Override
+        public long getMaxQuickSortDepth() {
+            return counters.get(MAX_QUICK_SORT_DEPTH);
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return counters.get(ALLOCATED_BYTES);
+        }
+
+        @Override
+        public long getNanos() {
+            return counters.get(NANOS);
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < COUNTERS; i++)
+                counters.set(i, 0);
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+                runLengthHistogram.set(i, 0);
+        }
+    }
+}
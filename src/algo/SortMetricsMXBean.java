@@ -0,0 +1,31 @@
+package algo;
+
+/**
+ * JMX view of the {@link SortMetrics} totals of one sorting type, see {@link SortMetrics#registerMBeans()}.
+ */
+public interface SortMetricsMXBean {
+
+    long getSorts();
+
+    long getElements();
+
+    long getCompares();
+
+    long getMoves();
+
+    long getMerges();
+
+    long getGallops();
+
+    long getRuns();
+
+    long[] getRunLengthHistogram();
+
+    long getMaxQuickSortDepth();
+
+    long getAllocatedBytes();
+
+    long getNanos();
+
+    void reset();
+}
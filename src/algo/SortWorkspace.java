@@ -0,0 +1,107 @@
+package algo;
+
+import java.util.Arrays;
+
+/**
+ * Scratch memory for {@link Sorts#timsort}, {@link Sorts#mergeSort} and {@link Sorts#mySort}:
+ * one growable merge buffer and the timsort run stack kept as two int arrays,
+ * and for the radix sorts: key and buffer arrays of ints and longs and the digit histogram.
+ * <p>
+ * A workspace held by the caller and passed to every call stops growing after the first sort
+ * of the biggest size, so repeated sorts don't allocate at all.
+ * Not thread safe: a workspace must not be used by two sorts at the same time.
+ * The buffer keeps references to sorted elements until {@link #release()} or the next sort overwrites them.
+ */
+public final class SortWorkspace {
+
+
+    private static final int DEFAULT_RUN_CAPACITY = 16;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private Object[] buffer;
+
+    private int[] intKeys = new int[0];
+    private int[] intBuffer = new int[0];
+    private long[] longKeys = new long[0];
+    private long[] longBuffer = new long[0];
+    private int[] histogram = new int[0];
+
+    int[] runBases;
+    int[] runLengths;
+
+
+    public SortWorkspace() {
+        this(0);
+    }
+
+    public SortWorkspace(int initialBufferCapacity) {
+        buffer = new Object[initialBufferCapacity];
+        runBases = new int[DEFAULT_RUN_CAPACITY];
+        runLengths = new int[DEFAULT_RUN_CAPACITY];
+    }
+
+
+    Object[] buffer(int minCapacity) {
+        if (buffer.length < minCapacity)
+            buffer = new Object[Math.max((int) (buffer.length * CAPACITY_MULTIPLIER), minCapacity)];
+        return buffer;
+    }
+
+    int[] intKeys(int minCapacity) {
+        if (intKeys.length < minCapacity)
+            intKeys = new int[Math.max((int) (intKeys.length * CAPACITY_MULTIPLIER), minCapacity)];
+        return intKeys;
+    }
+
+    int[] intBuffer(int minCapacity) {
+        if (intBuffer.length < minCapacity)
+            intBuffer = new int[Math.max((int) (intBuffer.length * CAPACITY_MULTIPLIER), minCapacity)];
+        return intBuffer;
+    }
+
+    long[] longKeys(int minCapacity) {
+        if (longKeys.length < minCapacity)
+            longKeys = new long[Math.max((int) (longKeys.length * CAPACITY_MULTIPLIER), minCapacity)];
+        return longKeys;
+    }
+
+    long[] longBuffer(int minCapacity) {
+        if (longBuffer.length < minCapacity)
+            longBuffer = new long[Math.max((int) (longBuffer.length * CAPACITY_MULTIPLIER), minCapacity)];
+        return longBuffer;
+    }
+
+    /**
+     * The returned array may be a new one, callers already holding the old one may keep using it.
+     */
+    int[] histogram(int minCapacity) {
+        if (histogram.length < minCapacity)
+            histogram = new int[Math.max(histogram.length << 1, minCapacity)];
+        return histogram;
+    }
+
+    void ensureRunCapacity(int minCapacity) {
+        if (runBases.length >= minCapacity)
+            return;
+        int newCapacity = Math.max(runBases.length << 1, minCapacity);
+        runBases = Arrays.copyOf(runBases, newCapacity);
+        runLengths = Arrays.copyOf(runLengths, newCapacity);
+    }
+
+
+    public int bufferCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Drops the buffers, the object one together with the references it still holds.
+     */
+    public void release() {
+        buffer = new Object[0];
+        intKeys = new int[0];
+        intBuffer = new int[0];
+        longKeys = new long[0];
+        longBuffer = new long[0];
+    }
+}
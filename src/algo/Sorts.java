@@ -1,9 +1,9 @@
 package algo;
 
-import containers.ArrayList;
-import containers.Pair;
-
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public final class Sorts {
 
@@ -13,6 +13,37 @@ public final class Sorts {
     }
 
 
+    static final int MAX_MINRUN = 64;
+
+    static final int MAX_GALLOP_COUNT = 7;
+
+    static final int MYSORT_MIN_LENGTH = 32;
+
+    static final int PDQSORT_INSERTION_THRESHOLD = 24;
+
+    static final int PDQSORT_NINTHER_THRESHOLD = 128;
+
+    static int pdqSortBadPartitionLimit(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * Partitions quickSort may take down one path before heap sort takes over, as in introsort.
+     */
+    static int quickSortDepthLimit(int n) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(n));
+    }
+
+    static int calculateMinrun(int n) {
+        int r = 0;
+        while (n >= MAX_MINRUN) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+
     public enum SortingType {
 
         DEFAULT,
@@ -23,9 +54,31 @@ public final class Sorts {
         QUICK_SORT,
         HEAP_SORT,
         TIMSORT,
-        MYSORT;
-
-        private static SortingType currentDefault = TIMSORT;
+        MYSORT,
+        /**
+         * {@link Sorts#pdqSort}: introsort with three-way partitioning, O(n log n) in the worst case.
+         */
+        PDQSORT,
+        /**
+         * {@link Sorts#parallelSort} with {@link #TIMSORT} chunks on the common pool.
+         * Primitive arrays are sorted with {@link #TIMSORT} on the calling thread.
+         */
+        PARALLEL,
+        /**
+         * Stable LSD radix sort for int, long and double arrays and for sorts by an int key.
+         * A {@code T[]} sorted with a comparator has no key to take apart and is sorted with {@link #TIMSORT}.
+         * @see Sorts#radixSort
+         */
+        RADIX_SORT,
+        /**
+         * Probes the range for runs, inversions and duplicates and sorts it with
+         * {@link #INSERTION_SORT}, {@link #TIMSORT}, {@link #PDQSORT} or, for primitive arrays, {@link #RADIX_SORT},
+         * see {@link Presortedness}.
+         * Not stable, as it may choose {@link #PDQSORT}.
+         */
+        ADAPTIVE;
+
+        private static volatile SortingType currentDefault = TIMSORT;
 
         public static SortingType getCurrentDefault() {
             return currentDefault;
@@ -52,14 +105,29 @@ public final class Sorts {
     }
 
     public static <T> void sort(T[] array, int start, int end, Comparator<? super T> comparator, SortingType sortingType) {
+        sort(array, start, end, comparator, sortingType, null);
+    }
+
+    /**
+     * Sorts taking scratch memory from the workspace, so that a workspace reused across calls makes
+     * {@link SortingType#TIMSORT}, {@link SortingType#MERGE_SORT} and {@link SortingType#MYSORT} allocation free.
+     * @param workspace null for a new one if the sorting type takes any
+     */
+    public static <T> void sort(T[] array, int start, int end, Comparator<? super T> comparator, SortingType sortingType,
+                                SortWorkspace workspace) {
         if (sortingType == SortingType.DEFAULT)
             sortingType = SortingType.getCurrentDefault();
+        if (workspace == null && usesWorkspace(sortingType))
+            workspace = new SortWorkspace();
         switch (sortingType) {
-            case MYSORT -> mySort(array, start, end, comparator);
-            case TIMSORT -> timsort(array, start, end, comparator);
+            case ADAPTIVE -> adaptiveSort(array, start, end, comparator, workspace);
+            case PARALLEL -> parallelSort(array, start, end, comparator);
+            case MYSORT -> mySort(array, start, end, comparator, workspace);
+            case TIMSORT, RADIX_SORT -> timsort(array, start, end, comparator, workspace);
             case QUICK_SORT -> quickSort(array, start, end, comparator);
+            case PDQSORT -> pdqSort(array, start, end, comparator);
             case HEAP_SORT -> heapSort(array, start, end, comparator);
-            case MERGE_SORT -> mergeSort(array, start, end, comparator);
+            case MERGE_SORT -> mergeSort(array, start, end, comparator, workspace);
             case INSERTION_SORT -> insertionSort(array, start, end, comparator);
             case SELECTION_SORT -> selectionSort(array, start, end, comparator);
             case BUBBLE_SORT -> bubbleSort(array, start, end, comparator);
@@ -67,6 +135,232 @@ public final class Sorts {
         }
     }
 
+    private static boolean usesWorkspace(SortingType sortingType) {
+        return switch (sortingType) {
+            case ADAPTIVE, MYSORT, TIMSORT, RADIX_SORT, MERGE_SORT -> true;
+            default -> false;
+        };
+    }
+
+
+    public static <T> Presortedness adaptiveSort(T[] array, Comparator<? super T> comparator) {
+        return adaptiveSort(array, 0, array.length, comparator, new SortWorkspace());
+    }
+
+    /**
+     * Sorts with the sorting type {@link Presortedness} chooses for the range.
+     * @return the probe result, holding the chosen sorting type
+     */
+    public static <T> Presortedness adaptiveSort(T[] array, int start, int end, Comparator<? super T> comparator,
+                                                 SortWorkspace workspace) {
+        Presortedness presortedness
+                = Presortedness.probe(start, end, (i, j) -> comparator.compare(array[i], array[j]), false);
+        sort(array, start, end, comparator, presortedness.choice, workspace);
+        return presortedness;
+    }
+
+    public static Presortedness adaptiveSort(int[] array, int start, int end) {
+        return IntSorts.adaptiveSort(array, start, end);
+    }
+
+    public static Presortedness adaptiveSort(long[] array, int start, int end) {
+        return LongSorts.adaptiveSort(array, start, end);
+    }
+
+
+    public static void radixSort(int[] array, int start, int end) {
+        radixSort(array, start, end, new SortWorkspace());
+    }
+
+    /**
+     * Stable LSD radix sort, a byte per pass, see {@link SortingType#RADIX_SORT}.
+     */
+    public static void radixSort(int[] array, int start, int end, SortWorkspace workspace) {
+        RadixSorts.sort(array, start, end, workspace);
+    }
+
+    public static void radixSort(long[] array, int start, int end) {
+        radixSort(array, start, end, new SortWorkspace());
+    }
+
+    public static void radixSort(long[] array, int start, int end, SortWorkspace workspace) {
+        RadixSorts.sort(array, start, end, workspace);
+    }
+
+    public static <T> void radixSortByIntKey(T[] array, int start, int end, ToIntFunction<? super T> keyExtractor) {
+        radixSortByIntKey(array, start, end, keyExtractor, new SortWorkspace());
+    }
+
+    /**
+     * Stable LSD radix sort by keys extracted once per element.
+     */
+    public static <T> void radixSortByIntKey(T[] array, int start, int end, ToIntFunction<? super T> keyExtractor,
+                                             SortWorkspace workspace) {
+        RadixSorts.sortByIntKey(array, start, end, keyExtractor, workspace);
+    }
+
+    public static <T> void radixSortByLongKey(T[] array, int start, int end, ToLongFunction<? super T> keyExtractor) {
+        radixSortByLongKey(array, start, end, keyExtractor, new SortWorkspace());
+    }
+
+    public static <T> void radixSortByLongKey(T[] array, int start, int end, ToLongFunction<? super T> keyExtractor,
+                                              SortWorkspace workspace) {
+        RadixSorts.sortByLongKey(array, start, end, keyExtractor, workspace);
+    }
+
+    public static void radixSort(String[] array, int start, int end) {
+        radixSort(array, start, end, new SortWorkspace());
+    }
+
+    /**
+     * Stable MSD radix sort in the order of {@link String#compareTo}.
+     */
+    public static void radixSort(String[] array, int start, int end, SortWorkspace workspace) {
+        RadixSorts.sort(array, start, end, workspace);
+    }
+
+    public static void radixSort(byte[][] array, int start, int end) {
+        radixSort(array, start, end, new SortWorkspace());
+    }
+
+    /**
+     * Stable MSD radix sort in the order of {@link java.util.Arrays#compareUnsigned(byte[], byte[])}.
+     */
+    public static void radixSort(byte[][] array, int start, int end, SortWorkspace workspace) {
+        RadixSorts.sort(array, start, end, workspace);
+    }
+
+
+    /**
+     * The least length of a chunk sorted on one thread by {@link #parallelSort} unless another cutoff is given.
+     */
+    public static final int DEFAULT_PARALLEL_CUTOFF = 1 << 13;
+
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+        parallelSort(array, 0, array.length, comparator);
+    }
+
+    public static <T> void parallelSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int cutoff = Math.max(DEFAULT_PARALLEL_CUTOFF, (end - start) / (pool.getParallelism() << 2));
+        parallelSort(array, start, end, comparator, SortingType.TIMSORT, cutoff, pool);
+    }
+
+    public static <T> void parallelSort(T[] array, int start, int end, Comparator<? super T> comparator,
+                                        SortingType chunkSortingType, int sequentialCutoff) {
+        parallelSort(array, start, end, comparator, chunkSortingType, sequentialCutoff, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Stable fork-join merge sort: ranges up to sequentialCutoff are sorted with chunkSortingType,
+     * longer ones are split, sorted in parallel on the pool and merged in parallel.
+     * Stable if chunkSortingType is stable. Uses a buffer of end - start elements.
+     * @throws IllegalArgumentException if sequentialCutoff is less than 4 or chunkSortingType is {@link SortingType#PARALLEL}
+     */
+    public static <T> void parallelSort(T[] array, int start, int end, Comparator<? super T> comparator,
+                                        SortingType chunkSortingType, int sequentialCutoff, ForkJoinPool pool) {
+        ParallelSorts.sort(array, start, end, comparator, chunkSortingType, sequentialCutoff, pool);
+    }
+
+
+    public static void sort(int[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(int[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(int[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(int[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        IntSorts.sort(array, start, end, sortingType);
+    }
+
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(long[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(long[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(long[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        LongSorts.sort(array, start, end, sortingType);
+    }
+
+
+    /**
+     * Sorts in the order of {@link Double#compare}: -0.0 goes before 0.0 and NaNs go last.
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(double[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(double[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(double[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        DoubleSorts.sort(array, start, end, sortingType);
+    }
+
+
+    public static <T> void sort(T[] array, ToIntFunction<? super T> keyExtractor) {
+        sort(array, 0, array.length, keyExtractor, SortingType.DEFAULT);
+    }
+
+    public static <T> void sort(T[] array, ToIntFunction<? super T> keyExtractor, SortingType sortingType) {
+        sort(array, 0, array.length, keyExtractor, sortingType);
+    }
+
+    /**
+     * Sorts by an int key without calling a comparator: every key is packed with the element's offset
+     * into one long, {@code key << 32 | offset}, and those longs are sorted by {@link LongSorts}.
+     * The offset makes all packed keys distinct, so the result is stable whatever the sorting type.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(T[] array, int start, int end, ToIntFunction<? super T> keyExtractor, SortingType sortingType) {
+        final int length = end - start;
+        long[] keys = new long[length];
+        Object[] elements = new Object[length];
+        for (int i = 0; i < length; i++) {
+            elements[i] = array[start+i];
+            keys[i] = (long) keyExtractor.applyAsInt(array[start+i]) << 32 | i;
+        }
+        sort(keys, 0, length, sortingType);
+        for (int i = 0; i < length; i++)
+            array[start+i] = (T) elements[(int) keys[i]];
+    }
+
+
+    /**
+     * Sorts [start, end) of a sequence reachable only by index, such as records outside of the heap,
+     * by swapping its elements in place. See {@link IndexSorts}, not stable.
+     */
+    public static void sort(int start, int end, IndexComparator comparator, IndexSwapper swapper) {
+        if (start > end)
+            throw new IllegalArgumentException("start " + start + " > end " + end);
+        IndexSorts.sort(start, end, comparator, swapper);
+    }
+
 
     public static <T> void selectionSort(T[] array, Comparator<? super T> comparator) {
         selectionSort(array, 0, array.length, comparator);
@@ -86,6 +380,8 @@ public final class Sorts {
             T tmp = array[i];
             array[i] = array[minIndex];
             array[minIndex] = tmp;
+            if (SortMetrics.ENABLED)
+                SortMetrics.countMoves(2);
         }
     }
 
@@ -101,6 +397,8 @@ public final class Sorts {
                     T tmp = array[j];
                     array[j] = array[j+1];
                     array[j+1] = tmp;
+                    if (SortMetrics.ENABLED)
+                        SortMetrics.countMoves(2);
                 }
             }
         }
@@ -119,6 +417,8 @@ public final class Sorts {
                 --indexToPaste;
             System.arraycopy(array, indexToPaste, array, indexToPaste + 1, i - indexToPaste);
             array[indexToPaste] = cur;
+            if (SortMetrics.ENABLED)
+                SortMetrics.countMoves(i - indexToPaste + 1);
         }
     }
 
@@ -128,6 +428,17 @@ public final class Sorts {
     }
 
     public static <T> void mergeSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        mergeSort(array, start, end, comparator, new SortWorkspace());
+    }
+
+    public static <T> void mergeSort(T[] array, int start, int end, Comparator<? super T> comparator, SortWorkspace workspace) {
+        if (end - start <= 1)
+            return;
+        // the left half of any subrange is never longer than the left half of the whole range
+        mergeSort(array, start, end, comparator, workspace.buffer((end - start) >> 1));
+    }
+
+    private static <T> void mergeSort(T[] array, int start, int end, Comparator<? super T> comparator, Object[] tmpArr) {
         if (end - start <= 1)
             return;
         if (end - start == 2) {
@@ -135,93 +446,163 @@ public final class Sorts {
                 T tmp = array[start];
                 array[start] = array[start+1];
                 array[start+1] = tmp;
+                if (SortMetrics.ENABLED)
+                    SortMetrics.countMoves(2);
             }
         } else {
             int mid = start + ((end - start) >> 1);
-            mergeSort(array, start, mid, comparator);
-            mergeSort(array, mid, end, comparator);
-            merge(array, start, mid, end, comparator);
+            mergeSort(array, start, mid, comparator, tmpArr);
+            mergeSort(array, mid, end, comparator, tmpArr);
+            merge(array, start, mid, end, comparator, tmpArr);
         }
     }
 
+    /**
+     * Merges [start, mid) and [mid, end) copying the left run to tmpArr, which must hold at least mid - start elements.
+     */
     @SuppressWarnings("unchecked")
-    private static <T> void merge(T[] array, int start, int mid, int end, Comparator<? super T> comparator) {
+    private static <T> void merge(T[] array, int start, int mid, int end, Comparator<? super T> comparator, Object[] tmpArr) {
 
-        Object[] tmpArr = new Object[mid - start];
+        final int length = mid - start;
 
-        System.arraycopy(array, start, tmpArr, 0, tmpArr.length);
+        if (SortMetrics.ENABLED)
+            SortMetrics.countMerge(length + end - start);
+
+        System.arraycopy(array, start, tmpArr, 0, length);
 
         int index = 0;
 
-        while (start < mid && mid < end)
+        while (index < length && mid < end)
             if (comparator.compare((T) tmpArr[index], array[mid]) <= 0)
                 array[start++] = (T) tmpArr[index++];
             else
                 array[start++] = array[mid++];
 
-        while (start < mid)
-            array[start++] = (T) tmpArr[index++];
+        System.arraycopy(tmpArr, index, array, start, length - index);
     }
 
+    /**
+     * Same as {@link #merge}, but after maxGallopCount elements in a row are taken from one run
+     * the end of the series is found by binary search and copied at once.
+     */
     @SuppressWarnings("unchecked")
     private static <T> void mergeWithGallop(
-            T[] array, int start, int mid, int end, Comparator<? super T> comparator, final int maxGallopCount) {
+            T[] array, int start, int mid, int end, Comparator<? super T> comparator, final int maxGallopCount, Object[] tmpArr) {
 
-        Object[] tmpArr = new Object[mid - start];
+        final int length = mid - start;
 
-        System.arraycopy(array, start, tmpArr, 0, tmpArr.length);
+        if (SortMetrics.ENABLED)
+            SortMetrics.countMerge(length + end - start);
+
+        System.arraycopy(array, start, tmpArr, 0, length);
 
         int index = 0;
 
-        int[] currentGallopCount = { 0, 0 };
+        int leftGallopCount = 0;
+        int rightGallopCount = 0;
 
-        while (start < mid && mid < end) {
+        while (index < length && mid < end) {
 
-            if (currentGallopCount[0] == maxGallopCount || currentGallopCount[1] == maxGallopCount) {
-                if (currentGallopCount[0] == maxGallopCount) {
-                    currentGallopCount[0] = 0;
-                    int maxIndex = binaryFindMinGreater(tmpArr, array[mid], index, tmpArr.length, comparator);
-                    while (index < maxIndex)
-                        array[start++] = (T) tmpArr[index++];
+            if (leftGallopCount == maxGallopCount || rightGallopCount == maxGallopCount) {
+                if (SortMetrics.ENABLED)
+                    SortMetrics.countGallop();
+                if (leftGallopCount == maxGallopCount) {
+                    leftGallopCount = 0;
+                    int maxIndex = upperBound((T[]) tmpArr, index, length, array[mid], comparator);
+                    System.arraycopy(tmpArr, index, array, start, maxIndex - index);
+                    start += maxIndex - index;
+                    index = maxIndex;
                 } else {
-                    currentGallopCount[1] = 0;
-                    int maxIndex = binaryFindMinGreater(array, (T) tmpArr[index], mid, end, comparator);
-                    while (mid < maxIndex)
-                        array[start++] = array[mid++];
+                    rightGallopCount = 0;
+                    // only the right elements less than the left one, equal ones must stay after it
+                    int maxIndex = lowerBound(array, mid, end, (T) tmpArr[index], comparator);
+                    System.arraycopy(array, mid, array, start, maxIndex - mid);
+                    start += maxIndex - mid;
+                    mid = maxIndex;
                 }
             } else {
                 if (comparator.compare((T) tmpArr[index], array[mid]) <= 0) {
                     array[start] = (T) tmpArr[index];
                     ++index;
-                    currentGallopCount[0] += 1;
-                    currentGallopCount[1] = 0;
+                    ++leftGallopCount;
+                    rightGallopCount = 0;
                 } else {
                     array[start] = array[mid];
                     ++mid;
-                    currentGallopCount[0] = 0;
-                    currentGallopCount[1] += 1;
+                    leftGallopCount = 0;
+                    ++rightGallopCount;
                 }
                 ++start;
             }
         }
 
-        while (start < mid)
-            array[start++] = (T) tmpArr[index++];
+        System.arraycopy(tmpArr, index, array, start, length - index);
     }
 
-    @SuppressWarnings("unchecked")
-    private static <E, T> int binaryFindMinGreater(E[] arr, T sample, int left, int right, Comparator<? super T> comparator) {
-        if (left >= right)
-            throw new IllegalArgumentException();
-        while (right - left > 1) {
-            int mid = left + ((right - left) >> 1);
-            int diff = comparator.compare((T) arr[mid], sample);
-            if (diff <= 0)
-                left = mid;
+    /**
+     * Merges the sorted ranges [start, mid) and [mid, end) into a sorted [start, end), galloping through long series
+     * taken from one range. The head of the left range not greater than the right one and the tail of the right range
+     * not less than the left one stay in place, so merging a short range into a long one moves little.
+     */
+    public static <T> void merge(T[] array, int start, int mid, int end, Comparator<? super T> comparator, SortWorkspace workspace) {
+        if (start < 0 || end > array.length || start > mid || mid > end)
+            throw new IndexOutOfBoundsException();
+        if (start == mid || mid == end)
+            return;
+        start = upperBound(array, start, mid, array[mid], comparator);
+        if (start == mid)
+            return;
+        end = lowerBound(array, mid, end, array[mid-1], comparator);
+        mergeWithGallop(array, start, mid, end, comparator, MAX_GALLOP_COUNT, workspace.buffer(mid - start));
+    }
+
+
+    public static <T> int lowerBound(T[] array, T key, Comparator<? super T> comparator) {
+        return lowerBound(array, 0, array.length, key, comparator);
+    }
+
+    /**
+     * @return the first index of the sorted [start, end) whose element is not less than key, end if there is none
+     */
+    public static <T> int lowerBound(T[] array, int start, int end, T key, Comparator<? super T> comparator) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (comparator.compare(array[mid], key) < 0)
+                start = mid + 1;
+            else
+                end = mid;
+        }
+        return start;
+    }
+
+    public static <T> int upperBound(T[] array, T key, Comparator<? super T> comparator) {
+        return upperBound(array, 0, array.length, key, comparator);
+    }
+
+    /**
+     * @return the first index of the sorted [start, end) whose element is greater than key, end if there is none
+     */
+    public static <T> int upperBound(T[] array, int start, int end, T key, Comparator<? super T> comparator) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (comparator.compare(array[mid], key) <= 0)
+                start = mid + 1;
             else
-                right = mid;
+                end = mid;
         }
-        return comparator.compare((T) arr[left], sample) > 0 ? left : right;
+        return start;
+    }
+
+    public static <T> int binarySearch(T[] array, T key, Comparator<? super T> comparator) {
+        return binarySearch(array, 0, array.length, key, comparator);
+    }
+
+    /**
+     * @return the first index of key in the sorted [start, end), or -(insertion point) - 1 if it's absent
+     */
+    public static <T> int binarySearch(T[] array, int start, int end, T key, Comparator<? super T> comparator) {
+        int index = lowerBound(array, start, end, key, comparator);
+        return index < end && comparator.compare(array[index], key) == 0 ? index : -index - 1;
     }
 
 
@@ -229,240 +610,489 @@ public final class Sorts {
         quickSort(array, 0, array.length, comparator);
     }
 
+    /**
+     * Lomuto partition around the middle element. The smaller side is sorted by recursion and the larger one
+     * by the next iteration, so no more than log2(n) calls are ever on the stack, and a range still unsorted after
+     * {@link #quickSortDepthLimit} partitions goes to heap sort: many equal keys, of which every partition
+     * takes off only the pivot, take O(n log n) instead of O(n^2). Not stable.
+     */
     public static <T> void quickSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        quickSort(array, start, end, comparator, quickSortDepthLimit(end - start));
+    }
+
+    private static <T> void quickSort(T[] array, int start, int end, Comparator<? super T> comparator, int depthLimit) {
 
         if (end - start <= 1)
             return;
 
-        int mid = start + ((end - start) >> 1);
+        if (SortMetrics.ENABLED)
+            SortMetrics.enterQuickSort();
 
-        T pivot = array[mid];
+        while (end - start > 1) {
 
-        // swapping pivot with last
-        array[mid] =  array[end-1];
-        array[end-1] = pivot;
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end, comparator);
+                break;
+            }
 
-        int lastMin = start - 1;
-        for (int i = start; i < end - 1; i++) {
-            if (comparator.compare(array[i], pivot) < 0) {
-                ++lastMin;
-                T tmp = array[lastMin];
-                array[lastMin] = array[i];
-                array[i] = tmp;
+            int mid = start + ((end - start) >> 1);
+
+            T pivot = array[mid];
+
+            // swapping pivot with last
+            array[mid] =  array[end-1];
+            array[end-1] = pivot;
+
+            int lastMin = start - 1;
+            for (int i = start; i < end - 1; i++) {
+                if (comparator.compare(array[i], pivot) < 0) {
+                    ++lastMin;
+                    T tmp = array[lastMin];
+                    array[lastMin] = array[i];
+                    array[i] = tmp;
+                    if (SortMetrics.ENABLED)
+                        SortMetrics.countMoves(2);
+                }
+            }
+            ++lastMin;
+            // swapping pivot with first greater
+            array[end-1] = array[lastMin];
+            array[lastMin] = pivot;
+
+            // recursion on the smaller side, the larger one is sorted by the next iteration
+            if (lastMin - start < end - lastMin - 1) {
+                quickSort(array, start, lastMin, comparator, depthLimit);
+                start = lastMin + 1;
+            } else {
+                quickSort(array, lastMin + 1, end, comparator, depthLimit);
+                end = lastMin;
             }
         }
-        ++lastMin;
-        // swapping pivot with first greater
-        array[end-1] = array[lastMin];
-        array[lastMin] = pivot;
 
-        // recursion
-        quickSort(array, start, lastMin, comparator);
-        quickSort(array, lastMin + 1, end, comparator);
+        if (SortMetrics.ENABLED)
+            SortMetrics.exitQuickSort();
     }
 
 
-    public static <T> void heapSort(T[] array, Comparator<? super T> comparator) {
-        heapSort(array, 0, array.length, comparator);
+    /**
+     * Pattern-defeating quicksort in the manner of <a href="https://github.com/orlp/pdqsort">pdqsort</a>:
+     * the pivot is the median of three elements (of three medians of three for long ranges),
+     * the range is split three-way into less, equal and greater elements, so that equal keys are done with at once,
+     * only the smaller side is sorted recursively and short ranges are left to insertion sort.
+     * A partition leaving more than 7/8 of the range on one side is bad: it swaps a few elements
+     * to break the input pattern, and after log2(n) bad partitions the range is handed to heap sort.
+     * Not stable. O(n log n) in the worst case, O(n) for a few distinct keys.
+     */
+    public static <T> void pdqSort(T[] array, Comparator<? super T> comparator) {
+        pdqSort(array, 0, array.length, comparator);
     }
 
-    public static <T> void heapSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+    public static <T> void pdqSort(T[] array, int start, int end, Comparator<? super T> comparator) {
 
-        class HeapSortClass {
+        // ranges waiting to be sorted, three ints each: start, end and bad partitions allowed;
+        // the smaller side of a partition is sorted first, so no more than log2(n) ranges ever wait
+        int[] pending = new int[3 * Integer.SIZE];
+        int pendingCount = 0;
 
-            int size = end - start;
+        int badPartitionsAllowed = pdqSortBadPartitionLimit(end - start);
 
-            T get(int index) {
-                return array[start+index];
-            }
+        while (true) {
 
-            void set(int index, T t) {
-                array[start+index] = t;
+            if (end - start <= PDQSORT_INSERTION_THRESHOLD) {
+                insertionSort(array, start, end, comparator);
+                if (pendingCount == 0)
+                    return;
+                badPartitionsAllowed = pending[--pendingCount];
+                end = pending[--pendingCount];
+                start = pending[--pendingCount];
+                continue;
             }
 
-            void correctDown(int i) {
-                int ch1 = 2 * i + 1;
-                if (ch1 >= size)
-                    return;
-                int ch2 = ch1 + 1;
-                if (ch2 == size)
-                    ch2 = ch1;
-                if (comparator.compare(get(ch1), get(i)) > 0
-                        || comparator.compare(get(ch2), get(i)) > 0) {
-                    int maxChild = comparator.compare(get(ch1), get(ch2)) > 0 ? ch1 : ch2;
-                    T tmp = get(i);
-                    set(i, get(maxChild));
-                    set(maxChild, tmp);
-                    correctDown(maxChild);
+            final int length = end - start;
+
+            final long bounds = partition3(array, start, end, choosePivot(array, start, end, comparator), comparator);
+            final int lt = (int) (bounds >>> 32);
+            final int gt = (int) bounds;
+
+            if (Math.max(lt - start, end - gt) > length - (length >> 3)) {
+                if (--badPartitionsAllowed == 0) {
+                    heapSort(array, start, end, comparator);
+                    end = start;
+                    continue;
                 }
+                breakPatterns(array, start, lt);
+                breakPatterns(array, gt, end);
             }
 
-            void correctUp(int i) {
-                if (i <= 0)
-                    return;
-                int p = (i - 1) >> 1;
-                if (comparator.compare(get(i), get(p)) > 0) {
-                    T tmp = get(i);
-                    set(i, get(p));
-                    set(p, tmp);
-                    correctUp(p);
-                }
+            // the larger side waits
+            if (lt - start < end - gt) {
+                pending[pendingCount++] = gt;
+                pending[pendingCount++] = end;
+                end = lt;
+            } else {
+                pending[pendingCount++] = start;
+                pending[pendingCount++] = lt;
+                start = gt;
             }
+            pending[pendingCount++] = badPartitionsAllowed;
+        }
+    }
 
-            void sort() {
-                for (int i = size - 1; i > 0; i--)
-                    correctUp(i);
+    /**
+     * @return the index of the median of 3 elements, or of the ninther for ranges longer than PDQSORT_NINTHER_THRESHOLD
+     */
+    private static <T> int choosePivot(T[] array, int start, int end, Comparator<? super T> comparator) {
+
+        final int length = end - start;
+        final int mid = start + (length >> 1);
+
+        if (length > PDQSORT_NINTHER_THRESHOLD) {
+            int step = length >> 3;
+            return medianOf3(array,
+                    medianOf3(array, start, start + step, start + 2 * step, comparator),
+                    medianOf3(array, mid - step, mid, mid + step, comparator),
+                    medianOf3(array, end - 1 - 2 * step, end - 1 - step, end - 1, comparator),
+                    comparator);
+        }
+        return medianOf3(array, start, mid, end - 1, comparator);
+    }
 
-                while (size-- > 0) {
-                    T tmp = get(0);
-                    set(0, get(size));
-                    set(size, tmp);
-                    correctDown(0);
-                }
+    /**
+     * Splits [start, end) into elements less than, equal to and greater than array[pivotIndex].
+     * @return lt &lt;&lt; 32 | gt, where [start, lt) &lt; pivot, [lt, gt) == pivot and [gt, end) &gt; pivot
+     */
+    private static <T> long partition3(T[] array, int start, int end, int pivotIndex, Comparator<? super T> comparator) {
+
+        T pivot = array[pivotIndex];
+
+        int lt = start, i = start, gt = end;
+        while (i < gt) {
+            int diff = comparator.compare(array[i], pivot);
+            if (diff < 0) {
+                T tmp = array[lt];
+                array[lt++] = array[i];
+                array[i++] = tmp;
+                if (SortMetrics.ENABLED)
+                    SortMetrics.countMoves(2);
+            } else if (diff > 0) {
+                T tmp = array[--gt];
+                array[gt] = array[i];
+                array[i] = tmp;
+                if (SortMetrics.ENABLED)
+                    SortMetrics.countMoves(2);
+            } else {
+                ++i;
             }
         }
+        return (long) lt << 32 | gt;
+    }
+
+    private static <T> int medianOf3(T[] array, int i, int j, int k, Comparator<? super T> comparator) {
+        if (comparator.compare(array[i], array[j]) < 0) {
+            if (comparator.compare(array[j], array[k]) < 0)
+                return j;
+            return comparator.compare(array[i], array[k]) < 0 ? k : i;
+        } else {
+            if (comparator.compare(array[i], array[k]) < 0)
+                return i;
+            return comparator.compare(array[j], array[k]) < 0 ? k : j;
+        }
+    }
 
-        new HeapSortClass().sort();
+    private static <T> void breakPatterns(T[] array, int start, int end) {
+        final int length = end - start;
+        if (length < PDQSORT_INSERTION_THRESHOLD)
+            return;
+        T tmp = array[start];
+        array[start] = array[start + (length >> 2)];
+        array[start + (length >> 2)] = tmp;
+        tmp = array[end - 1];
+        array[end - 1] = array[end - 1 - (length >> 2)];
+        array[end - 1 - (length >> 2)] = tmp;
     }
 
 
+    public static <T> void heapSort(T[] array, Comparator<? super T> comparator) {
+        heapSort(array, 0, array.length, comparator);
+    }
+
     /**
-     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array.
+     * Builds a max-heap bottom-up in O(n) and moves its root behind it n - 1 times, with the iterative {@link #siftDown}.
      */
-    public static <T> void timsort(T[] array, Comparator<? super T> comparator) {
-        timsort(array, 0, array.length, comparator);
+    public static <T> void heapSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+
+        int size = end - start;
+
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(array, start, size, i, comparator);
+
+        while (--size > 0) {
+            T tmp = array[start];
+            array[start] = array[start+size];
+            array[start+size] = tmp;
+            if (SortMetrics.ENABLED)
+                SortMetrics.countMoves(2);
+            siftDown(array, start, size, 0, comparator);
+        }
     }
 
+
     /**
-     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array from start inclusive to end exclusive: [start, end).
+     * Moves the element with index i of a max-heap held in heap[start, start + size) down to its place.
      */
-    @SuppressWarnings("unchecked")
-    public static <T> void timsort(T[] array, int start, int end, Comparator<? super T> comparator) {
+    static <T> void siftDown(T[] heap, int start, int size, int i, Comparator<? super T> comparator) {
+        T t = heap[start+i];
+        int child;
+        while ((child = 2 * i + 1) < size) {
+            if (child + 1 < size && comparator.compare(heap[start+child+1], heap[start+child]) > 0)
+                ++child;
+            if (comparator.compare(heap[start+child], t) <= 0)
+                break;
+            heap[start+i] = heap[start+child];
+            i = child;
+            if (SortMetrics.ENABLED)
+                SortMetrics.countMoves(1);
+        }
+        heap[start+i] = t;
+    }
 
-        if (end - start <= 1) // (*)
-            return;
+    /**
+     * Moves the element with index i of a max-heap held in heap[start, start + i] up to its place.
+     */
+    static <T> void siftUp(T[] heap, int start, int i, Comparator<? super T> comparator) {
+        T t = heap[start+i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (comparator.compare(heap[start+parent], t) >= 0)
+                break;
+            heap[start+i] = heap[start+parent];
+            i = parent;
+            if (SortMetrics.ENABLED)
+                SortMetrics.countMoves(1);
+        }
+        heap[start+i] = t;
+    }
+
+
+    public static <T> void nthElement(T[] array, int n, Comparator<? super T> comparator) {
+        nthElement(array, 0, array.length, n, comparator);
+    }
 
-        class TimsortClass {
+    /**
+     * Rearranges [start, end) so that array[n] is the element which would be there if the range were sorted,
+     * with no greater element before it and no less one after it.
+     * Introselect: quickselect with the partitioning of {@link #pdqSort}, narrowing down to the side holding n,
+     * which after log2(n) bad partitions takes median-of-medians pivots. O(n) in the worst case, not stable.
+     * @throws IndexOutOfBoundsException if n is not in [start, end)
+     */
+    public static <T> void nthElement(T[] array, int start, int end, int n, Comparator<? super T> comparator) {
 
-            final static int MAX_MINRUN = 64;
+        if (n < start || n >= end)
+            throw new IndexOutOfBoundsException("Index " + n + " out of [" + start + ", " + end + ")");
 
-            final static int MAX_GALLOP_COUNT = 7;
+        int badPartitionsAllowed = pdqSortBadPartitionLimit(end - start);
 
-            int calculateMinrun(int n) {
-                int r = 0;
-                while (n >= MAX_MINRUN) {
-                    r |= n & 1;
-                    n >>= 1;
-                }
-                return n + r;
-            }
+        while (end - start > PDQSORT_INSERTION_THRESHOLD) {
+
+            final int length = end - start;
+
+            final int pivotIndex = badPartitionsAllowed > 0
+                    ? choosePivot(array, start, end, comparator)
+                    : medianOfMedians(array, start, end, comparator);
+            final long bounds = partition3(array, start, end, pivotIndex, comparator);
+            final int lt = (int) (bounds >>> 32);
+            final int gt = (int) bounds;
+
+            if (n < lt)
+                end = lt;
+            else if (n >= gt)
+                start = gt;
+            else
+                return;
+
+            if (end - start > length - (length >> 3) && badPartitionsAllowed > 0)
+                --badPartitionsAllowed;
         }
 
-        TimsortClass timsortClass = new TimsortClass();
+        insertionSort(array, start, end, comparator);
+    }
 
-        final int minrun = timsortClass.calculateMinrun(end - start);
+    /**
+     * Gathers the medians of groups of 5 at the beginning of [start, end) and selects their median.
+     * @return the index of the median of medians, which has at least 3/10 of the range on each side
+     */
+    private static <T> int medianOfMedians(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int mediansEnd = start;
+        for (int i = start; i < end; i += 5) {
+            int groupEnd = Math.min(i + 5, end);
+            insertionSort(array, i, groupEnd, comparator);
+            int median = i + ((groupEnd - i) >> 1);
+            T tmp = array[mediansEnd];
+            array[mediansEnd++] = array[median];
+            array[median] = tmp;
+        }
+        int mid = start + ((mediansEnd - start) >> 1);
+        nthElement(array, start, mediansEnd, mid, comparator);
+        return mid;
+    }
 
-        ArrayList<Pair<Integer,Integer>> indexes = new ArrayList<>();
 
-        for(int curRunStart = start, curRunEnd = curRunStart + 2;;) {
+    public static <T> void partialSort(T[] array, int k, Comparator<? super T> comparator) {
+        partialSort(array, 0, array.length, k, comparator);
+    }
 
-            // next element (curRunStart + 1) exists (*)
-            boolean increasing = comparator.compare(array[curRunStart], array[curRunStart + 1]) <= 0;
+    /**
+     * Puts the k least elements of [start, end) in order into [start, start + k), the rest is left in no particular order.
+     * Selects the k-th element with {@link #nthElement} and sorts the ones before it: O(n + k log k), not stable.
+     * @throws IllegalArgumentException if k is not in [0, end - start]
+     */
+    public static <T> void partialSort(T[] array, int start, int end, int k, Comparator<? super T> comparator) {
+        if (k < 0 || k > end - start)
+            throw new IllegalArgumentException("k = " + k + " for a range of " + (end - start));
+        if (k == 0)
+            return;
+        if (k == end - start) {
+            pdqSort(array, start, end, comparator);
+            return;
+        }
+        nthElement(array, start, end, start + k - 1, comparator);
+        pdqSort(array, start, start + k - 1, comparator);
+    }
 
-            Comparator<T> comp
-                    = increasing
-                    ? (Comparator<T>) comparator
-                    : (o1, o2) -> {
-                return /*minus here:*/-comparator.compare(o1, o2) + 1;
-            };
 
-            while (curRunEnd < end && comp.compare(array[curRunEnd - 1], array[curRunEnd]) <= 0)
-                ++curRunEnd;
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array.
+     */
+    public static <T> void timsort(T[] array, Comparator<? super T> comparator) {
+        timsort(array, 0, array.length, comparator);
+    }
 
-            // 'a0 > a1 > ... > an' TO 'an <= an-1 <= ...  <= a0'
-            if (!increasing) {
-                int mid = (curRunEnd - curRunStart) >> 1;
-                for (int i = 0; i < mid; i++) {
-                    T tmp = array[curRunStart + i];
-                    array[curRunStart+i] = array[curRunEnd-i-1];
-                    array[curRunEnd-i-1] = tmp;
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array from start inclusive to end exclusive: [start, end).
+     */
+    public static <T> void timsort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        timsort(array, start, end, comparator, new SortWorkspace());
+    }
+
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array from start inclusive to end exclusive: [start, end),
+     * taking the merge buffer and the run stack from the workspace.
+     */
+    public static <T> void timsort(T[] array, int start, int end, Comparator<? super T> comparator, SortWorkspace workspace) {
+
+        if (end - start <= 1)
+            return;
+
+        final int minrun = calculateMinrun(end - start);
+
+        int runCount = 0;
+
+        for (int curRunStart = start; curRunStart < end;) {
+
+            int curRunEnd = curRunStart + 1;
+
+            if (curRunEnd < end) {
+                if (comparator.compare(array[curRunEnd++], array[curRunStart]) < 0) {
+                    while (curRunEnd < end && comparator.compare(array[curRunEnd], array[curRunEnd-1]) < 0)
+                        ++curRunEnd;
+                    // 'a0 > a1 > ... > an' TO 'an < an-1 < ... < a0'
+                    for (int i = curRunStart, j = curRunEnd - 1; i < j; i++, j--) {
+                        T tmp = array[i];
+                        array[i] = array[j];
+                        array[j] = tmp;
+                    }
+                    if (SortMetrics.ENABLED)
+                        SortMetrics.countMoves(curRunEnd - curRunStart);
+                } else {
+                    while (curRunEnd < end && comparator.compare(array[curRunEnd], array[curRunEnd-1]) >= 0)
+                        ++curRunEnd;
                 }
             }
 
-            if (curRunEnd - curRunStart < minrun)
+            if (curRunEnd - curRunStart < minrun) {
                 curRunEnd = Math.min(curRunStart + minrun, end);
+                insertionSort(array, curRunStart, curRunEnd, comparator);
+            }
 
-            // next element existing required at next iteration
-            if (curRunEnd + 1 == end) // (*) (**)
-                ++curRunEnd;
-
-            insertionSort(array, curRunStart, curRunEnd, comparator);
-
-            indexes.add(new Pair<>(curRunStart, curRunEnd - curRunStart));
-
-            while (indexes.size() >= 3) {
-                Pair<Integer,Integer> Z = indexes.getLast();
-                Pair<Integer,Integer> Y = indexes.get(indexes.size() - 2);
-                Pair<Integer,Integer> X = indexes.get(indexes.size() - 3);
-                if (Z.second <= Y.second + X.second || Y.second <= X.second) {
-                    if (Z.second > X.second) {
-                        mergeWithGallop(array, X.first, Y.first, Y.first + Y.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                        indexes.set(indexes.size() - 3, new Pair<>(X.first, X.second + Y.second));
-                        indexes.remove(indexes.size() - 2);
-                    } else {
-                        mergeWithGallop(array, Y.first, Z.first, Z.first + Z.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                        indexes.set(indexes.size() - 2, new Pair<>(Y.first, Y.second + Z.second));
-                        indexes.removeLast();
-                    }
+            if (SortMetrics.ENABLED)
+                SortMetrics.countRun(curRunEnd - curRunStart);
+
+            workspace.ensureRunCapacity(runCount + 1);
+            workspace.runBases[runCount] = curRunStart;
+            workspace.runLengths[runCount] = curRunEnd - curRunStart;
+            ++runCount;
+
+            // keeping 'X > Y + Z' and 'Y > Z' for the three topmost runs
+            int[] runLengths = workspace.runLengths;
+            while (runCount > 1) {
+                int n = runCount - 2;
+                if (n > 0 && runLengths[n-1] <= runLengths[n] + runLengths[n+1]
+                        || n > 1 && runLengths[n-2] <= runLengths[n] + runLengths[n-1]) {
+                    if (runLengths[n-1] < runLengths[n+1])
+                        --n;
+                } else if (runLengths[n] > runLengths[n+1]) {
+                    break;
                 }
+                mergeRuns(array, comparator, workspace, runCount--, n);
             }
 
-            if (curRunEnd == end)
-                break;
-
             curRunStart = curRunEnd;
-            curRunEnd = curRunStart + 2; // <= end because (**)
         }
 
-        while (true) {
-            if (indexes.size() < 2)
-                break;
-            if (indexes.size() == 2) {
-                mergeWithGallop(array, start, indexes.getLast().first, end, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                break;
-            }
-            Pair<Integer,Integer> Z = indexes.getLast();
-            Pair<Integer,Integer> Y = indexes.get(indexes.size() - 2);
-            Pair<Integer,Integer> X = indexes.get(indexes.size() - 3);
-            if (Z.second > X.second) {
-                mergeWithGallop(array, X.first, Y.first, Y.first + Y.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                indexes.set(indexes.size() - 3, new Pair<>(X.first, X.second + Y.second));
-                indexes.remove(indexes.size() - 2);
-            } else {
-                mergeWithGallop(array, Y.first, Z.first, Z.first + Z.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                indexes.set(indexes.size() - 2, new Pair<>(Y.first, Y.second + Z.second));
-                indexes.removeLast();
-            }
+        int[] runLengths = workspace.runLengths;
+        while (runCount > 1) {
+            int n = runCount - 2;
+            if (n > 0 && runLengths[n-1] < runLengths[n+1])
+                --n;
+            mergeRuns(array, comparator, workspace, runCount--, n);
         }
     }
 
+    /**
+     * Merges the runs n and n + 1 of the workspace run stack, which holds runCount runs.
+     */
+    private static <T> void mergeRuns(T[] array, Comparator<? super T> comparator, SortWorkspace workspace, int runCount, int n) {
+        int[] runBases = workspace.runBases;
+        int[] runLengths = workspace.runLengths;
+        int base = runBases[n];
+        int leftLength = runLengths[n];
+        int rightLength = runLengths[n+1];
+        runLengths[n] = leftLength + rightLength;
+        if (n == runCount - 3) {
+            runBases[n+1] = runBases[n+2];
+            runLengths[n+1] = runLengths[n+2];
+        }
+        mergeWithGallop(array, base, base + leftLength, base + leftLength + rightLength, comparator,
+                MAX_GALLOP_COUNT, workspace.buffer(leftLength));
+    }
+
 
     public static <T> void mySort(T[] array, Comparator<? super T> comparator) {
         mySort(array, 0, array.length, comparator);
     }
 
     public static <T> void mySort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        mySort(array, start, end, comparator, new SortWorkspace());
+    }
+
+    public static <T> void mySort(T[] array, int start, int end, Comparator<? super T> comparator, SortWorkspace workspace) {
+        if (end - start <= MYSORT_MIN_LENGTH) {
+            insertionSort(array, start, end, comparator);
+            return;
+        }
+        mySort(array, start, end, comparator, workspace.buffer((end - start) >> 1));
+    }
 
-        final int MIN_LENGTH = 32;
+    private static <T> void mySort(T[] array, int start, int end, Comparator<? super T> comparator, Object[] tmpArr) {
 
-        if (end - start <= MIN_LENGTH) {
+        if (end - start <= MYSORT_MIN_LENGTH) {
             insertionSort(array, start, end, comparator);
             return;
         }
 
         int mid = start + ((end - start) >> 1);
-        mySort(array, start, mid, comparator);
-        mySort(array, mid, end, comparator);
-        merge(array, start, mid, end, comparator);
+        mySort(array, start, mid, comparator, tmpArr);
+        mySort(array, mid, end, comparator, tmpArr);
+        merge(array, start, mid, end, comparator, tmpArr);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package algo;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming collector of the k least elements seen, for inputs too big or too lazy to be put in an array
+ * for {@link Sorts#partialSort}. The k least elements so far are kept in a max-heap, so an element
+ * not less than the greatest of them is rejected after a single comparison: O(n log k) in the worst case
+ * and O(n + k log k log n) for random input. For the k greatest elements pass a reversed comparator.
+ */
+public final class TopK<T> implements Consumer<T> {
+
+    private final Object[] heap;
+    private final Comparator<? super T> comparator;
+    private int size = 0;
+
+
+    public TopK(int k, Comparator<? super T> comparator) {
+        if (k < 0)
+            throw new IllegalArgumentException("k = " + k);
+        this.heap = new Object[k];
+        this.comparator = comparator;
+    }
+
+
+    /**
+     * @return whether t is among the k least elements seen so far
+     */
+    @SuppressWarnings("unchecked")
+    public boolean offer(T t) {
+        if (size < heap.length) {
+            heap[size] = t;
+            Sorts.siftUp((T[]) heap, 0, size++, comparator);
+            return true;
+        }
+        if (size == 0 || comparator.compare(t, (T) heap[0]) >= 0)
+            return false;
+        heap[0] = t;
+        Sorts.siftDown((T[]) heap, 0, size, 0, comparator);
+        return true;
+    }
+
+    @Override
+    public void accept(T t) {
+        offer(t);
+    }
+
+
+    /**
+     * @return the greatest of the kept elements, the one a new element has to be less than once k are kept
+     */
+    @SuppressWarnings("unchecked")
+    public T threshold() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return (T) heap[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int k() {
+        return heap.length;
+    }
+
+    /**
+     * @return the kept elements in ascending order
+     */
+    @SuppressWarnings("unchecked")
+    public Object[] toSortedArray() {
+        Object[] array = new Object[size];
+        System.arraycopy(heap, 0, array, 0, size);
+        Sorts.pdqSort((T[]) array, comparator);
+        return array;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            heap[i] = null;
+        size = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package bench;
+
+import java.util.function.Supplier;
+
+/**
+ * One point of a benchmark matrix run by {@link BenchmarkRunner}.
+ * <p>
+ * Before every measured invocation {@code setup} is called outside the timer and returns the action to time,
+ * which performs {@code operations} operations, so that per-operation numbers don't include preparing the input.
+ */
+public final class BenchmarkCase {
+
+    final String benchmark;
+    final String[] params;
+    final Supplier<Runnable> setup;
+    final int operations;
+
+    /**
+     * @param params parameter names and values in turn: name0, value0, name1, value1, ...
+     */
+    public BenchmarkCase(String benchmark, String[] params, Supplier<Runnable> setup, int operations) {
+        if (params.length % 2 != 0)
+            throw new IllegalArgumentException("Parameter " + params[params.length - 1] + " has no value");
+        if (operations <= 0)
+            throw new IllegalArgumentException();
+        this.benchmark = benchmark;
+        this.params = params;
+        this.setup = setup;
+        this.operations = operations;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(benchmark);
+        for (int i = 0; i < params.length; i += 2)
+            sb.append(' ').append(params[i]).append('=').append(params[i+1]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,246 @@
+package bench;
+
+import containers.ArrayList;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dependency-free benchmark harness in the spirit of JMH.
+ * <p>
+ * Every case is warmed up for a fixed time and then measured for a fixed time, by default in a fresh JVM
+ * forked per case, so JIT profiles of one case can't leak into another. Each measured invocation reports
+ * its time, the bytes allocated by the benchmark thread and the GC activity, and all results are written
+ * as a JSON array whose layout is stable, so that files from two commits can be diffed.
+ * <p>
+ * Options are given as {@code name=value} arguments:
+ * <ul>
+ *     <li>{@code warmup} - warmup time per case in milliseconds, 1000 by default;</li>
+ *     <li>{@code measure} - measurement time per case in milliseconds, 2000 by default;</li>
+ *     <li>{@code fork} - whether to run every case in a forked JVM, true by default;</li>
+ *     <li>{@code out} - the JSON file to write, {@code <benchmark class>.json} by default;</li>
+ *     <li>{@code case} - internal, the index of the only case to run in a forked JVM.</li>
+ * </ul>
+ * Benchmark classes may add options of their own and must build the same cases from the same arguments.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        new Error("Forbidden instance of class " + BenchmarkRunner.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final String RESULT_PREFIX = "#result ";
+
+
+    /**
+     * Where {@link #consume} puts the results.
+     */
+    private static long sink;
+
+
+    public static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    public static int[] parseInts(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim().replace("_", ""))).toArray();
+    }
+
+    public static <E extends Enum<E>> E[] parseEnums(Class<E> enumClass, String value) {
+        E[] all = enumClass.getEnumConstants();
+        if (value == null)
+            return all;
+        return Arrays.stream(value.split(","))
+                .map(s -> Enum.valueOf(enumClass, s.trim()))
+                .toArray(n -> Arrays.copyOf(all, n));
+    }
+
+
+    /**
+     * Keeps the JIT from dropping a result the benchmark computes but doesn't use otherwise.
+     * Threads may race on it, the sum doesn't matter.
+     */
+    public static void consume(long result) {
+        sink += result;
+    }
+
+
+    public static void run(Class<?> benchmarkClass, String[] args, ArrayList<BenchmarkCase> cases) {
+        BenchmarkCase[] array = new BenchmarkCase[cases.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = cases.get(i);
+        run(benchmarkClass, args, array);
+    }
+
+    /**
+     * Runs the cases and writes the results, or in a forked JVM runs the single case it was forked for.
+     * @param benchmarkClass the class whose main method built the cases from args
+     */
+    public static void run(Class<?> benchmarkClass, String[] args, BenchmarkCase[] cases) {
+
+        Map<String, String> options = parseOptions(args);
+
+        final long warmupNanos = Long.parseLong(options.getOrDefault("warmup", "1000")) * 1_000_000L;
+        final long measureNanos = Long.parseLong(options.getOrDefault("measure", "2000")) * 1_000_000L;
+
+        if (options.containsKey("case")) {
+            BenchmarkCase benchmarkCase = cases[Integer.parseInt(options.get("case"))];
+            System.out.println(RESULT_PREFIX + measure(benchmarkCase, warmupNanos, measureNanos));
+            return;
+        }
+
+        final boolean fork = Boolean.parseBoolean(options.getOrDefault("fork", "true"));
+        final Path out = Path.of(options.getOrDefault("out", benchmarkClass.getSimpleName() + ".json"));
+
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < cases.length; i++) {
+            System.out.println("Running " + cases[i] + " (" + (i + 1) + "/" + cases.length + ")");
+            String result = fork
+                    ? runForked(benchmarkClass, args, i)
+                    : measure(cases[i], warmupNanos, measureNanos);
+            System.out.println("  " + result);
+            json.append("  ").append(result).append(i + 1 < cases.length ? ",\n" : "\n");
+        }
+        json.append("]\n");
+
+        try {
+            Files.writeString(out, json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+
+    private static String runForked(Class<?> benchmarkClass, String[] args, int caseIndex) {
+        String[] jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments().toArray(new String[0]);
+        String[] command = new String[jvmArgs.length + args.length + 5];
+        int k = 0;
+        command[k++] = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (String jvmArg : jvmArgs)
+            command[k++] = jvmArg;
+        command[k++] = "-cp";
+        command[k++] = System.getProperty("java.class.path");
+        command[k++] = benchmarkClass.getName();
+        for (String arg : args)
+            command[k++] = arg;
+        command[k] = "case=" + caseIndex;
+
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String result = null;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.startsWith(RESULT_PREFIX))
+                        result = line.substring(RESULT_PREFIX.length());
+                    else
+                        System.out.println("  [fork] " + line);
+                }
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0 || result == null)
+                throw new IllegalStateException("Forked JVM for case " + caseIndex + " failed with exit code " + exitCode);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static String measure(BenchmarkCase benchmarkCase, long warmupNanos, long measureNanos) {
+
+        com.sun.management.ThreadMXBean threadMXBean
+                = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long deadline = System.nanoTime() + warmupNanos;
+        do {
+            benchmarkCase.setup.get().run();
+        } while (System.nanoTime() < deadline);
+
+        long gcCount = -totalGcCount();
+        long gcTime = -totalGcTime();
+
+        long iterations = 0;
+        long totalTime = 0;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long allocatedBytes = 0;
+
+        deadline = System.nanoTime() + measureNanos;
+        do {
+            Runnable action = benchmarkCase.setup.get();
+            long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            action.run();
+            long time = System.nanoTime() - start;
+            allocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            totalTime += time;
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            ++iterations;
+        } while (System.nanoTime() < deadline);
+
+        gcCount += totalGcCount();
+        gcTime += totalGcTime();
+
+        final double operations = (double) iterations * benchmarkCase.operations;
+
+        StringBuilder sb = new StringBuilder("{\"benchmark\": \"").append(benchmarkCase.benchmark).append("\", \"params\": {");
+        for (int i = 0; i < benchmarkCase.params.length; i += 2) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append('"').append(benchmarkCase.params[i]).append("\": \"").append(benchmarkCase.params[i+1]).append('"');
+        }
+        return sb.append("}, \"iterations\": ").append(iterations)
+                .append(", \"operationsPerIteration\": ").append(benchmarkCase.operations)
+                .append(", \"nsPerOp\": {\"avg\": ").append(format(totalTime / operations))
+                .append(", \"min\": ").append(format((double) minTime / benchmarkCase.operations))
+                .append(", \"max\": ").append(format((double) maxTime / benchmarkCase.operations))
+                .append("}, \"allocatedBytesPerOp\": ").append(format(allocatedBytes / operations))
+                .append(", \"gcCount\": ").append(gcCount)
+                .append(", \"gcTimeMs\": ").append(gcTime)
+                .append('}').toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, bean.getCollectionCount());
+        return count;
+    }
+
+    private static long totalGcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, bean.getCollectionTime());
+        return time;
+    }
+}
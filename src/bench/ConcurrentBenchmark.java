@@ -0,0 +1,171 @@
+package bench;
+
+import containers.ArrayList;
+import containers.BoundedConcurrentStack;
+import containers.ConcurrentAppendList;
+import containers.ConcurrentStack;
+import containers.Stack;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of the concurrent containers against their synchronized counterparts over thread counts.
+ * Every thread of a case runs its share of operations at once; for stacks an operation is a push followed by a pop,
+ * for lists an add to a list shared by the threads. nsPerOp is wall time over all threads' operations.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code threads} - 1, 4, 16 and 64 by default;</li>
+ *     <li>{@code operations} - operations per thread, 100K by default;</li>
+ *     <li>{@code targets} - SYNCHRONIZED_STACK, TREIBER_STACK, ELIMINATION_STACK, BOUNDED_STACK,
+ *     SYNCHRONIZED_LIST and APPEND_LIST, all by default.</li>
+ * </ul>
+ */
+public final class ConcurrentBenchmark {
+
+    private ConcurrentBenchmark() {
+        new Error("Forbidden instance of class " + ConcurrentBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Target {
+        SYNCHRONIZED_STACK,
+        TREIBER_STACK,
+        ELIMINATION_STACK,
+        BOUNDED_STACK,
+        SYNCHRONIZED_LIST,
+        APPEND_LIST
+    }
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] threadCounts = BenchmarkRunner.parseInts(options.getOrDefault("threads", "1,4,16,64"));
+        final int operations = Integer.parseInt(options.getOrDefault("operations", "100000"));
+        final Target[] targets = BenchmarkRunner.parseEnums(Target.class, options.get("targets"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Target target : targets)
+            for (int threads : threadCounts)
+                cases.add(createCase(target, threads, operations));
+
+        BenchmarkRunner.run(ConcurrentBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Target target, int threads, int operations) {
+
+        String[] params = {
+                "target", target.toString(),
+                "threads", Integer.toString(threads),
+                "operations", Integer.toString(operations)
+        };
+
+        // created on first use, so that cases not run in this JVM start no threads
+        final ExecutorService[] executor = new ExecutorService[1];
+
+        return new BenchmarkCase("concurrent", params, () -> {
+            if (executor[0] == null)
+                executor[0] = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            final Callable<Long> task = createTask(target, threads, operations);
+            return () -> {
+                java.util.ArrayList<Callable<Long>> tasks = new java.util.ArrayList<>();
+                for (int i = 0; i < threads; i++)
+                    tasks.add(task);
+                try {
+                    long sum = 0;
+                    for (Future<Long> future : executor[0].invokeAll(tasks))
+                        sum += future.get();
+                    BenchmarkRunner.consume(sum);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            };
+        }, threads * operations);
+    }
+
+    /**
+     * @return the work of one thread on a container shared by all of them
+     */
+    private static Callable<Long> createTask(Target target, int threads, int operations) {
+        final Integer element = 42;
+        return switch (target) {
+            case SYNCHRONIZED_STACK -> {
+                final Stack<Integer> stack = new Stack<>();
+                yield () -> {
+                    long sum = 0;
+                    for (int i = 0; i < operations; i++) {
+                        synchronized (stack) {
+                            stack.push(element);
+                        }
+                        synchronized (stack) {
+                            sum += stack.pop();
+                        }
+                    }
+                    return sum;
+                };
+            }
+            case TREIBER_STACK, ELIMINATION_STACK -> {
+                final ConcurrentStack<Integer> stack = target == Target.TREIBER_STACK
+                        ? new ConcurrentStack<>(0)
+                        : new ConcurrentStack<>();
+                yield () -> {
+                    long sum = 0;
+                    for (int i = 0; i < operations; i++) {
+                        stack.push(element);
+                        Integer popped = stack.pop();
+                        if (popped != null)
+                            sum += popped;
+                    }
+                    return sum;
+                };
+            }
+            case BOUNDED_STACK -> {
+                final BoundedConcurrentStack<Integer> stack = new BoundedConcurrentStack<>(threads);
+                yield () -> {
+                    long sum = 0;
+                    for (int i = 0; i < operations; i++) {
+                        stack.push(element);
+                        Integer popped = stack.pop();
+                        if (popped != null)
+                            sum += popped;
+                    }
+                    return sum;
+                };
+            }
+            case SYNCHRONIZED_LIST -> {
+                final ArrayList<Integer> list = new ArrayList<>();
+                yield () -> {
+                    for (int i = 0; i < operations; i++)
+                        synchronized (list) {
+                            list.add(element);
+                        }
+                    return (long) list.size();
+                };
+            }
+            case APPEND_LIST -> {
+                final ConcurrentAppendList<Integer> list = new ConcurrentAppendList<>();
+                yield () -> {
+                    for (int i = 0; i < operations; i++)
+                        list.add(element);
+                    return (long) list.size();
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,756 @@
+package bench;
+
+import bench.SortCheck.Item;
+import containers.ArrayList;
+import containers.ChunkedArrayList;
+import containers.DoublyLinkedList;
+import containers.ForwardList;
+import containers.HashIndex;
+import containers.IntPriorityQueue;
+import containers.List;
+import containers.MappedArrayList;
+import containers.OffHeapArrayList;
+import containers.PriorityQueue;
+import containers.SortedArrayList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Randomized check of the containers, the companion of {@link SortCheck}: each round applies random operations
+ * to a fresh container and after every one compares it with a {@code java.util} model kept alongside.
+ * <ul>
+ *     <li>insert, remove, insertAll of arrays and lists, removeRange and removeIf on every kind of list,
+ *     the record lists outside of the heap included; a removeIf filter which throws must leave the list
+ *     as it was;</li>
+ *     <li>contains, indexOf and count of lists with an attached {@link HashIndex} of either mode against scans,
+ *     across every kind of change, null elements included;</li>
+ *     <li>{@link SortedArrayList} holds the same items in key order and answers every search like its model;</li>
+ *     <li>{@link PriorityQueue} and {@link IntPriorityQueue} poll a least element each time, with offers, addAll,
+ *     decreaseKey, update and remove in between; an addAll rejected by IntPriorityQueue adds nothing.</li>
+ * </ul>
+ * Prints every failure and exits with status 1 if there was any. Options:
+ * <ul>
+ *     <li>{@code rounds} - rounds per container, 100 by default;</li>
+ *     <li>{@code operations} - the greatest number of operations of a round, 200 by default;</li>
+ *     <li>{@code seed} - random by default and printed, to repeat a failing run.</li>
+ * </ul>
+ */
+public final class ContainerCheck {
+
+    private ContainerCheck() {
+        new Error("Forbidden instance of class " + ContainerCheck.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    /**
+     * Few keys, so that there are many equal ones.
+     */
+    private static final int KEYS = 32;
+    private static final int MAX_BATCH = 24;
+    private static final int MAX_ARITY = 8;
+
+
+    private static int failures = 0;
+
+    /**
+     * Index of the next new item, which tells items of equal keys apart.
+     */
+    private static int nextIndex = 0;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int rounds = Integer.parseInt(options.getOrDefault("rounds", "100"));
+        final int operations = Integer.parseInt(options.getOrDefault("operations", "200"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", Long.toString(new Random().nextLong())));
+
+        System.out.println("seed=" + seed);
+        final Random random = new Random(seed);
+
+        check("Lists", rounds, context -> checkLists(random, random.nextInt(operations + 1), context));
+        check("HashIndex", rounds, context -> checkHashIndexes(random, random.nextInt(operations + 1), context));
+        check("SortedArrayList", rounds, context -> checkSortedList(random, random.nextInt(operations + 1), context));
+        check("PriorityQueue", rounds, context -> checkPriorityQueue(random, random.nextInt(operations + 1), context));
+        check("IntPriorityQueue", rounds, context -> checkIntPriorityQueue(random, random.nextInt(operations + 1), context));
+
+        if (failures > 0) {
+            System.out.println(failures + " failures, seed=" + seed);
+            System.exit(1);
+        }
+        System.out.println("All containers ok");
+    }
+
+
+    private interface Round {
+        void run(String context);
+    }
+
+    private static void check(String name, int rounds, Round round) {
+        int before = failures;
+        for (int i = 0; i < rounds; i++) {
+            String context = name + " round " + i;
+            try {
+                round.run(context);
+            } catch (RuntimeException e) {
+                fail(context, e.toString());
+            }
+        }
+        System.out.println(name + (failures == before ? " ok" : " FAILED " + (failures - before)));
+    }
+
+    private static void fail(String context, String message) {
+        ++failures;
+        System.out.println("FAIL " + context + ": " + message);
+    }
+
+    private static Item newItem(Random random) {
+        return new Item(random.nextInt(KEYS), nextIndex++);
+    }
+
+    private static Item[] newItems(Random random) {
+        Item[] items = new Item[random.nextInt(MAX_BATCH + 1)];
+        for (int i = 0; i < items.length; i++)
+            items[i] = newItem(random);
+        return items;
+    }
+
+    private static boolean sameElements(List<?> list, java.util.List<?> expected) {
+        if (list.size() != expected.size())
+            return false;
+        int i = 0;
+        for (Object element : list)
+            if (!Objects.equals(element, expected.get(i++)))
+                return false;
+        return i == expected.size();
+    }
+
+
+    private static void checkLists(Random random, int operations, String context) {
+        checkList(new ArrayList<>(), random, operations, context + " ArrayList");
+        checkList(new ForwardList<>(), random, operations, context + " ForwardList");
+        checkList(new DoublyLinkedList<>(), random, operations, context + " DoublyLinkedList");
+        checkList(new ChunkedArrayList<>(), random, operations, context + " ChunkedArrayList");
+
+        OffHeapArrayList<Item> offHeap = new OffHeapArrayList<>(SortCheck.ITEM_CODEC);
+        try {
+            checkList(offHeap, random, operations, context + " OffHeapArrayList");
+        } finally {
+            offHeap.release();
+        }
+
+        try {
+            Path path = Files.createTempFile("containercheck", ".list");
+            Files.delete(path);
+            try (MappedArrayList<Item> mapped = new MappedArrayList<>(path, SortCheck.ITEM_CODEC)) {
+                checkList(mapped, random, operations, context + " MappedArrayList");
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            fail(context + " MappedArrayList", e.toString());
+        }
+    }
+
+    private static void checkList(List<Item> list, Random random, int operations, String context) {
+        java.util.List<Item> expected = new java.util.ArrayList<>();
+        for (int op = 0; op < operations; op++) {
+            final int size = expected.size();
+            final int index = random.nextInt(size + 1);
+            String operation;
+            switch (random.nextInt(7)) {
+                case 0 -> {
+                    Item item = newItem(random);
+                    operation = "insert(" + index + ", " + item + ")";
+                    list.insert(index, item);
+                    expected.add(index, item);
+                }
+                case 1 -> {
+                    if (size == 0)
+                        continue;
+                    operation = "remove(" + index % size + ")";
+                    list.remove(index % size);
+                    expected.remove(index % size);
+                }
+                case 2 -> {
+                    Item[] values = newItems(random);
+                    operation = "insertAll(" + index + ", " + values.length + " values)";
+                    list.insertAll(index, values);
+                    expected.addAll(index, Arrays.asList(values));
+                }
+                case 3 -> {
+                    Item[] values = newItems(random);
+                    operation = "insertAll(" + index + ", a list of " + values.length + ")";
+                    list.insertAll(index, new ArrayList<>(values));
+                    expected.addAll(index, Arrays.asList(values));
+                }
+                case 4 -> {
+                    int to = index + random.nextInt(size - index + 1);
+                    operation = "removeRange(" + index + ", " + to + ")";
+                    list.removeRange(index, to);
+                    expected.subList(index, to).clear();
+                }
+                case 5 -> {
+                    int modulus = 1 + random.nextInt(8);
+                    Predicate<Item> filter = item -> item.key() % modulus == 0;
+                    operation = "removeIf(key % " + modulus + " == 0)";
+                    if (list.removeIf(filter) != expected.removeIf(filter))
+                        fail(context, operation + " returned the wrong result");
+                }
+                default -> {
+                    int calls = random.nextInt(size + 1);
+                    operation = "removeIf throwing at call " + calls;
+                    int[] count = { 0 };
+                    try {
+                        list.removeIf(item -> {
+                            if (count[0]++ == calls)
+                                throw new IllegalStateException();
+                            return item.key() % 2 == 0;
+                        });
+                        if (calls < size)
+                            fail(context, operation + " didn't throw");
+                    } catch (IllegalStateException expectedException) {
+                        // the list must be unchanged
+                    }
+                    if (calls == size)
+                        expected.removeIf(item -> item.key() % 2 == 0);
+                }
+            }
+            if (!sameElements(list, expected)) {
+                fail(context, "wrong elements after " + operation);
+                return;
+            }
+        }
+    }
+
+
+    private static void checkHashIndexes(Random random, int operations, String context) {
+        for (HashIndex.Mode mode : HashIndex.Mode.values()) {
+            ArrayList<Integer> arrayList = new ArrayList<>();
+            checkHashIndex(arrayList, arrayList.attachIndex(mode), random, operations, context + " ArrayList " + mode);
+            ForwardList<Integer> forwardList = new ForwardList<>();
+            checkHashIndex(forwardList, forwardList.attachIndex(mode), random, operations, context + " ForwardList " + mode);
+        }
+    }
+
+    private static Integer newValue(Random random) {
+        return random.nextInt(KEYS) == 0 ? null : random.nextInt(KEYS);
+    }
+
+    private static Integer[] newValues(Random random) {
+        Integer[] values = new Integer[random.nextInt(MAX_BATCH + 1)];
+        for (int i = 0; i < values.length; i++)
+            values[i] = newValue(random);
+        return values;
+    }
+
+    private static void checkHashIndex(List<Integer> list, HashIndex<Integer> index, Random random, int operations,
+                                       String context) {
+        final Comparator<Integer> order = Comparator.nullsFirst(Comparator.naturalOrder());
+        java.util.List<Integer> expected = new java.util.ArrayList<>();
+        for (int op = 0; op < operations; op++) {
+            final int size = expected.size();
+            final int position = random.nextInt(size + 1);
+            String operation;
+            switch (random.nextInt(10)) {
+                case 0, 1 -> {
+                    Integer value = newValue(random);
+                    operation = "add(" + value + ")";
+                    list.add(value);
+                    expected.add(value);
+                }
+                case 2 -> {
+                    Integer value = newValue(random);
+                    operation = "insert(" + position + ", " + value + ")";
+                    list.insert(position, value);
+                    expected.add(position, value);
+                }
+                case 3 -> {
+                    if (size == 0)
+                        continue;
+                    Integer value = newValue(random);
+                    operation = "set(" + position % size + ", " + value + ")";
+                    list.set(position % size, value);
+                    expected.set(position % size, value);
+                }
+                case 4, 5 -> {
+                    if (size == 0)
+                        continue;
+                    operation = "remove(" + position % size + ")";
+                    list.remove(position % size);
+                    expected.remove(position % size);
+                }
+                case 6 -> {
+                    Integer[] values = newValues(random);
+                    operation = "insertAll(" + position + ", " + values.length + " values)";
+                    list.insertAll(position, values);
+                    expected.addAll(position, Arrays.asList(values));
+                }
+                case 7 -> {
+                    int to = position + random.nextInt(size - position + 1);
+                    operation = "removeRange(" + position + ", " + to + ")";
+                    list.removeRange(position, to);
+                    expected.subList(position, to).clear();
+                }
+                case 8 -> {
+                    int modulus = 2 + random.nextInt(6);
+                    Predicate<Integer> filter = value -> value != null && value % modulus == 0;
+                    operation = "removeIf(value % " + modulus + " == 0)";
+                    list.removeIf(filter);
+                    expected.removeIf(filter);
+                }
+                default -> {
+                    if (random.nextInt(8) == 0) {
+                        operation = "clear()";
+                        list.clear();
+                        expected.clear();
+                    } else {
+                        operation = "sort()";
+                        list.sort(order);
+                        expected.sort(order);
+                    }
+                }
+            }
+            if (!sameElements(list, expected)) {
+                fail(context, "wrong elements after " + operation);
+                return;
+            }
+            if (!checkQueries(list, index, expected, context + " after " + operation))
+                return;
+        }
+    }
+
+    /**
+     * Asks for every value there may be, null and one never added included.
+     */
+    private static boolean checkQueries(List<Integer> list, HashIndex<Integer> index, java.util.List<Integer> expected,
+                                        String context) {
+        for (int v = -1; v <= KEYS; v++) {
+            Integer value = v == KEYS ? null : v;
+            int count = Collections.frequency(expected, value);
+            int first = expected.indexOf(value);
+            if (list.contains(value) != count > 0 || index.contains(value) != count > 0) {
+                fail(context, "contains(" + value + ") is wrong, the count is " + count);
+                return false;
+            }
+            if (index.count(value) != count) {
+                fail(context, "count(" + value + ") is " + index.count(value) + " instead of " + count);
+                return false;
+            }
+            if (list.indexOf(value) != first || index.indexOf(value) != first) {
+                fail(context, "indexOf(" + value + ") is " + list.indexOf(value) + " instead of " + first);
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * The model is unordered, removals by key find out which of the equal items went by comparing.
+     */
+    private static void checkSortedList(Random random, int operations, String context) {
+        SortedArrayList<Item> list = new SortedArrayList<>(SortCheck.BY_KEY);
+        java.util.List<Item> expected = new java.util.ArrayList<>();
+        for (int op = 0; op < operations; op++) {
+            final int key = random.nextInt(KEYS);
+            String operation;
+            switch (random.nextInt(7)) {
+                case 0, 1 -> {
+                    Item item = newItem(random);
+                    operation = "add(" + item + ")";
+                    list.add(item);
+                    expected.add(item);
+                }
+                case 2 -> {
+                    Item[] values = newItems(random);
+                    operation = "addAll(" + values.length + " values)";
+                    list.addAll(values);
+                    expected.addAll(Arrays.asList(values));
+                }
+                case 3 -> {
+                    Item[] values = newItems(random);
+                    operation = "addAll(a list of " + values.length + ")";
+                    list.addAll(new ArrayList<>(values));
+                    expected.addAll(Arrays.asList(values));
+                }
+                case 4 -> {
+                    operation = "remove(key " + key + ")";
+                    boolean present = expected.stream().anyMatch(item -> item.key() == key);
+                    if (list.remove(new Item(key, -1)) != present) {
+                        fail(context, operation + " returned the wrong result");
+                        return;
+                    }
+                    if (present && !removedOne(list, expected, key, context + " after " + operation))
+                        return;
+                }
+                case 5 -> {
+                    if (expected.isEmpty())
+                        continue;
+                    int index = random.nextInt(expected.size());
+                    Item item = list.get(index);
+                    operation = "removeAt(" + index + ")";
+                    list.removeAt(index);
+                    expected.remove(item);
+                }
+                default -> {
+                    int to = key + random.nextInt(KEYS - key + 1);
+                    operation = "removeRange(key " + key + ", key " + to + ")";
+                    int removed = list.removeRange(new Item(key, -1), new Item(to, -1));
+                    int expectedRemoved = expected.size();
+                    expected.removeIf(item -> item.key() >= key && item.key() < to);
+                    expectedRemoved -= expected.size();
+                    if (removed != expectedRemoved)
+                        fail(context, operation + " removed " + removed + " instead of " + expectedRemoved);
+                }
+            }
+            if (!checkSortedContents(list, expected, context + " after " + operation)
+                    || !checkSearches(list, random, context + " after " + operation))
+                return;
+        }
+    }
+
+    /**
+     * Checks that list holds expected less one item of key and removes that one from expected.
+     */
+    private static boolean removedOne(SortedArrayList<Item> list, java.util.List<Item> expected, int key, String context) {
+        Set<Item> remaining = new HashSet<>();
+        for (Item item : list)
+            remaining.add(item);
+        for (int i = 0; i < expected.size(); i++)
+            if (!remaining.contains(expected.get(i))) {
+                if (expected.get(i).key() != key) {
+                    fail(context, "removed " + expected.get(i));
+                    return false;
+                }
+                expected.remove(i);
+                return true;
+            }
+        fail(context, "removed nothing");
+        return false;
+    }
+
+    private static boolean checkSortedContents(SortedArrayList<Item> list, java.util.List<Item> expected, String context) {
+        Item[] items = new Item[list.size()];
+        int i = 0;
+        for (Item item : list)
+            items[i++] = item;
+        if (i != expected.size()) {
+            fail(context, "size " + i + " instead of " + expected.size());
+            return false;
+        }
+        for (i = 1; i < items.length; i++)
+            if (items[i-1].key() > items[i].key()) {
+                fail(context, "not sorted at " + i);
+                return false;
+            }
+        Comparator<Item> byIndex = Comparator.comparingInt(Item::index);
+        Item[] sortedItems = items.clone();
+        Arrays.sort(sortedItems, byIndex);
+        Item[] sortedExpected = expected.toArray(new Item[0]);
+        Arrays.sort(sortedExpected, byIndex);
+        if (!Arrays.equals(sortedItems, sortedExpected)) {
+            fail(context, "wrong elements");
+            return false;
+        }
+        for (i = 0; i < items.length; i++)
+            if (list.get(i) != items[i]) {
+                fail(context, "get(" + i + ") differs from the iteration");
+                return false;
+            }
+        return true;
+    }
+
+    /**
+     * The model of every search is a scan of the list, whose order checkSortedContents has checked.
+     */
+    private static boolean checkSearches(SortedArrayList<Item> list, Random random, String context) {
+        int[] keys = new int[list.size()];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = list.get(i).key();
+        for (int key = -1; key <= KEYS; key++) {
+            Item probe = new Item(key, -1);
+            int lower = 0;
+            while (lower < keys.length && keys[lower] < key)
+                ++lower;
+            int upper = lower;
+            while (upper < keys.length && keys[upper] == key)
+                ++upper;
+            int search = upper > lower ? lower : -lower - 1;
+            if (list.lowerBound(probe) != lower || list.upperBound(probe) != upper || list.binarySearch(probe) != search
+                    || list.count(probe) != upper - lower || list.contains(probe) != upper > lower) {
+                fail(context, "wrong search result for key " + key);
+                return false;
+            }
+            int to = key + random.nextInt(KEYS / 2);
+            int end = lower;
+            while (end < keys.length && keys[end] < to)
+                ++end;
+            Item toProbe = new Item(to, -1);
+            ArrayList<Item> range = list.range(probe, toProbe);
+            if (list.countRange(probe, toProbe) != end - lower || range.size() != end - lower) {
+                fail(context, "wrong range [" + key + ", " + to + ")");
+                return false;
+            }
+            for (int i = lower; i < end; i++)
+                if (range.get(i - lower) != list.get(i)) {
+                    fail(context, "wrong element in range [" + key + ", " + to + ")");
+                    return false;
+                }
+        }
+        return true;
+    }
+
+
+    /**
+     * Handles of elements added by addAll are found by looking them up among all handles there may be.
+     */
+    private static void checkPriorityQueue(Random random, int operations, String context) {
+        final int arity = 2 + random.nextInt(MAX_ARITY - 1);
+        context += " arity " + arity;
+        PriorityQueue<Item> queue = new PriorityQueue<>(SortCheck.BY_KEY, arity);
+        Map<Integer, Item> expected = new HashMap<>();
+        int handles = 0;
+        for (int op = 0; op < operations; op++) {
+            final int size = expected.size();
+            Integer handle = size == 0 ? null : expected.keySet().stream().skip(random.nextInt(size)).findFirst().get();
+            String operation;
+            switch (random.nextInt(7)) {
+                case 0, 1 -> {
+                    Item item = newItem(random);
+                    operation = "offer(" + item + ")";
+                    int newHandle = queue.offer(item);
+                    if (expected.containsKey(newHandle)) {
+                        fail(context, operation + " gave the handle in use " + newHandle);
+                        return;
+                    }
+                    expected.put(newHandle, item);
+                }
+                case 2 -> {
+                    Item[] values = newItems(random);
+                    operation = "addAll(" + values.length + " values)";
+                    queue.addAll(values);
+                    handles = Math.max(handles, size + values.length);
+                    Map<Item, Integer> found = new HashMap<>();
+                    for (int h = 0; h < handles; h++)
+                        if (queue.contains(h) && !expected.containsKey(h))
+                            found.put(queue.get(h), h);
+                    for (Item value : values)
+                        if (found.containsKey(value))
+                            expected.put(found.get(value), value);
+                    if (expected.size() != size + values.length) {
+                        fail(context, operation + " lost an element");
+                        return;
+                    }
+                }
+                case 3 -> {
+                    int n = random.nextInt(Math.min(size, MAX_BATCH) + 1);
+                    operation = "poll " + n;
+                    Item[] polled = new Item[n];
+                    if (n == 1)
+                        polled[0] = queue.poll();
+                    else
+                        queue.pollN(polled);
+                    for (Item item : polled)
+                        if (!removeLeast(expected, item, context + " " + operation))
+                            return;
+                }
+                case 4 -> {
+                    if (handle == null)
+                        continue;
+                    Item item = new Item(random.nextInt(expected.get(handle).key() + 1), nextIndex++);
+                    operation = "decreaseKey(" + handle + ", " + item + ")";
+                    queue.decreaseKey(handle, item);
+                    expected.put(handle, item);
+                }
+                case 5 -> {
+                    if (handle == null)
+                        continue;
+                    Item item = newItem(random);
+                    operation = "update(" + handle + ", " + item + ")";
+                    queue.update(handle, item);
+                    expected.put(handle, item);
+                }
+                default -> {
+                    if (handle == null)
+                        continue;
+                    operation = "remove(" + handle + ")";
+                    if (queue.remove(handle) != expected.remove(handle)) {
+                        fail(context, operation + " returned the wrong element");
+                        return;
+                    }
+                }
+            }
+            handles = Math.max(handles, expected.size());
+            if (!checkQueue(queue, expected, context + " after " + operation))
+                return;
+        }
+    }
+
+    private static boolean removeLeast(Map<Integer, Item> expected, Item item, String context) {
+        Integer handle = null;
+        int least = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, Item> entry : expected.entrySet()) {
+            least = Math.min(least, entry.getValue().key());
+            if (entry.getValue() == item)
+                handle = entry.getKey();
+        }
+        if (handle == null || item.key() != least) {
+            fail(context, "polled " + item + " and the least key is " + least);
+            return false;
+        }
+        expected.remove(handle);
+        return true;
+    }
+
+    private static boolean checkQueue(PriorityQueue<Item> queue, Map<Integer, Item> expected, String context) {
+        if (queue.size() != expected.size()) {
+            fail(context, "size " + queue.size() + " instead of " + expected.size());
+            return false;
+        }
+        int least = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, Item> entry : expected.entrySet()) {
+            least = Math.min(least, entry.getValue().key());
+            if (!queue.contains(entry.getKey()) || queue.get(entry.getKey()) != entry.getValue()) {
+                fail(context, "lost the handle " + entry.getKey());
+                return false;
+            }
+        }
+        if (!expected.isEmpty() && queue.peek().key() != least) {
+            fail(context, "peek " + queue.peek() + " and the least key is " + least);
+            return false;
+        }
+        return true;
+    }
+
+
+    private static void checkIntPriorityQueue(Random random, int operations, String context) {
+        final int arity = 2 + random.nextInt(MAX_ARITY - 1);
+        final int maxId = 2 * MAX_BATCH + random.nextInt(4 * MAX_BATCH);
+        context += " arity " + arity;
+        IntPriorityQueue queue = new IntPriorityQueue(arity, 1 + random.nextInt(MAX_BATCH));
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int op = 0; op < operations; op++) {
+            final int id = random.nextInt(maxId);
+            final int key = random.nextInt(KEYS) - KEYS / 2;
+            String operation;
+            switch (random.nextInt(7)) {
+                case 0, 1 -> {
+                    if (expected.containsKey(id))
+                        continue;
+                    operation = "offer(" + id + ", " + key + ")";
+                    queue.offer(id, key);
+                    expected.put(id, key);
+                }
+                case 2 -> {
+                    int[] ids = new int[random.nextInt(MAX_BATCH + 1)];
+                    int[] keys = new int[ids.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = random.nextInt(maxId);
+                        keys[i] = random.nextInt(KEYS);
+                    }
+                    operation = "addAll(" + Arrays.toString(ids) + ")";
+                    Map<Integer, Integer> added = new HashMap<>(expected);
+                    boolean valid = true;
+                    for (int i = 0; i < ids.length; i++)
+                        valid &= added.put(ids[i], keys[i]) == null;
+                    try {
+                        queue.addAll(ids, keys);
+                        if (!valid)
+                            fail(context, operation + " accepted an id twice");
+                        expected = added;
+                    } catch (IllegalArgumentException e) {
+                        if (valid)
+                            fail(context, operation + ": " + e);
+                    }
+                }
+                case 3 -> {
+                    int n = random.nextInt(Math.min(expected.size(), MAX_BATCH) + 1);
+                    operation = "poll " + n;
+                    int[] polled = new int[n];
+                    if (n == 1)
+                        polled[0] = queue.poll();
+                    else
+                        queue.pollN(polled);
+                    for (int polledId : polled) {
+                        int least = Collections.min(expected.values());
+                        Integer polledKey = expected.remove(polledId);
+                        if (polledKey == null || polledKey != least) {
+                            fail(context, operation + " gave " + polledId + " of key " + polledKey
+                                    + " and the least key is " + least);
+                            return;
+                        }
+                    }
+                }
+                case 4 -> {
+                    if (!expected.containsKey(id))
+                        continue;
+                    int lower = expected.get(id) - random.nextInt(KEYS);
+                    operation = "decreaseKey(" + id + ", " + lower + ")";
+                    queue.decreaseKey(id, lower);
+                    expected.put(id, lower);
+                }
+                case 5 -> {
+                    if (!expected.containsKey(id))
+                        continue;
+                    operation = "update(" + id + ", " + key + ")";
+                    queue.update(id, key);
+                    expected.put(id, key);
+                }
+                default -> {
+                    if (!expected.containsKey(id))
+                        continue;
+                    operation = "remove(" + id + ")";
+                    queue.remove(id);
+                    expected.remove(id);
+                }
+            }
+            if (!checkIntQueue(queue, expected, maxId, context + " after " + operation))
+                return;
+        }
+    }
+
+    private static boolean checkIntQueue(IntPriorityQueue queue, Map<Integer, Integer> expected, int maxId, String context) {
+        if (queue.size() != expected.size()) {
+            fail(context, "size " + queue.size() + " instead of " + expected.size());
+            return false;
+        }
+        for (int id = 0; id < maxId; id++) {
+            Integer key = expected.get(id);
+            if (queue.contains(id) != (key != null) || key != null && queue.keyOf(id) != key) {
+                fail(context, "wrong key of " + id);
+                return false;
+            }
+        }
+        if (expected.isEmpty()) {
+            try {
+                queue.peek();
+                fail(context, "peek on an empty queue");
+                return false;
+            } catch (NoSuchElementException e) {
+                return true;
+            }
+        }
+        int least = Collections.min(expected.values());
+        if (queue.peekKey() != least || expected.get(queue.peek()) != least) {
+            fail(context, "peek " + queue.peek() + " of key " + queue.peekKey() + " and the least key is " + least);
+            return false;
+        }
+        return true;
+    }
+}
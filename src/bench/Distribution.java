@@ -0,0 +1,83 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Input shapes for {@link SortBenchmark}, each generating an int sequence of the given size.
+ */
+public enum Distribution {
+
+    RANDOM,
+    SORTED,
+    REVERSE,
+    /**
+     * Ascending first half, descending second half: 0, 1, ..., n/2, ..., 1, 0.
+     */
+    ORGAN_PIPE,
+    /**
+     * Random values out of {@link #FEW_UNIQUE_VALUES} distinct ones.
+     */
+    FEW_UNIQUE,
+    /**
+     * {@link #SAWTOOTH_TEETH} ascending runs of equal length.
+     */
+    SAWTOOTH,
+    /**
+     * Sorted, then k random pairs swapped, k is {@link #nearlySortedSwaps(int)}.
+     */
+    NEARLY_SORTED;
+
+
+    public static final int FEW_UNIQUE_VALUES = 16;
+
+    public static final int SAWTOOTH_TEETH = 16;
+
+
+    public static int nearlySortedSwaps(int size) {
+        return Math.max(1, size / 100);
+    }
+
+
+    public int[] generate(int size, Random random) {
+        int[] array = new int[size];
+        switch (this) {
+            case RANDOM -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = random.nextInt();
+            }
+            case SORTED -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = i;
+            }
+            case REVERSE -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = size - i;
+            }
+            case ORGAN_PIPE -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = Math.min(i, size - 1 - i);
+            }
+            case FEW_UNIQUE -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = random.nextInt(FEW_UNIQUE_VALUES);
+            }
+            case SAWTOOTH -> {
+                int tooth = Math.max(1, size / SAWTOOTH_TEETH);
+                for (int i = 0; i < size; i++)
+                    array[i] = i % tooth;
+            }
+            case NEARLY_SORTED -> {
+                for (int i = 0; i < size; i++)
+                    array[i] = i;
+                for (int k = nearlySortedSwaps(size); size > 1 && k > 0; k--) {
+                    int i = random.nextInt(size);
+                    int j = random.nextInt(size);
+                    int tmp = array[i];
+                    array[i] = array[j];
+                    array[j] = tmp;
+                }
+            }
+        }
+        return array;
+    }
+}
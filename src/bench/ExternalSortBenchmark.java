@@ -0,0 +1,131 @@
+package bench;
+
+import algo.ExternalSort;
+import containers.RecordCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of {@link ExternalSort} on a generated file of 16-byte records: a random long key and a payload.
+ * The input file is generated once and kept for later runs, an operation is sorting one record.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, lists are comma separated:
+ * <ul>
+ *     <li>{@code fileMb} - the input file sizes in MB, 4096 by default;</li>
+ *     <li>{@code budgetMb} - the memory budgets in MB, 256 by default, the heap should be at least twice as big;</li>
+ *     <li>{@code dir} - the directory of the input, output and runs, the temporary directory by default;</li>
+ *     <li>{@code seed} - the seed of the keys.</li>
+ * </ul>
+ * Sorting takes minutes, so {@code warmup=0 measure=0} measuring a single sort after a single warmup one
+ * is the usual choice.
+ */
+public final class ExternalSortBenchmark {
+
+    private ExternalSortBenchmark() {
+        new Error("Forbidden instance of class " + ExternalSortBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final class Record {
+        final long key;
+        final long payload;
+        Record(long key, long payload) { this.key = key; this.payload = payload; }
+    }
+
+    private static final RecordCodec<Record> CODEC = new RecordCodec<>() {
+        @Override
+        public int recordSize() {
+            return 2 * Long.BYTES;
+        }
+
+        @Override
+        public void encode(Record record, ByteBuffer buffer) {
+            buffer.putLong(record.key).putLong(record.payload);
+        }
+
+        @Override
+        public Record decode(ByteBuffer buffer) {
+            return new Record(buffer.getLong(), buffer.getLong());
+        }
+    };
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] fileSizes = BenchmarkRunner.parseInts(options.getOrDefault("fileMb", "4096"));
+        final int[] budgets = BenchmarkRunner.parseInts(options.getOrDefault("budgetMb", "256"));
+        final Path dir = Paths.get(options.getOrDefault("dir", System.getProperty("java.io.tmpdir")));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        BenchmarkCase[] cases = new BenchmarkCase[fileSizes.length * budgets.length];
+        int i = 0;
+        for (int fileMb : fileSizes)
+            for (int budgetMb : budgets)
+                cases[i++] = createCase(dir, fileMb, budgetMb, seed);
+        BenchmarkRunner.run(ExternalSortBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Path dir, int fileMb, int budgetMb, long seed) {
+
+        final long records = ((long) fileMb << 20) / CODEC.recordSize();
+        final Path input = dir.resolve("external-sort-" + fileMb + "mb-" + seed + ".bin");
+        final Path output = dir.resolve("external-sort-" + fileMb + "mb-" + seed + ".sorted");
+
+        String[] params = {
+                "fileMb", Integer.toString(fileMb),
+                "budgetMb", Integer.toString(budgetMb)
+        };
+
+        final ExternalSort<Record> sort = new ExternalSort<>(
+                CODEC, (r1, r2) -> Long.compare(r1.key, r2.key), (long) budgetMb << 20, dir);
+
+        return new BenchmarkCase("externalSort", params, () -> {
+            try {
+                if (!Files.exists(input) || Files.size(input) != records * CODEC.recordSize())
+                    generate(input, records, seed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return () -> {
+                try {
+                    sort.sort(input, output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }, (int) Math.min(records, Integer.MAX_VALUE));
+    }
+
+    private static void generate(Path path, long records, long seed) throws IOException {
+        Random random = new Random(seed);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long i = 0; i < records; i++) {
+                if (buffer.remaining() < CODEC.recordSize()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining())
+                        channel.write(buffer);
+                    buffer.clear();
+                }
+                CODEC.encode(new Record(random.nextLong(), i), buffer);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package bench;
+
+import containers.ArrayList;
+import containers.HashIndex;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of {@link ArrayList#contains} scanning the list against answering from an attached {@link HashIndex}.
+ * <ul>
+ *     <li>CONTAINS - looks up {@code lookups} values, half of them in the list, an operation is one lookup;</li>
+ *     <li>LOAD - clears the list, adds size elements and makes one lookup, an operation is one element,
+ *     which shows the cost of keeping an eager index up to date against rebuilding a lazy one.</li>
+ * </ul>
+ * The indexBytesPerElement parameter is the memory of the index built over the list.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 1M by default;</li>
+ *     <li>{@code lookups} - 1000 by default;</li>
+ *     <li>{@code methods} - SCAN, EAGER and LAZY, all by default;</li>
+ *     <li>{@code actions} - CONTAINS and LOAD, all by default;</li>
+ *     <li>{@code seed} - the seed of the values.</li>
+ * </ul>
+ */
+public final class HashIndexBenchmark {
+
+    private HashIndexBenchmark() {
+        new Error("Forbidden instance of class " + HashIndexBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Method {
+        SCAN,
+        EAGER,
+        LAZY
+    }
+
+    public enum Action {
+        CONTAINS,
+        LOAD
+    }
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000"));
+        final int lookups = Integer.parseInt(options.getOrDefault("lookups", "1000"));
+        final Method[] methods = BenchmarkRunner.parseEnums(Method.class, options.get("methods"));
+        final Action[] actions = BenchmarkRunner.parseEnums(Action.class, options.get("actions"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Action action : actions)
+            for (Method method : methods)
+                for (int size : sizes)
+                    cases.add(createCase(action, method, size, lookups, seed));
+
+        BenchmarkRunner.run(HashIndexBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Action action, Method method, int size, int lookups, long seed) {
+
+        final Random random = new Random(seed);
+        final Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++)
+            values[i] = random.nextInt(Integer.MAX_VALUE);
+        final Integer[] probes = new Integer[lookups];
+        for (int i = 0; i < lookups; i++)
+            probes[i] = i % 2 == 0 ? values[random.nextInt(size)] : -1 - random.nextInt(Integer.MAX_VALUE);
+
+        final ArrayList<Integer> list = new ArrayList<>(values);
+        String bytesPerElement = "0";
+        if (method != Method.SCAN) {
+            HashIndex<Integer> index = list.attachIndex(method == Method.EAGER ? HashIndex.Mode.EAGER : HashIndex.Mode.LAZY);
+            list.contains(probes[0]);
+            bytesPerElement = String.format(Locale.ROOT, "%.1f", index.bytesPerElement());
+        }
+
+        String[] params = {
+                "action", action.toString(),
+                "method", method.toString(),
+                "size", Integer.toString(size),
+                "indexBytesPerElement", bytesPerElement
+        };
+
+        return new BenchmarkCase("hashIndex", params, () -> switch (action) {
+            case CONTAINS -> () -> {
+                long found = 0;
+                for (Integer probe : probes)
+                    if (list.contains(probe))
+                        ++found;
+                BenchmarkRunner.consume(found);
+            };
+            case LOAD -> {
+                final ArrayList<Integer> loaded = new ArrayList<>();
+                switch (method) {
+                    case SCAN -> { }
+                    case EAGER -> loaded.attachIndex(HashIndex.Mode.EAGER);
+                    case LAZY -> loaded.attachIndex(HashIndex.Mode.LAZY);
+                }
+                yield () -> {
+                    loaded.clear();
+                    for (Integer value : values)
+                        loaded.add(value);
+                    BenchmarkRunner.consume(loaded.contains(probes[0]) ? 1 : 0);
+                };
+            }
+        }, action == Action.CONTAINS ? lookups : size);
+    }
+}
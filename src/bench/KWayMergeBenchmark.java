@@ -0,0 +1,126 @@
+package bench;
+
+import algo.KWayMerge;
+import containers.ArrayList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of {@link KWayMerge} against merging the sources one by one into the result, as two-way merges do.
+ * An operation is merging one element.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - the total numbers of elements, 1M by default;</li>
+ *     <li>{@code ks} - the numbers of sources, 2, 8, 64 and 256 by default;</li>
+ *     <li>{@code methods} - LOSER_TREE, LOSER_TREE_GALLOP and PAIRWISE, all by default;</li>
+ *     <li>{@code layouts} - RANDOM and BLOCKS, all by default;</li>
+ *     <li>{@code seed} - the seed of the elements.</li>
+ * </ul>
+ */
+public final class KWayMergeBenchmark {
+
+    private KWayMergeBenchmark() {
+        new Error("Forbidden instance of class " + KWayMergeBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Method {
+        LOSER_TREE,
+        LOSER_TREE_GALLOP,
+        /**
+         * Merges the first two sources, then the result with the third one and so on.
+         */
+        PAIRWISE
+    }
+
+    public enum Layout {
+        /**
+         * Every source is a sorted sample of the same range.
+         */
+        RANDOM,
+        /**
+         * Sources are split into blocks of 1000 consecutive values and the blocks are dealt to the sources in turn,
+         * so long runs come from one source.
+         */
+        BLOCKS
+    }
+
+
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000"));
+        final int[] ks = BenchmarkRunner.parseInts(options.getOrDefault("ks", "2,8,64,256"));
+        final Method[] methods = BenchmarkRunner.parseEnums(Method.class, options.get("methods"));
+        final Layout[] layouts = BenchmarkRunner.parseEnums(Layout.class, options.get("layouts"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Method method : methods)
+            for (Layout layout : layouts)
+                for (int k : ks)
+                    for (int size : sizes)
+                        cases.add(createCase(method, layout, k, size, seed));
+
+        BenchmarkRunner.run(KWayMergeBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Method method, Layout layout, int k, int size, long seed) {
+
+        final Integer[][] sources = generate(layout, k, size, new Random(seed));
+        final Integer[] destination = new Integer[size];
+
+        String[] params = {
+                "method", method.toString(),
+                "layout", layout.toString(),
+                "k", Integer.toString(k),
+                "size", Integer.toString(size)
+        };
+
+        return new BenchmarkCase("kWayMerge", params, () -> switch (method) {
+            case LOSER_TREE -> () -> KWayMerge.merge(sources, destination, 0, COMPARATOR, false);
+            case LOSER_TREE_GALLOP -> () -> KWayMerge.merge(sources, destination, 0, COMPARATOR, true);
+            case PAIRWISE -> () -> {
+                Integer[] merged = sources[0];
+                for (int i = 1; i < k; i++) {
+                    Integer[] next = new Integer[merged.length + sources[i].length];
+                    KWayMerge.merge(new Integer[][] { merged, sources[i] }, next, 0, COMPARATOR, false);
+                    merged = next;
+                }
+                BenchmarkRunner.consume(merged.length);
+            };
+        }, size);
+    }
+
+    private static Integer[][] generate(Layout layout, int k, int size, Random random) {
+        Integer[][] sources = new Integer[k][];
+        for (int i = 0; i < k; i++)
+            sources[i] = new Integer[size / k + (i < size % k ? 1 : 0)];
+        switch (layout) {
+            case RANDOM -> {
+                for (Integer[] source : sources) {
+                    for (int i = 0; i < source.length; i++)
+                        source[i] = random.nextInt(size);
+                    Arrays.sort(source);
+                }
+            }
+            case BLOCKS -> {
+                int[] lengths = new int[k];
+                for (int value = 0, source = 0; value < size; source = (source + 1) % k)
+                    for (int i = 0; i < 1000 && value < size && lengths[source] < sources[source].length; i++)
+                        sources[source][lengths[source]++] = value++;
+            }
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,119 @@
+package bench;
+
+import containers.ArrayList;
+import containers.DoublyLinkedList;
+import containers.ForwardList;
+import containers.List;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of the lists under append-heavy and queue workloads. An operation is one element added and,
+ * but for APPEND, one removed; allocatedBytesPerOp shows what the node pool of {@link DoublyLinkedList} saves.
+ * <ul>
+ *     <li>APPEND - adds size elements at the end of an empty list;</li>
+ *     <li>QUEUE - keeps length elements, adding at the end and removing at the front size times;</li>
+ *     <li>DEQUE - keeps length elements, adding and removing at alternating ends size times.</li>
+ * </ul>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 1M by default;</li>
+ *     <li>{@code lengths} - the elements kept by QUEUE and DEQUE, 1000 by default;</li>
+ *     <li>{@code lists} - FORWARD_LIST, DOUBLY_LINKED_LIST, DOUBLY_LINKED_LIST_NO_POOL and ARRAY_LIST, all by default;</li>
+ *     <li>{@code workloads} - APPEND, QUEUE and DEQUE, all by default.</li>
+ * </ul>
+ */
+public final class LinkedListBenchmark {
+
+    private LinkedListBenchmark() {
+        new Error("Forbidden instance of class " + LinkedListBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Kind {
+        FORWARD_LIST,
+        DOUBLY_LINKED_LIST,
+        DOUBLY_LINKED_LIST_NO_POOL,
+        ARRAY_LIST
+    }
+
+    public enum Workload {
+        APPEND,
+        QUEUE,
+        DEQUE
+    }
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000"));
+        final int[] lengths = BenchmarkRunner.parseInts(options.getOrDefault("lengths", "1000"));
+        final Kind[] kinds = BenchmarkRunner.parseEnums(Kind.class, options.get("lists"));
+        final Workload[] workloads = BenchmarkRunner.parseEnums(Workload.class, options.get("workloads"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Workload workload : workloads)
+            for (Kind kind : kinds)
+                for (int size : sizes)
+                    if (workload == Workload.APPEND)
+                        cases.add(createCase(workload, kind, size, 0));
+                    else
+                        for (int length : lengths)
+                            cases.add(createCase(workload, kind, size, length));
+
+        BenchmarkRunner.run(LinkedListBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Workload workload, Kind kind, int size, int length) {
+
+        final Supplier<List<Integer>> factory = switch (kind) {
+            case FORWARD_LIST -> ForwardList::new;
+            case DOUBLY_LINKED_LIST -> DoublyLinkedList::new;
+            case DOUBLY_LINKED_LIST_NO_POOL -> () -> new DoublyLinkedList<>(0);
+            case ARRAY_LIST -> ArrayList::new;
+        };
+
+        String[] params = {
+                "workload", workload.toString(),
+                "list", kind.toString(),
+                "size", Integer.toString(size),
+                "length", Integer.toString(length)
+        };
+
+        return new BenchmarkCase("linkedList", params, () -> {
+            final List<Integer> list = factory.get();
+            for (int i = 0; i < length; i++)
+                list.add(i);
+            return switch (workload) {
+                case APPEND -> () -> {
+                    for (int i = 0; i < size; i++)
+                        list.add(i);
+                    BenchmarkRunner.consume(list.size());
+                    list.clear();
+                };
+                case QUEUE -> () -> {
+                    for (int i = 0; i < size; i++) {
+                        list.add(i);
+                        BenchmarkRunner.consume(list.popFirst());
+                    }
+                };
+                case DEQUE -> () -> {
+                    for (int i = 0; i < size; i++) {
+                        if ((i & 1) == 0) {
+                            list.addFirst(i);
+                            BenchmarkRunner.consume(list.popLast());
+                        } else {
+                            list.add(i);
+                            BenchmarkRunner.consume(list.popFirst());
+                        }
+                    }
+                };
+            };
+        }, size);
+    }
+}
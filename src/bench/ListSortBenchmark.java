@@ -0,0 +1,86 @@
+package bench;
+
+import algo.Sorts;
+import containers.ArrayList;
+import containers.ForwardList;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of sorting a {@link ForwardList} in place by relinking its nodes against copying it
+ * through {@code toArray}, timsorting the copy and putting it back with {@code setData}.
+ * An operation is one element.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 1M by default;</li>
+ *     <li>{@code methods} - IN_PLACE and COPY, all by default;</li>
+ *     <li>{@code distributions} - RANDOM, SORTED and FEW_UNIQUE by default;</li>
+ *     <li>{@code seed} - the seed of random distributions.</li>
+ * </ul>
+ */
+public final class ListSortBenchmark {
+
+    private ListSortBenchmark() {
+        new Error("Forbidden instance of class " + ListSortBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Method {
+        IN_PLACE,
+        COPY
+    }
+
+
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000"));
+        final Method[] methods = BenchmarkRunner.parseEnums(Method.class, options.get("methods"));
+        final Distribution[] distributions = BenchmarkRunner.parseEnums(
+                Distribution.class, options.getOrDefault("distributions", "RANDOM,SORTED,FEW_UNIQUE"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Method method : methods)
+            for (Distribution distribution : distributions)
+                for (int size : sizes)
+                    cases.add(createCase(method, distribution, size, seed));
+
+        BenchmarkRunner.run(ListSortBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Method method, Distribution distribution, int size, long seed) {
+
+        final int[] values = distribution.generate(size, new Random(seed));
+        final ArrayList<Integer> source = new ArrayList<>(size);
+        for (int value : values)
+            source.add(value);
+
+        String[] params = {
+                "method", method.toString(),
+                "distribution", distribution.toString(),
+                "size", Integer.toString(size)
+        };
+
+        return new BenchmarkCase("listSort", params, () -> {
+            final ForwardList<Integer> list = new ForwardList<>(source);
+            return switch (method) {
+                case IN_PLACE -> () -> list.sort(COMPARATOR);
+                case COPY -> () -> {
+                    Object[] array = list.toArray();
+                    Sorts.sort(array, (o1, o2) -> COMPARATOR.compare((Integer) o1, (Integer) o2), Sorts.SortingType.TIMSORT);
+                    list.setData(array);
+                };
+            };
+        }, size);
+    }
+}
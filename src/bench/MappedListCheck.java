@@ -0,0 +1,183 @@
+package bench;
+
+import containers.MappedArrayList;
+import containers.RecordCodec;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Crash simulation of {@link MappedArrayList}: each case changes a list, abandons it without closing as a crashed
+ * process would, the operating system keeping the written pages, and reopens the file, which must give the list
+ * as of the last {@link MappedArrayList#flush()}. Files rejected on opening must come back unchanged.
+ * <p>
+ * Prints every failure and exits with status 1 if there was any. Options:
+ * <ul>
+ *     <li>{@code dir} - the directory of the list files, the temporary directory by default.</li>
+ * </ul>
+ */
+public final class MappedListCheck {
+
+    private MappedListCheck() {
+        new Error("Forbidden instance of class " + MappedListCheck.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int FLUSHED = 2000;
+
+
+    private static int failures = 0;
+
+
+    public static void main(String[] args) throws IOException {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final Path dir = Paths.get(options.getOrDefault("dir", System.getProperty("java.io.tmpdir")));
+
+        checkUnflushedAdds(dir);
+        checkShrink(dir, 0);
+        checkShrink(dir, FLUSHED / 4);
+        checkWrongRecordSize(dir);
+        checkForeignFile(dir);
+        checkOversizedFile(dir);
+
+        if (failures > 0) {
+            System.out.println(failures + " failures");
+            System.exit(1);
+        }
+        System.out.println("All crash cases ok");
+    }
+
+
+    private static void fail(String context, String message) {
+        ++failures;
+        System.out.println("FAIL " + context + ": " + message);
+    }
+
+    private static MappedArrayList<Long> createFlushed(Path path) throws IOException {
+        MappedArrayList<Long> list = new MappedArrayList<>(path, RecordCodec.LONG);
+        for (long i = 0; i < FLUSHED; i++)
+            list.add(i);
+        list.flush();
+        return list;
+    }
+
+    /**
+     * Reopens path expecting the first size elements of createFlushed.
+     */
+    private static void checkReopen(Path path, int size, String context) {
+        try (MappedArrayList<Long> list = new MappedArrayList<>(path, RecordCodec.LONG)) {
+            if (list.size() != size) {
+                fail(context, "size " + list.size() + " instead of " + size);
+                return;
+            }
+            for (int i = 0; i < size; i++)
+                if (list.get(i) != i) {
+                    fail(context, "element " + i + " is " + list.get(i));
+                    return;
+                }
+        } catch (IOException | RuntimeException e) {
+            fail(context, "reopening: " + e);
+        }
+    }
+
+
+    private static void checkUnflushedAdds(Path dir) throws IOException {
+        Path path = Files.createTempFile(dir, "crash", ".list");
+        Files.delete(path);
+        try {
+            MappedArrayList<Long> list = createFlushed(path);
+            for (long i = 0; i < FLUSHED; i++)
+                list.add(-i);
+            checkReopen(path, FLUSHED, "unflushed adds");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Shrinks the file below the flushed size and crashes before the next flush.
+     */
+    private static void checkShrink(Path dir, int size) throws IOException {
+        Path path = Files.createTempFile(dir, "crash", ".list");
+        Files.delete(path);
+        try {
+            MappedArrayList<Long> list = createFlushed(path);
+            while (list.size() > size)
+                list.removeLast();
+            list.minimizeCapacity();
+            checkReopen(path, size, "shrunk to " + size + " after a flush");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void checkWrongRecordSize(Path dir) throws IOException {
+        Path path = Files.createTempFile(dir, "crash", ".list");
+        Files.delete(path);
+        try {
+            createFlushed(path).close();
+            byte[] before = Files.readAllBytes(path);
+            try (MappedArrayList<Integer> list = new MappedArrayList<>(path, RecordCodec.INT)) {
+                fail("record size", "opened with " + list.size() + " elements");
+            } catch (IOException expected) {
+                // rejected
+            }
+            if (!Arrays.equals(Files.readAllBytes(path), before))
+                fail("record size", "the rejected file has changed");
+            checkReopen(path, FLUSHED, "record size");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void checkForeignFile(Path dir) throws IOException {
+        Path path = Files.createTempFile(dir, "crash", ".bin");
+        try {
+            byte[] bytes = new byte[8192];
+            new Random(42).nextBytes(bytes);
+            Files.write(path, bytes);
+            try (MappedArrayList<Long> list = new MappedArrayList<>(path, RecordCodec.LONG)) {
+                fail("foreign file", "opened with " + list.size() + " elements");
+            } catch (IOException expected) {
+                // rejected
+            }
+            if (!Arrays.equals(Files.readAllBytes(path), bytes))
+                fail("foreign file", "the rejected file has changed");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Extends a list file, sparsely, beyond the records any list can hold.
+     */
+    private static void checkOversizedFile(Path dir) throws IOException {
+        Path path = Files.createTempFile(dir, "crash", ".list");
+        Files.delete(path);
+        try {
+            createFlushed(path).close();
+            long length = Files.size(path) + Long.BYTES * (long) Integer.MAX_VALUE;
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(length);
+            }
+            try (MappedArrayList<Long> list = new MappedArrayList<>(path, RecordCodec.LONG)) {
+                fail("oversized file", "opened with " + list.size() + " elements");
+            } catch (IOException expected) {
+                // rejected
+            }
+            if (Files.size(path) != length)
+                fail("oversized file", "the rejected file has changed");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package bench;
+
+import algo.SortWorkspace;
+import algo.Sorts;
+import containers.ArrayList;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of {@link Sorts.SortingType#RADIX_SORT} against {@link Sorts.SortingType#TIMSORT}
+ * on int and long arrays and on objects sorted by an int key.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 1M, 10M and 100M by default, 100M needs about 2 GB of heap for ints and 6 GB for keys;</li>
+ *     <li>{@code types} - RADIX_SORT and TIMSORT by default;</li>
+ *     <li>{@code distributions} - RANDOM, FEW_UNIQUE and NEARLY_SORTED by default;</li>
+ *     <li>{@code kinds} - INT, LONG, INT_KEY, all by default;</li>
+ *     <li>{@code seed} - the seed of random distributions.</li>
+ * </ul>
+ */
+public final class RadixBenchmark {
+
+    private RadixBenchmark() {
+        new Error("Forbidden instance of class " + RadixBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Kind {
+        INT,
+        LONG,
+        /**
+         * Objects holding an int, sorted by {@link Sorts#radixSortByIntKey} or by timsort with a comparator on the int.
+         */
+        INT_KEY
+    }
+
+
+    private static final class Record {
+        final int key;
+        Record(int key) { this.key = key; }
+    }
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000,10000000,100000000"));
+        final Sorts.SortingType[] types = BenchmarkRunner.parseEnums(
+                Sorts.SortingType.class, options.getOrDefault("types", "RADIX_SORT,TIMSORT"));
+        final Distribution[] distributions = BenchmarkRunner.parseEnums(
+                Distribution.class, options.getOrDefault("distributions", "RANDOM,FEW_UNIQUE,NEARLY_SORTED"));
+        final Kind[] kinds = BenchmarkRunner.parseEnums(Kind.class, options.get("kinds"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Kind kind : kinds)
+            for (Sorts.SortingType type : types)
+                for (Distribution distribution : distributions)
+                    for (int size : sizes)
+                        cases.add(createCase(kind, type, distribution, size, seed));
+
+        BenchmarkRunner.run(RadixBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Kind kind, Sorts.SortingType type, Distribution distribution, int size, long seed) {
+
+        final int[] source = distribution.generate(size, new Random(seed));
+
+        String[] params = {
+                "kind", kind.toString(),
+                "type", type.toString(),
+                "distribution", distribution.toString(),
+                "size", Integer.toString(size)
+        };
+
+        final SortWorkspace workspace = new SortWorkspace();
+
+        return switch (kind) {
+            case INT -> {
+                final int[] array = new int[size];
+                yield new BenchmarkCase("radix", params, () -> {
+                    System.arraycopy(source, 0, array, 0, size);
+                    return type == Sorts.SortingType.RADIX_SORT
+                            ? () -> Sorts.radixSort(array, 0, size, workspace)
+                            : () -> Sorts.sort(array, type);
+                }, 1);
+            }
+            case LONG -> {
+                final long[] array = new long[size];
+                yield new BenchmarkCase("radix", params, () -> {
+                    for (int i = 0; i < size; i++)
+                        array[i] = (long) source[i] * source[i] ^ source[i];
+                    return type == Sorts.SortingType.RADIX_SORT
+                            ? () -> Sorts.radixSort(array, 0, size, workspace)
+                            : () -> Sorts.sort(array, type);
+                }, 1);
+            }
+            case INT_KEY -> {
+                final Record[] records = new Record[size];
+                for (int i = 0; i < size; i++)
+                    records[i] = new Record(source[i]);
+                final Record[] array = new Record[size];
+                yield new BenchmarkCase("radix", params, () -> {
+                    System.arraycopy(records, 0, array, 0, size);
+                    return type == Sorts.SortingType.RADIX_SORT
+                            ? () -> Sorts.radixSortByIntKey(array, 0, size, record -> record.key, workspace)
+                            : () -> Sorts.sort(array, 0, size, (r1, r2) -> Integer.compare(r1.key, r2.key), type, workspace);
+                }, 1);
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package bench;
+
+import algo.Sorts;
+import containers.ArrayList;
+import containers.ForwardList;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of every {@link Sorts.SortingType} over sizes and {@link Distribution}s of boxed ints,
+ * sorting an array with {@link Sorts#sort} or a {@link ArrayList} or {@link ForwardList} with {@code List.sort}.
+ * <p>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 16 to 10M by default;</li>
+ *     <li>{@code types} - all sorting types but {@code DEFAULT} by default;</li>
+ *     <li>{@code distributions} - all distributions by default;</li>
+ *     <li>{@code targets} - ARRAY, ARRAY_LIST, FORWARD_LIST, all by default;</li>
+ *     <li>{@code maxQuadraticSize} - the greatest size for selection, bubble and insertion sort, 65536 by default;</li>
+ *     <li>{@code seed} - the seed of random distributions.</li>
+ * </ul>
+ * Example: {@code java -cp out bench.SortBenchmark sizes=1000,1000000 types=TIMSORT,MYSORT targets=ARRAY out=sorts.json}
+ */
+public final class SortBenchmark {
+
+    private SortBenchmark() {
+        new Error("Forbidden instance of class " + SortBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Target {
+        ARRAY,
+        ARRAY_LIST,
+        FORWARD_LIST
+    }
+
+
+    private static final String DEFAULT_SIZES = "16,256,4096,65536,1048576,10000000";
+
+    /**
+     * Small sizes are sorted in batches of about this many elements per timed invocation.
+     */
+    private static final int BATCH_ELEMENTS = 1 << 16;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", DEFAULT_SIZES));
+        final Sorts.SortingType[] types = BenchmarkRunner.parseEnums(Sorts.SortingType.class, options.get("types"));
+        final Distribution[] distributions = BenchmarkRunner.parseEnums(Distribution.class, options.get("distributions"));
+        final Target[] targets = BenchmarkRunner.parseEnums(Target.class, options.get("targets"));
+        final int maxQuadraticSize = Integer.parseInt(options.getOrDefault("maxQuadraticSize", "65536"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Target target : targets)
+            for (Sorts.SortingType type : types)
+                for (Distribution distribution : distributions)
+                    for (int size : sizes) {
+                        if (type == Sorts.SortingType.DEFAULT && options.get("types") == null)
+                            continue;
+                        if (isQuadratic(type) && size > maxQuadraticSize)
+                            continue;
+                        cases.add(createCase(target, type, distribution, size, seed));
+                    }
+
+        BenchmarkRunner.run(SortBenchmark.class, args, cases);
+    }
+
+
+    private static boolean isQuadratic(Sorts.SortingType type) {
+        return type == Sorts.SortingType.SELECTION_SORT
+                || type == Sorts.SortingType.BUBBLE_SORT
+                || type == Sorts.SortingType.INSERTION_SORT;
+    }
+
+    private static BenchmarkCase createCase(Target target, Sorts.SortingType type, Distribution distribution, int size, long seed) {
+
+        final int batch = Math.max(1, BATCH_ELEMENTS / size);
+
+        int[] values = distribution.generate(size, new Random(seed));
+        final Integer[] source = new Integer[size];
+        for (int i = 0; i < size; i++)
+            source[i] = values[i];
+
+        final Comparator<Integer> comparator = Comparator.naturalOrder();
+
+        String[] params = {
+                "target", target.toString(),
+                "type", type.toString(),
+                "distribution", distribution.toString(),
+                "size", Integer.toString(size)
+        };
+
+        return switch (target) {
+            case ARRAY -> {
+                final Integer[][] arrays = new Integer[batch][size];
+                yield new BenchmarkCase("sort", params, () -> {
+                    for (Integer[] array : arrays)
+                        System.arraycopy(source, 0, array, 0, size);
+                    return () -> {
+                        for (Integer[] array : arrays)
+                            Sorts.sort(array, comparator, type);
+                    };
+                }, batch);
+            }
+            case ARRAY_LIST -> new BenchmarkCase("sort", params, () -> {
+                @SuppressWarnings("unchecked")
+                ArrayList<Integer>[] lists = (ArrayList<Integer>[]) new ArrayList<?>[batch];
+                for (int i = 0; i < batch; i++)
+                    lists[i] = new ArrayList<>(source);
+                return () -> {
+                    for (ArrayList<Integer> list : lists)
+                        list.sort(comparator, type);
+                };
+            }, batch);
+            case FORWARD_LIST -> new BenchmarkCase("sort", params, () -> {
+                @SuppressWarnings("unchecked")
+                ForwardList<Integer>[] lists = (ForwardList<Integer>[]) new ForwardList<?>[batch];
+                for (int i = 0; i < batch; i++)
+                    lists[i] = new ForwardList<>(source);
+                return () -> {
+                    for (ForwardList<Integer> list : lists)
+                        list.sort(comparator, type);
+                };
+            }, batch);
+        };
+    }
+}
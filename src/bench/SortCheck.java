@@ -0,0 +1,624 @@
+package bench;
+
+import algo.KWayMerge;
+import algo.SortMetrics;
+import algo.Sorts;
+import algo.TopK;
+import containers.ArrayList;
+import containers.ChunkedArrayList;
+import containers.DoublyLinkedList;
+import containers.ForwardList;
+import containers.List;
+import containers.MappedArrayList;
+import containers.OffHeapArrayList;
+import containers.RecordCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Randomized check of every {@link Sorts.SortingType}, there being no test suite: each round sorts a random
+ * subrange [start, end) of a random length with a random input shape, the {@link Distribution}s plus all equal
+ * keys and descending steps of equal keys, and checks that
+ * <ul>
+ *     <li>the range is sorted and holds the same elements, and nothing outside it has changed;</li>
+ *     <li>equal keys keep their order for the stable sorting types, see {@link #claimsStability}, and for
+ *     {@link Sorts#sort(Object[], int, int, java.util.function.ToIntFunction, Sorts.SortingType)} with any type;</li>
+ *     <li>the same holds for int, long and double arrays and for a subrange of every kind of list sorted with
+ *     {@code List.sort}, in place or not, the record lists outside of the heap included.</li>
+ * </ul>
+ * Then for every type with an O(n log n) worst case it sorts every shape at two sizes eight times apart
+ * with {@link SortMetrics#measure} and fails if the comparisons, or the moves with {@code -Dalgo.sortMetrics=true},
+ * per n log2 n grow more than twice, which a quadratic regression does eightfold.
+ * <p>
+ * The same rounds check the routines beside {@code Sorts.sort} with the same oracles: the radix sorts of strings,
+ * byte arrays and extracted int and long keys, {@link KWayMerge} of up to {@value #MAX_MERGE_WAYS} runs, which
+ * must give ties to the earlier run, {@link Sorts#nthElement}, {@link Sorts#partialSort} and {@link TopK}.
+ * <p>
+ * Prints every failure and exits with status 1 if there was any. Options, all lists are comma separated:
+ * <ul>
+ *     <li>{@code types} - all sorting types by default;</li>
+ *     <li>{@code rounds} - rounds per sorting type and target, 300 by default;</li>
+ *     <li>{@code maxLength} - the greatest array length of a round, 300 by default,
+ *     every 16th round of a sort not quadratic is up to 64 times longer;</li>
+ *     <li>{@code growthSize} - the smaller size of the growth check, 2048 by default;</li>
+ *     <li>{@code seed} - random by default and printed, to repeat a failing run.</li>
+ * </ul>
+ * Example: {@code java -cp out Main check types=TIMSORT,MERGE_SORT rounds=1000}
+ */
+public final class SortCheck {
+
+    private SortCheck() {
+        new Error("Forbidden instance of class " + SortCheck.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    /**
+     * A key to sort by and the index it started at, which tells the order of equal keys.
+     */
+    record Item(int key, int index) { }
+
+    static final Comparator<Item> BY_KEY = Comparator.comparingInt(Item::key);
+
+    /**
+     * Stores an item as its key and its index, for the lists outside of the heap.
+     */
+    static final RecordCodec<Item> ITEM_CODEC = new RecordCodec<>() {
+
+        @Override
+        public int recordSize() {
+            return 2 * Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Item record, ByteBuffer buffer) {
+            buffer.putInt(record.key).putInt(record.index);
+        }
+
+        @Override
+        public Item decode(ByteBuffer buffer) {
+            return new Item(buffer.getInt(), buffer.getInt());
+        }
+    };
+
+    private static final Distribution[] DISTRIBUTIONS = Distribution.values();
+    private static final int ALL_EQUAL = DISTRIBUTIONS.length;
+    private static final int DESCENDING_STEPS = DISTRIBUTIONS.length + 1;
+    private static final int SHAPES = DISTRIBUTIONS.length + 2;
+
+    private static final int LONG_ROUND_PERIOD = 16;
+    private static final int LONG_ROUND_FACTOR = 64;
+    private static final int GROWTH_FACTOR = 8;
+    private static final double MAX_GROWTH = 2;
+
+    private static final int MAX_MERGE_WAYS = 80;
+
+    private static final char[] STRING_CHARS = { 'a', 'b', '\u00e9', '\u0100', '\ud83d', '\uffff' };
+
+
+    private static int failures = 0;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final Sorts.SortingType[] types = BenchmarkRunner.parseEnums(Sorts.SortingType.class, options.get("types"));
+        final int rounds = Integer.parseInt(options.getOrDefault("rounds", "300"));
+        final int maxLength = Integer.parseInt(options.getOrDefault("maxLength", "300"));
+        final int growthSize = Integer.parseInt(options.getOrDefault("growthSize", "2048"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", Long.toString(new Random().nextLong())));
+
+        System.out.println("seed=" + seed);
+        final Random random = new Random(seed);
+
+        for (Sorts.SortingType type : types) {
+            int before = failures;
+            for (int round = 0; round < rounds; round++) {
+                int length = random.nextInt(maxLength + 1);
+                if (round % LONG_ROUND_PERIOD == LONG_ROUND_PERIOD - 1 && !isQuadratic(type))
+                    length = random.nextInt(maxLength * LONG_ROUND_FACTOR + 1);
+                int start = length == 0 ? 0 : random.nextInt(length + 1);
+                int end = start + random.nextInt(length - start + 1);
+                int shape = random.nextInt(SHAPES);
+                int[] keys = generate(shape, length, random);
+                String context = type + " " + shapeName(shape) + " length=" + length + " [" + start + ", " + end + ")";
+
+                checkObjects(type, keys, start, end, context);
+                checkKeyed(type, keys, start, end, context);
+                checkInts(type, keys, start, end, context);
+                checkLongs(type, keys, start, end, context);
+                checkDoubles(type, keys, start, end, random, context);
+                if (round % LONG_ROUND_PERIOD == 0)
+                    checkLists(type, keys, start, end, context);
+            }
+            checkGrowth(type, growthSize, random);
+            System.out.println(type + (failures == before ? " ok" : " FAILED " + (failures - before)));
+        }
+
+        int before = failures;
+        for (int round = 0; round < rounds; round++) {
+            int length = random.nextInt(maxLength + 1);
+            int start = length == 0 ? 0 : random.nextInt(length + 1);
+            int end = start + random.nextInt(length - start + 1);
+            int shape = random.nextInt(SHAPES);
+            int[] keys = generate(shape, length, random);
+            String context = shapeName(shape) + " length=" + length + " [" + start + ", " + end + ")";
+
+            try {
+                checkRadixStrings(keys, start, end, context);
+                checkRadixBytes(keys, start, end, context);
+                checkRadixKeys(keys, start, end, context);
+                checkMerges(keys, random, context);
+                checkSelection(keys, start, end, random, context);
+                checkTopK(keys, random, context);
+            } catch (RuntimeException e) {
+                fail(context, e.toString());
+            }
+        }
+        System.out.println("Routines" + (failures == before ? " ok" : " FAILED " + (failures - before)));
+
+        if (failures > 0) {
+            System.out.println(failures + " failures, seed=" + seed);
+            System.exit(1);
+        }
+        System.out.println("All sorting types and routines ok");
+    }
+
+
+    private static boolean isQuadratic(Sorts.SortingType type) {
+        return type == Sorts.SortingType.SELECTION_SORT
+                || type == Sorts.SortingType.BUBBLE_SORT
+                || type == Sorts.SortingType.INSERTION_SORT;
+    }
+
+    /**
+     * RADIX_SORT sorts object arrays with timsort, PARALLEL merges timsort chunks keeping ties on the left.
+     */
+    private static boolean claimsStability(Sorts.SortingType type) {
+        return switch (type) {
+            case INSERTION_SORT, BUBBLE_SORT, MERGE_SORT, TIMSORT, MYSORT, RADIX_SORT, PARALLEL -> true;
+            case DEFAULT -> claimsStability(Sorts.SortingType.getCurrentDefault());
+            default -> false;
+        };
+    }
+
+    private static int[] generate(int shape, int size, Random random) {
+        if (shape < DISTRIBUTIONS.length)
+            return DISTRIBUTIONS[shape].generate(size, random);
+        int[] keys = new int[size];
+        if (shape == DESCENDING_STEPS)
+            for (int i = 0; i < size; i++)
+                keys[i] = (size - i) >> 2;
+        return keys;
+    }
+
+    private static String shapeName(int shape) {
+        if (shape < DISTRIBUTIONS.length)
+            return DISTRIBUTIONS[shape].toString();
+        return shape == ALL_EQUAL ? "ALL_EQUAL" : "DESCENDING_STEPS";
+    }
+
+    private static void fail(String context, String message) {
+        ++failures;
+        System.out.println("FAIL " + context + ": " + message);
+    }
+
+
+    static Item[] items(int[] keys) {
+        Item[] items = new Item[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            items[i] = new Item(keys[i], i);
+        return items;
+    }
+
+    /**
+     * Checks that result[start, end) holds the items of the same range, equal ones being the same,
+     * as the record lists decode new ones, and that the rest is untouched.
+     */
+    private static boolean checkPermutation(Item[] original, Item[] result, int start, int end, String context) {
+        if (result.length != original.length) {
+            fail(context, "length " + result.length + " instead of " + original.length);
+            return false;
+        }
+        for (int i = 0; i < original.length; i++)
+            if ((i < start || i >= end) && !original[i].equals(result[i])) {
+                fail(context, "element " + i + " outside the range has changed");
+                return false;
+            }
+        boolean[] seen = new boolean[original.length];
+        for (int i = start; i < end; i++) {
+            Item item = result[i];
+            if (item == null || item.index < start || item.index >= end || seen[item.index]
+                    || !original[item.index].equals(item)) {
+                fail(context, "not a permutation at " + i);
+                return false;
+            }
+            seen[item.index] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Checks sorted[start, end) against the items it was sorted from, and that the rest is untouched.
+     */
+    static void checkItems(Item[] original, Item[] sorted, int start, int end, boolean stable, String context) {
+        if (!checkPermutation(original, sorted, start, end, context))
+            return;
+        for (int i = start + 1; i < end; i++) {
+            Item previous = sorted[i-1];
+            Item item = sorted[i];
+            if (previous.key > item.key) {
+                fail(context, "not sorted at " + i);
+                return;
+            }
+            if (stable && previous.key == item.key && previous.index > item.index) {
+                fail(context, "not stable at " + i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@link #checkItems} for elements other than items, telling equal ones apart by identity.
+     */
+    private static <T> void checkSorted(T[] original, T[] sorted, int start, int end, Comparator<? super T> comparator,
+                                        boolean stable, String context) {
+        Map<T, Integer> indices = new IdentityHashMap<>();
+        for (int i = start; i < end; i++)
+            indices.put(original[i], i);
+        Item[] originalItems = new Item[original.length];
+        Item[] sortedItems = new Item[original.length];
+        for (int i = 0; i < original.length; i++) {
+            originalItems[i] = new Item(0, i);
+            Integer index = i < start || i >= end
+                    ? (sorted[i] == original[i] ? Integer.valueOf(i) : null)
+                    : indices.get(sorted[i]);
+            sortedItems[i] = index == null ? null : new Item(0, index);
+        }
+        if (!checkPermutation(originalItems, sortedItems, start, end, context))
+            return;
+        for (int i = start + 1; i < end; i++) {
+            int diff = comparator.compare(sorted[i-1], sorted[i]);
+            if (diff > 0) {
+                fail(context, "not sorted at " + i);
+                return;
+            }
+            if (stable && diff == 0 && sortedItems[i-1].index > sortedItems[i].index) {
+                fail(context, "not stable at " + i);
+                return;
+            }
+        }
+    }
+
+    private static void checkObjects(Sorts.SortingType type, int[] keys, int start, int end, String context) {
+        Item[] original = items(keys);
+        Item[] sorted = original.clone();
+        try {
+            Sorts.sort(sorted, start, end, BY_KEY, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, "objects: " + e);
+            return;
+        }
+        checkItems(original, sorted, start, end, claimsStability(type), context + " objects");
+    }
+
+    private static void checkKeyed(Sorts.SortingType type, int[] keys, int start, int end, String context) {
+        Item[] original = items(keys);
+        Item[] sorted = original.clone();
+        try {
+            Sorts.sort(sorted, start, end, Item::key, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, "by int key: " + e);
+            return;
+        }
+        checkItems(original, sorted, start, end, true, context + " by int key");
+    }
+
+    private static void checkInts(Sorts.SortingType type, int[] keys, int start, int end, String context) {
+        int[] expected = keys.clone();
+        Arrays.sort(expected, start, end);
+        int[] sorted = keys.clone();
+        try {
+            Sorts.sort(sorted, start, end, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, "ints: " + e);
+            return;
+        }
+        if (!Arrays.equals(sorted, expected))
+            fail(context, "ints: wrong result at " + Arrays.mismatch(sorted, expected));
+    }
+
+    /**
+     * Spreads the keys over all 64 bits, negative ones included.
+     */
+    private static void checkLongs(Sorts.SortingType type, int[] keys, int start, int end, String context) {
+        long[] values = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = (long) keys[i] << 32 ^ (keys[i] & 0xFF);
+        long[] expected = values.clone();
+        Arrays.sort(expected, start, end);
+        try {
+            Sorts.sort(values, start, end, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, "longs: " + e);
+            return;
+        }
+        if (!Arrays.equals(values, expected))
+            fail(context, "longs: wrong result at " + Arrays.mismatch(values, expected));
+    }
+
+    /**
+     * Mixes in NaNs, zeros of both signs and infinities, expecting the order of {@link Double#compare}.
+     */
+    private static void checkDoubles(Sorts.SortingType type, int[] keys, int start, int end, Random random, String context) {
+        final double[] specials = { Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+        double[] values = new double[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            values[i] = random.nextInt(16) == 0 ? specials[random.nextInt(specials.length)] : keys[i] / 3.0;
+        double[] expected = values.clone();
+        Arrays.sort(expected, start, end);
+        try {
+            Sorts.sort(values, start, end, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, "doubles: " + e);
+            return;
+        }
+        if (!Arrays.equals(values, expected))
+            fail(context, "doubles: wrong result at " + Arrays.mismatch(values, expected));
+    }
+
+    private static void checkLists(Sorts.SortingType type, int[] keys, int start, int end, String context) {
+        Item[] original = items(keys);
+        ArrayList<Item> source = new ArrayList<>(original);
+        checkList(type, new ArrayList<>(source), original, start, end, context + " ArrayList");
+        checkList(type, new ForwardList<>(source), original, start, end, context + " ForwardList");
+        checkList(type, new DoublyLinkedList<>(source), original, start, end, context + " DoublyLinkedList");
+        checkList(type, new ChunkedArrayList<>(source), original, start, end, context + " ChunkedArrayList");
+
+        OffHeapArrayList<Item> offHeap = new OffHeapArrayList<>(ITEM_CODEC);
+        try {
+            offHeap.addAll(source);
+            checkList(type, offHeap, original, start, end, context + " OffHeapArrayList");
+        } finally {
+            offHeap.release();
+        }
+
+        try {
+            Path path = Files.createTempFile("sortcheck", ".list");
+            Files.delete(path);
+            try (MappedArrayList<Item> mapped = new MappedArrayList<>(path, ITEM_CODEC)) {
+                mapped.addAll(source);
+                checkList(type, mapped, original, start, end, context + " MappedArrayList");
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            fail(context + " MappedArrayList", e.toString());
+        }
+    }
+
+    private static void checkList(Sorts.SortingType type, List<Item> list, Item[] original, int start, int end,
+                                  String context) {
+        try {
+            list.sort(start, end, BY_KEY, type);
+        } catch (RuntimeException | StackOverflowError e) {
+            fail(context, e.toString());
+            return;
+        }
+        checkItems(original, toItems(list), start, end, claimsStability(type), context);
+    }
+
+    static Item[] toItems(List<Item> list) {
+        Item[] items = new Item[list.size()];
+        int i = 0;
+        for (Item item : list)
+            items[i++] = item;
+        return items;
+    }
+
+
+    private static String string(int key) {
+        char[] chars = new char[Math.floorMod(key, 5)];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = STRING_CHARS[Math.floorMod(key >> 3 * i, STRING_CHARS.length)];
+        return new String(chars);
+    }
+
+    /**
+     * Spreads the keys over unsigned bytes, equal keys giving equal arrays.
+     */
+    private static byte[] bytes(int key) {
+        byte[] bytes = new byte[Math.floorMod(key, 6)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) (key >>> 8 * (i & 3) ^ i * 0x5A);
+        return bytes;
+    }
+
+    private static void checkRadixStrings(int[] keys, int start, int end, String context) {
+        String[] original = new String[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            original[i] = string(keys[i]);
+        String[] sorted = original.clone();
+        Sorts.radixSort(sorted, start, end);
+        checkSorted(original, sorted, start, end, Comparator.naturalOrder(), true, context + " radix strings");
+    }
+
+    private static void checkRadixBytes(int[] keys, int start, int end, String context) {
+        byte[][] original = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++)
+            original[i] = bytes(keys[i]);
+        byte[][] sorted = original.clone();
+        Sorts.radixSort(sorted, start, end);
+        checkSorted(original, sorted, start, end, Arrays::compareUnsigned, true, context + " radix bytes");
+    }
+
+    /**
+     * The long key puts the int key in the upper half, so both give the order of BY_KEY.
+     */
+    private static void checkRadixKeys(int[] keys, int start, int end, String context) {
+        Item[] original = items(keys);
+        Item[] byInt = original.clone();
+        Item[] byLong = original.clone();
+        Sorts.radixSortByIntKey(byInt, start, end, Item::key);
+        Sorts.radixSortByLongKey(byLong, start, end, item -> (long) item.key << 32 | item.key & 0xFF);
+        checkItems(original, byInt, start, end, true, context + " radix by int key");
+        checkItems(original, byLong, start, end, true, context + " radix by long key");
+    }
+
+    /**
+     * Cuts the items into runs of consecutive ones sorted stably, so a stable merge gives ties to the earlier run.
+     */
+    private static void checkMerges(int[] keys, Random random, String context) {
+        Item[] original = items(keys);
+        int k = 1 + random.nextInt(MAX_MERGE_WAYS);
+        int[] cuts = new int[k + 1];
+        for (int i = 1; i < k; i++)
+            cuts[i] = random.nextInt(original.length + 1);
+        cuts[k] = original.length;
+        Arrays.sort(cuts);
+
+        Item[][] runs = new Item[k][];
+        Item[][] padded = new Item[k][];
+        int[] starts = new int[k];
+        int[] ends = new int[k];
+        ArrayList<ArrayList<Item>> lists = new ArrayList<>();
+        ArrayList<Iterator<Item>> iterators = new ArrayList<>();
+        final Item outside = new Item(Integer.MIN_VALUE, -1);
+        for (int i = 0; i < k; i++) {
+            runs[i] = Arrays.copyOfRange(original, cuts[i], cuts[i+1]);
+            Arrays.sort(runs[i], BY_KEY);
+            padded[i] = new Item[runs[i].length + 2];
+            Arrays.fill(padded[i], outside);
+            System.arraycopy(runs[i], 0, padded[i], 1, runs[i].length);
+            starts[i] = 1;
+            ends[i] = runs[i].length + 1;
+            lists.add(new ArrayList<>(runs[i]));
+            iterators.add(Arrays.asList(runs[i]).iterator());
+        }
+        context += " " + k + " runs";
+
+        for (boolean gallop : new boolean[] { true, false }) {
+            Item[] merged = new Item[original.length];
+            KWayMerge.merge(runs, merged, 0, BY_KEY, gallop);
+            checkItems(original, merged, 0, merged.length, true, context + " merged arrays, gallop=" + gallop);
+            merged = new Item[original.length];
+            KWayMerge.merge(padded, starts, ends, merged, 0, BY_KEY, gallop);
+            checkItems(original, merged, 0, merged.length, true, context + " merged ranges, gallop=" + gallop);
+            checkItems(original, toItems(KWayMerge.merge(lists, BY_KEY, gallop)), 0, original.length, true,
+                    context + " merged lists, gallop=" + gallop);
+        }
+
+        Item[] merged = new Item[original.length];
+        int count = 0;
+        for (Iterator<Item> it = KWayMerge.lazyMerge(iterators, BY_KEY); it.hasNext(); count++) {
+            if (count == merged.length) {
+                fail(context, "lazy merge: more than " + count + " elements");
+                return;
+            }
+            merged[count] = it.next();
+        }
+        checkItems(original, merged, 0, merged.length, true, context + " lazy merge");
+    }
+
+    private static void checkSelection(int[] keys, int start, int end, Random random, String context) {
+        if (start == end)
+            return;
+        Item[] original = items(keys);
+        int[] sortedKeys = Arrays.copyOfRange(keys, start, end);
+        Arrays.sort(sortedKeys);
+
+        Item[] selected = original.clone();
+        int n = start + random.nextInt(end - start);
+        Sorts.nthElement(selected, start, end, n, BY_KEY);
+        String nthContext = context + " nthElement n=" + n;
+        if (checkPermutation(original, selected, start, end, nthContext)) {
+            if (selected[n].key != sortedKeys[n - start])
+                fail(nthContext, "key " + selected[n].key + " instead of " + sortedKeys[n - start]);
+            for (int i = start; i < end; i++)
+                if (i < n ? selected[i].key > selected[n].key : selected[i].key < selected[n].key) {
+                    fail(nthContext, "key " + selected[i].key + " on the wrong side at " + i);
+                    break;
+                }
+        }
+
+        Item[] partial = original.clone();
+        int k = random.nextInt(end - start + 1);
+        Sorts.partialSort(partial, start, end, k, BY_KEY);
+        String partialContext = context + " partialSort k=" + k;
+        if (checkPermutation(original, partial, start, end, partialContext) && k > 0)
+            for (int i = start; i < end; i++)
+                if (i < start + k ? partial[i].key != sortedKeys[i - start] : partial[i].key < sortedKeys[k - 1]) {
+                    fail(partialContext, "key " + partial[i].key + " at " + i);
+                    break;
+                }
+    }
+
+    private static void checkTopK(int[] keys, Random random, String context) {
+        Item[] original = items(keys);
+        int k = random.nextInt(original.length + 2);
+        TopK<Item> top = new TopK<>(k, BY_KEY);
+        for (Item item : original)
+            top.offer(item);
+        int[] sortedKeys = keys.clone();
+        Arrays.sort(sortedKeys);
+
+        context += " TopK k=" + k;
+        int expected = Math.min(k, original.length);
+        Object[] kept = top.toSortedArray();
+        if (top.size() != expected || kept.length != expected) {
+            fail(context, "kept " + kept.length + " instead of " + expected);
+            return;
+        }
+        boolean[] seen = new boolean[original.length];
+        for (int i = 0; i < expected; i++) {
+            Item item = (Item) kept[i];
+            if (seen[item.index] || original[item.index] != item || item.key != sortedKeys[i]) {
+                fail(context, "wrong element " + item + " at " + i);
+                return;
+            }
+            seen[item.index] = true;
+        }
+        if (expected > 0 && top.threshold().key != sortedKeys[expected - 1])
+            fail(context, "threshold " + top.threshold() + " instead of key " + sortedKeys[expected - 1]);
+    }
+
+
+    private static void checkGrowth(Sorts.SortingType type, int size, Random random) {
+        if (isQuadratic(type))
+            return;
+        for (int shape = 0; shape < SHAPES; shape++) {
+            SortMetrics small = SortMetrics.measure(items(generate(shape, size, random)), BY_KEY, type);
+            SortMetrics large = SortMetrics.measure(items(generate(shape, size * GROWTH_FACTOR, random)), BY_KEY, type);
+            String context = type + " " + shapeName(shape) + " sizes " + size + " and " + size * GROWTH_FACTOR;
+            checkGrowth(small.compares(), large.compares(), size, "compares", context);
+            if (SortMetrics.ENABLED)
+                checkGrowth(small.moves(), large.moves(), size, "moves", context);
+        }
+    }
+
+    private static void checkGrowth(long small, long large, int size, String what, String context) {
+        double perSmall = small / nLog2N(size);
+        double perLarge = large / nLog2N((long) size * GROWTH_FACTOR);
+        // linear work on sorted input grows slower than n log n, so small counts compare against 1 per element
+        if (perLarge > MAX_GROWTH * Math.max(perSmall, 1.0 / log2(size)))
+            fail(context, String.format("%s per n log2 n grew from %.3f to %.3f", what, perSmall, perLarge));
+    }
+
+    private static double log2(long n) {
+        return Math.log(Math.max(n, 2)) / Math.log(2);
+    }
+
+    private static double nLog2N(long n) {
+        return n * log2(n);
+    }
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import algo.SortMetrics;
+import algo.Sorts;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Prints the {@link SortMetrics} of one sort of an array of boxed ints per sorting type, distribution and size,
+ * to compare the work of the sorting types beside the time {@link SortBenchmark} measures.
+ * Run with {@code -Dalgo.sortMetrics=true} to get more than comparisons, time and allocation.
+ * <p>
+ * Options, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 65536 and 1M by default;</li>
+ *     <li>{@code types} - all sorting types but {@code DEFAULT} by default;</li>
+ *     <li>{@code distributions} - all distributions by default;</li>
+ *     <li>{@code maxQuadraticSize} - the greatest size for selection, bubble and insertion sort, 65536 by default;</li>
+ *     <li>{@code seed} - the seed of random distributions.</li>
+ * </ul>
+ * Example: {@code java -Dalgo.sortMetrics=true -cp out bench.SortMetricsReport types=TIMSORT,PDQSORT distributions=RANDOM}
+ */
+public final class SortMetricsReport {
+
+    private SortMetricsReport() {
+        new Error("Forbidden instance of class " + SortMetricsReport.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "65536,1048576"));
+        final Sorts.SortingType[] types = BenchmarkRunner.parseEnums(Sorts.SortingType.class, options.get("types"));
+        final Distribution[] distributions = BenchmarkRunner.parseEnums(Distribution.class, options.get("distributions"));
+        final int maxQuadraticSize = Integer.parseInt(options.getOrDefault("maxQuadraticSize", "65536"));
+        final long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        if (!SortMetrics.ENABLED)
+            System.out.println("Counting comparisons only, run with -Dalgo.sortMetrics=true for the other counters");
+
+        final Comparator<Integer> comparator = Comparator.naturalOrder();
+
+        for (Sorts.SortingType type : types)
+            for (Distribution distribution : distributions)
+                for (int size : sizes) {
+                    if (type == Sorts.SortingType.DEFAULT && options.get("types") == null)
+                        continue;
+                    if (isQuadratic(type) && size > maxQuadraticSize)
+                        continue;
+                    int[] values = distribution.generate(size, new Random(seed));
+                    Integer[] array = new Integer[size];
+                    for (int i = 0; i < size; i++)
+                        array[i] = values[i];
+                    System.out.println(distribution + " " + SortMetrics.measure(array, comparator, type));
+                }
+    }
+
+
+    private static boolean isQuadratic(Sorts.SortingType type) {
+        return type == Sorts.SortingType.SELECTION_SORT
+                || type == Sorts.SortingType.BUBBLE_SORT
+                || type == Sorts.SortingType.INSERTION_SORT;
+    }
+}
@@ -0,0 +1,152 @@
+package bench;
+
+import containers.ArrayList;
+import containers.IntStack;
+import containers.Stack;
+
+import java.util.Map;
+
+/**
+ * Benchmark of {@link IntStack} against {@link Stack} of boxed integers. An operation is one element pushed and popped,
+ * allocatedBytesPerOp shows the boxing.
+ * <ul>
+ *     <li>PUSH_POP - pushes size values, then pops them all;</li>
+ *     <li>DFS - depth-first traversal of the implicit binary tree of size nodes, popping a node and pushing its children;</li>
+ *     <li>BULK - pushes and pops batches of 64 values with pushAll and popN.</li>
+ * </ul>
+ * Options besides those of {@link BenchmarkRunner}, all lists are comma separated:
+ * <ul>
+ *     <li>{@code sizes} - 1M by default;</li>
+ *     <li>{@code stacks} - BOXED and INT, all by default;</li>
+ *     <li>{@code workloads} - PUSH_POP, DFS and BULK, all by default.</li>
+ * </ul>
+ */
+public final class StackBenchmark {
+
+    private StackBenchmark() {
+        new Error("Forbidden instance of class " + StackBenchmark.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    public enum Kind {
+        BOXED,
+        INT
+    }
+
+    public enum Workload {
+        PUSH_POP,
+        DFS,
+        BULK
+    }
+
+
+    private static final int BATCH = 64;
+
+
+    public static void main(String[] args) {
+
+        Map<String, String> options = BenchmarkRunner.parseOptions(args);
+
+        final int[] sizes = BenchmarkRunner.parseInts(options.getOrDefault("sizes", "1000000"));
+        final Kind[] kinds = BenchmarkRunner.parseEnums(Kind.class, options.get("stacks"));
+        final Workload[] workloads = BenchmarkRunner.parseEnums(Workload.class, options.get("workloads"));
+
+        ArrayList<BenchmarkCase> cases = new ArrayList<>();
+        for (Workload workload : workloads)
+            for (Kind kind : kinds)
+                for (int size : sizes)
+                    cases.add(createCase(workload, kind, size));
+
+        BenchmarkRunner.run(StackBenchmark.class, args, cases);
+    }
+
+
+    private static BenchmarkCase createCase(Workload workload, Kind kind, int size) {
+
+        String[] params = {
+                "workload", workload.toString(),
+                "stack", kind.toString(),
+                "size", Integer.toString(size)
+        };
+
+        return new BenchmarkCase("stack", params, () -> switch (kind) {
+            case BOXED -> {
+                final Stack<Integer> stack = new Stack<>();
+                final Integer[] batch = new Integer[BATCH];
+                yield switch (workload) {
+                    case PUSH_POP -> () -> {
+                        for (int i = 0; i < size; i++)
+                            stack.push(i);
+                        long sum = 0;
+                        while (!stack.empty())
+                            sum += stack.pop();
+                        BenchmarkRunner.consume(sum);
+                    };
+                    case DFS -> () -> {
+                        long sum = 0;
+                        stack.push(0);
+                        while (!stack.empty()) {
+                            int node = stack.pop();
+                            sum += node;
+                            if (2 * node + 2 < size)
+                                stack.push(2 * node + 2);
+                            if (2 * node + 1 < size)
+                                stack.push(2 * node + 1);
+                        }
+                        BenchmarkRunner.consume(sum);
+                    };
+                    case BULK -> () -> {
+                        long sum = 0;
+                        for (int i = 0; i + BATCH <= size; i += BATCH) {
+                            for (int j = 0; j < BATCH; j++)
+                                batch[j] = i + j;
+                            stack.pushAll(batch);
+                            stack.popN(batch, 0, BATCH);
+                            sum += batch[BATCH - 1];
+                        }
+                        BenchmarkRunner.consume(sum);
+                    };
+                };
+            }
+            case INT -> {
+                final IntStack stack = new IntStack();
+                final int[] batch = new int[BATCH];
+                yield switch (workload) {
+                    case PUSH_POP -> () -> {
+                        for (int i = 0; i < size; i++)
+                            stack.push(i);
+                        long sum = 0;
+                        while (!stack.empty())
+                            sum += stack.pop();
+                        BenchmarkRunner.consume(sum);
+                    };
+                    case DFS -> () -> {
+                        long sum = 0;
+                        stack.push(0);
+                        while (!stack.empty()) {
+                            int node = stack.pop();
+                            sum += node;
+                            if (2 * node + 2 < size)
+                                stack.push(2 * node + 2);
+                            if (2 * node + 1 < size)
+                                stack.push(2 * node + 1);
+                        }
+                        BenchmarkRunner.consume(sum);
+                    };
+                    case BULK -> () -> {
+                        long sum = 0;
+                        for (int i = 0; i + BATCH <= size; i += BATCH) {
+                            for (int j = 0; j < BATCH; j++)
+                                batch[j] = i + j;
+                            stack.pushAll(batch);
+                            stack.popN(batch);
+                            sum += batch[BATCH - 1];
+                        }
+                        BenchmarkRunner.consume(sum);
+                    };
+                };
+            }
+        }, size);
+    }
+}
@@ -3,6 +3,9 @@ package containers;
 import algo.Sorts;
 
 import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 public class ArrayList<T> implements List<T> {
 
@@ -14,6 +17,11 @@ public class ArrayList<T> implements List<T> {
     private Object[] arr;
     private int size = 0;
 
+    /**
+     * Told about every change if attached.
+     */
+    private HashIndex<T> hashIndex;
+
 
     private void checkIndex(int index) {
         if (index < 0 || index >= size)
@@ -58,9 +66,16 @@ public class ArrayList<T> implements List<T> {
         setData(objs);
     }
 
-    public ArrayList(ArrayList<T> other) {
-        arr = new Object[other.arr.length];
-        System.arraycopy(other.arr, 0, arr, 0, other.arr.length);
+    /**
+     * Copies the elements of other in one traversal.
+     */
+    public ArrayList(List<? extends T> other) {
+        if (other instanceof ArrayList<? extends T> list) {
+            arr = new Object[list.size];
+            System.arraycopy(list.arr, 0, arr, 0, list.size);
+        } else {
+            arr = other.toArray();
+        }
         size = arr.length;
     }
 
@@ -70,12 +85,18 @@ public class ArrayList<T> implements List<T> {
         ensureCapacity();
         arr[size] = t;
         size++;
+        if (hashIndex != null)
+            hashIndex.added(size - 1, t);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void set(int index, T t) {
         checkIndex(index);
+        T old = (T) arr[index];
         arr[index] = t;
+        if (hashIndex != null)
+            hashIndex.replaced(index, old, t);
     }
 
     @Override
@@ -86,14 +107,95 @@ public class ArrayList<T> implements List<T> {
         System.arraycopy(arr, index, arr, index + 1, size - index);
         arr[index] = t;
         size++;
+        if (hashIndex != null)
+            hashIndex.added(index, t);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void remove(int index) {
         checkIndex(index);
+        T old = (T) arr[index];
         System.arraycopy(arr, index + 1, arr, index, size - index - 1);
         arr[size()-1] = null;
         size--;
+        if (hashIndex != null)
+            hashIndex.removed(index, old);
+    }
+
+    @Override
+    public void insertAll(int index, T[] values) {
+        insertAll(index, values, values.length);
+    }
+
+    @Override
+    public void insertAll(int index, List<? extends T> other) {
+        if (other instanceof ArrayList<? extends T> list)
+            insertAll(index, list.arr, list.size);
+        else
+            insertAll(index, other.toArray(), other.size());
+    }
+
+    private void insertAll(int index, Object[] values, int count) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + count);
+        System.arraycopy(arr, index, arr, index + count, size - index);
+        // values may be arr itself, whose first index elements haven't moved
+        if (values == arr) {
+            System.arraycopy(arr, 0, arr, index, index);
+            System.arraycopy(arr, index + count, arr, 2 * index, count - index);
+        } else {
+            System.arraycopy(values, 0, arr, index, count);
+        }
+        size += count;
+        invalidateIndex();
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        System.arraycopy(arr, to, arr, from, size - to);
+        for (int i = size - (to - from); i < size; i++)
+            arr[i] = null;
+        size -= to - from;
+        invalidateIndex();
+    }
+
+    /**
+     * Tests all the elements before moving any, so a filter throwing leaves the list as it was.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        final long[] removed = new long[(size + 63) >>> 6];
+        boolean any = false;
+        for (int i = 0; i < size; i++) {
+            if (filter.test((T) arr[i])) {
+                removed[i >>> 6] |= 1L << i;
+                any = true;
+            }
+        }
+        if (!any)
+            return false;
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if ((removed[i >>> 6] & 1L << i) == 0)
+                arr[kept++] = arr[i];
+        for (int i = kept; i < size; i++)
+            arr[i] = null;
+        size = kept;
+        invalidateIndex();
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<T> operator) {
+        for (int i = 0; i < size; i++)
+            arr[i] = operator.apply((T) arr[i]);
+        invalidateIndex();
     }
 
     @Override
@@ -103,11 +205,37 @@ public class ArrayList<T> implements List<T> {
         return (T) arr[index];
     }
 
+    /**
+     * One bounds check instead of those of getLast and removeLast.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T popLast() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException();
+        T t = (T) arr[--size];
+        arr[size] = null;
+        if (hashIndex != null)
+            hashIndex.removed(size, t);
+        return t;
+    }
+
+    /**
+     * Copies [start, end) to dest from destStart with a single copy.
+     */
+    public void copyTo(int start, int end, Object[] dest, int destStart) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        System.arraycopy(arr, start, dest, destStart, end - start);
+    }
+
     @Override
     public void clear() {
         for (int i = 0; i < size; i++)
             arr[i] = null;
         size = 0;
+        if (hashIndex != null)
+            hashIndex.cleared();
     }
 
     @Override
@@ -122,8 +250,12 @@ public class ArrayList<T> implements List<T> {
 
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
-    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+    public boolean sortInPlace(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
         Sorts.sort(arr, start, end, (Comparator) comparator, sortingType);
+        invalidateIndex();
+        return true;
     }
 
 
@@ -139,6 +271,7 @@ public class ArrayList<T> implements List<T> {
         arr = new Object[objs.length];
         System.arraycopy(objs, 0, arr, 0, objs.length);
         size = arr.length;
+        invalidateIndex();
     }
 
 
@@ -149,14 +282,63 @@ public class ArrayList<T> implements List<T> {
 
     public void resize(int size) {
         if (size < size()) {
-            do removeLast(); while (size < size());
+            removeRange(size, size());
         } else {
             ensureCapacity(size);
             this.size = size;
+            invalidateIndex();
         }
     }
 
 
+    /**
+     * Attaches an eager {@link HashIndex}, see {@link #attachIndex(HashIndex.Mode)}.
+     */
+    public HashIndex<T> attachIndex() {
+        return attachIndex(HashIndex.Mode.EAGER);
+    }
+
+    /**
+     * Attaches a hash index answering {@link #contains} and {@link #indexOf} from then on,
+     * built at the first query; replaces the one attached before. See {@link HashIndex} for the costs.
+     * @return the index, which reports its memory
+     */
+    public HashIndex<T> attachIndex(HashIndex.Mode mode) {
+        hashIndex = new HashIndex<>(this, mode);
+        return hashIndex;
+    }
+
+    public void detachIndex() {
+        hashIndex = null;
+    }
+
+    private void invalidateIndex() {
+        if (hashIndex != null)
+            hashIndex.invalidate();
+    }
+
+
+    @Override
+    public boolean contains(T t) {
+        if (hashIndex != null)
+            return hashIndex.contains(t);
+        for (int i = 0; i < size; i++)
+            if (Objects.equals(arr[i], t))
+                return true;
+        return false;
+    }
+
+    @Override
+    public int indexOf(T t) {
+        if (hashIndex != null)
+            return hashIndex.indexOf(t);
+        for (int i = 0; i < size; i++)
+            if (Objects.equals(arr[i], t))
+                return i;
+        return -1;
+    }
+
+
     @Override
     public String toString() {
         if (empty())
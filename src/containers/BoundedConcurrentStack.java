@@ -0,0 +1,129 @@
+package containers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free stack of at most a fixed number of elements kept in an array, after the algorithm of Shafiei.
+ * <p>
+ * The top is an immutable record of its index, its element and a version, swapped with one CAS per operation.
+ * Writing the element to the array is left pending in the top and finished by whichever thread sees it next,
+ * helping the thread that swapped it in, so no thread ever waits for another.
+ * Array cells carry a version too, so a late helper can't overwrite a newer element.
+ * <p>
+ * Null elements aren't allowed, {@link #pop()} and {@link #top()} return null when the stack is empty.
+ */
+public class BoundedConcurrentStack<T> {
+
+
+    private static final VarHandle TOP;
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(BoundedConcurrentStack.class, "top", Top.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    private static final class Cell <T> {
+        final T data;
+        final long version;
+        Cell(T t, long v) { data = t; version = v; }
+    }
+
+    /**
+     * The element at index, to be written to the array with the version.
+     */
+    private static final class Top <T> {
+        final int index;
+        final T data;
+        final long version;
+        Top(int i, T t, long v) { index = i; data = t; version = v; }
+    }
+
+
+    /**
+     * Cell 0 is the bottom, it never holds an element.
+     */
+    private final AtomicReferenceArray<Cell<T>> cells;
+
+    @SuppressWarnings("unused") // through TOP
+    private volatile Top<T> top;
+
+
+    public BoundedConcurrentStack(int capacity) {
+        if (capacity <= 0 || capacity == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Capacity " + capacity);
+        cells = new AtomicReferenceArray<>(capacity + 1);
+        Cell<T> empty = new Cell<>(null, 0);
+        for (int i = 0; i <= capacity; i++)
+            cells.set(i, empty);
+        top = new Top<>(0, null, 0);
+    }
+
+
+    /**
+     * Writes the element of top to the array unless done already.
+     */
+    private void finish(Top<T> top) {
+        Cell<T> cell = cells.get(top.index);
+        if (cell.version == top.version - 1)
+            cells.compareAndSet(top.index, cell, new Cell<>(top.data, top.version));
+    }
+
+    /**
+     * @return false if the stack is full
+     */
+    public boolean push(T t) {
+        if (t == null)
+            throw new NullPointerException();
+        for (;;) {
+            Top<T> current = top;
+            finish(current);
+            if (current.index == capacity())
+                return false;
+            Cell<T> above = cells.get(current.index + 1);
+            if (TOP.compareAndSet(this, current, new Top<>(current.index + 1, t, above.version + 1)))
+                return true;
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * The new top is the element below, rewritten to its cell with a new version to keep every write versioned.
+     * @return the element removed from the top, null if the stack is empty
+     */
+    public T pop() {
+        for (;;) {
+            Top<T> current = top;
+            finish(current);
+            if (current.index == 0)
+                return null;
+            Cell<T> below = cells.get(current.index - 1);
+            if (TOP.compareAndSet(this, current, new Top<>(current.index - 1, below.data, below.version + 1)))
+                return current.data;
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the element at the top, null if the stack is empty
+     */
+    public T top() {
+        return top.data;
+    }
+
+    public int size() {
+        return top.index;
+    }
+
+    public boolean empty() {
+        return top.index == 0;
+    }
+
+    public int capacity() {
+        return cells.length() - 1;
+    }
+}
@@ -0,0 +1,468 @@
+package containers;
+
+import algo.KWayMerge;
+import algo.Sorts;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * List of chunks of at most {@value #CHUNK_SIZE} elements, for inserting and removing anywhere in large lists.
+ * <p>
+ * A Fenwick tree over the chunk sizes finds the chunk of an index in O(log n), and an insertion or removal
+ * only shifts the rest of its chunk, so both take O(log n + {@value #CHUNK_SIZE}) instead of the O(n) of {@link ArrayList}.
+ * A full chunk splits in two, an empty one goes away and a nearly empty one merges with a neighbour;
+ * these rebuild the tree in O(n / {@value #CHUNK_SIZE}), once in hundreds of operations.
+ * <p>
+ * A chunk of 1024 compressed references is 4 KB, which keeps a shift within L1 and a sequential traversal
+ * nearly as fast as over a single array. Sorting sorts each chunk on its own and k-way merges them.
+ */
+public class ChunkedArrayList<T> implements List<T> {
+
+
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * A chunk below this size merges with a neighbour if both fit in half a chunk.
+     */
+    private static final int MIN_CHUNK_SIZE = CHUNK_SIZE / 4;
+
+    private static final int DEFAULT_INITIAL_CHUNKS = 4;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private Object[][] chunks;
+    private int[] sizes;
+    private int chunkCount = 0;
+
+    /**
+     * Fenwick tree over sizes, tree[i] is the sum of sizes[i - (i &amp; -i), i).
+     */
+    private int[] tree;
+
+    private int size = 0;
+
+    /**
+     * Offset within its chunk of the index last found by {@link #find}.
+     */
+    private int foundOffset;
+
+
+    public ChunkedArrayList() {
+        setChunkCapacity(DEFAULT_INITIAL_CHUNKS);
+    }
+
+    public ChunkedArrayList(List<? extends T> other) {
+        setData(other.toArray());
+    }
+
+
+    private void setChunkCapacity(int chunkCapacity) {
+        chunks = chunks == null ? new Object[chunkCapacity][] : Arrays.copyOf(chunks, chunkCapacity);
+        sizes = sizes == null ? new int[chunkCapacity] : Arrays.copyOf(sizes, chunkCapacity);
+        tree = tree == null ? new int[chunkCapacity + 1] : Arrays.copyOf(tree, chunkCapacity + 1);
+    }
+
+    private void ensureChunkCapacity(int minChunks) {
+        if (chunks.length >= minChunks)
+            return;
+        setChunkCapacity(Math.max((int) (chunks.length * CAPACITY_MULTIPLIER), minChunks));
+    }
+
+    private void rebuildTree() {
+        Arrays.fill(tree, 0);
+        for (int i = 1; i <= chunkCount; i++) {
+            tree[i] += sizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= chunkCount)
+                tree[parent] += tree[i];
+        }
+    }
+
+    private void treeAdd(int chunk, int delta) {
+        for (int i = chunk + 1; i <= chunkCount; i += i & -i)
+            tree[i] += delta;
+    }
+
+    /**
+     * @return the number of elements in chunks [0, chunk)
+     */
+    private int prefix(int chunk) {
+        int sum = 0;
+        for (int i = chunk; i > 0; i -= i & -i)
+            sum += tree[i];
+        return sum;
+    }
+
+    /**
+     * @return the chunk of index, with the offset in it left in foundOffset
+     */
+    private int find(int index) {
+        int chunk = 0;
+        for (int step = Integer.highestOneBit(chunkCount); step > 0; step >>= 1) {
+            if (chunk + step <= chunkCount && tree[chunk + step] <= index) {
+                chunk += step;
+                index -= tree[chunk];
+            }
+        }
+        foundOffset = index;
+        return chunk;
+    }
+
+
+    /**
+     * Appends an empty chunk, updating the tree in O(log n).
+     */
+    private void appendChunk() {
+        ensureChunkCapacity(chunkCount + 1);
+        chunks[chunkCount] = new Object[CHUNK_SIZE];
+        sizes[chunkCount] = 0;
+        int i = chunkCount + 1;
+        tree[i] = prefix(chunkCount) - prefix(i - (i & -i));
+        chunkCount++;
+    }
+
+    /**
+     * Moves the upper half of a full chunk to a new chunk after it.
+     */
+    private void split(int c) {
+        ensureChunkCapacity(chunkCount + 1);
+        System.arraycopy(chunks, c + 1, chunks, c + 2, chunkCount - c - 1);
+        System.arraycopy(sizes, c + 1, sizes, c + 2, chunkCount - c - 1);
+        final int half = sizes[c] / 2;
+        Object[] upper = new Object[CHUNK_SIZE];
+        System.arraycopy(chunks[c], half, upper, 0, sizes[c] - half);
+        Arrays.fill(chunks[c], half, sizes[c], null);
+        chunks[c + 1] = upper;
+        sizes[c + 1] = sizes[c] - half;
+        sizes[c] = half;
+        chunkCount++;
+        rebuildTree();
+    }
+
+    private boolean fitTogether(int c1, int c2) {
+        return c1 >= 0 && c2 < chunkCount && sizes[c1] + sizes[c2] <= CHUNK_SIZE / 2;
+    }
+
+    /**
+     * Drops empty chunks and merges each small chunk into the one before it if they fit in half a chunk.
+     */
+    private void compact() {
+        int kept = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            if (sizes[c] == 0)
+                continue;
+            if (kept > 0 && (sizes[c] < MIN_CHUNK_SIZE || sizes[kept - 1] < MIN_CHUNK_SIZE)
+                    && sizes[kept - 1] + sizes[c] <= CHUNK_SIZE / 2) {
+                System.arraycopy(chunks[c], 0, chunks[kept - 1], sizes[kept - 1], sizes[c]);
+                sizes[kept - 1] += sizes[c];
+                continue;
+            }
+            chunks[kept] = chunks[c];
+            sizes[kept] = sizes[c];
+            ++kept;
+        }
+        Arrays.fill(chunks, kept, chunkCount, null);
+        chunkCount = kept;
+        rebuildTree();
+    }
+
+
+    @Override
+    public void add(T t) {
+        if (chunkCount == 0 || sizes[chunkCount - 1] == CHUNK_SIZE)
+            appendChunk();
+        final int last = chunkCount - 1;
+        chunks[last][sizes[last]++] = t;
+        treeAdd(last, 1);
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        int c = find(index);
+        chunks[c][foundOffset] = t;
+    }
+
+    @Override
+    public void insert(int index, T t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        if (index == size) {
+            add(t);
+            return;
+        }
+        int c = find(index);
+        int offset = foundOffset;
+        if (sizes[c] == CHUNK_SIZE) {
+            split(c);
+            if (offset >= sizes[c]) {
+                offset -= sizes[c];
+                ++c;
+            }
+        }
+        Object[] chunk = chunks[c];
+        System.arraycopy(chunk, offset, chunk, offset + 1, sizes[c] - offset);
+        chunk[offset] = t;
+        sizes[c]++;
+        treeAdd(c, 1);
+        size++;
+    }
+
+    @Override
+    public void remove(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        int c = find(index);
+        int offset = foundOffset;
+        Object[] chunk = chunks[c];
+        System.arraycopy(chunk, offset + 1, chunk, offset, sizes[c] - offset - 1);
+        chunk[--sizes[c]] = null;
+        size--;
+        if (sizes[c] == 0 || sizes[c] < MIN_CHUNK_SIZE && (fitTogether(c - 1, c) || fitTogether(c, c + 1)))
+            compact();
+        else
+            treeAdd(c, -1);
+    }
+
+    /**
+     * Shifts the rest of the first and the last chunk of the range and drops those in between.
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        if (from == to)
+            return;
+        int c = find(from);
+        int offset = foundOffset;
+        for (int remaining = to - from; remaining > 0; c++, offset = 0) {
+            int n = Math.min(remaining, sizes[c] - offset);
+            Object[] chunk = chunks[c];
+            System.arraycopy(chunk, offset + n, chunk, offset, sizes[c] - offset - n);
+            Arrays.fill(chunk, sizes[c] - n, sizes[c], null);
+            sizes[c] -= n;
+            remaining -= n;
+        }
+        size -= to - from;
+        compact();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        int c = find(index);
+        return (T) chunks[c][foundOffset];
+    }
+
+    @Override
+    public boolean contains(T t) {
+        for (int c = 0; c < chunkCount; c++)
+            for (int i = 0; i < sizes[c]; i++)
+                if (Objects.equals(chunks[c][i], t))
+                    return true;
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (int c = 0; c < chunkCount; c++)
+            for (int i = 0; i < sizes[c]; i++)
+                action.accept((T) chunks[c][i]);
+    }
+
+    @Override
+    public Cursor<T> cursor(int index) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        return new ChunkCursor(index);
+    }
+
+    /**
+     * Walks the chunks without the tree, only changes find their place again.
+     */
+    private final class ChunkCursor implements Cursor<T> {
+
+        private int index;
+
+        /**
+         * Where index lies, offset may be the end of the chunk until the next access.
+         */
+        private int chunk;
+        private int offset;
+
+        ChunkCursor(int index) {
+            this.index = index;
+            locate();
+        }
+
+        private void locate() {
+            if (index < size) {
+                chunk = find(index);
+                offset = foundOffset;
+            } else {
+                chunk = chunkCount;
+                offset = 0;
+            }
+        }
+
+        private void checkNext() {
+            if (index >= size)
+                throw new NoSuchElementException();
+            if (offset == sizes[chunk]) {
+                chunk++;
+                offset = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            checkNext();
+            index++;
+            return (T) chunks[chunk][offset++];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T peek() {
+            checkNext();
+            return (T) chunks[chunk][offset];
+        }
+
+        @Override
+        public void setNext(T t) {
+            checkNext();
+            chunks[chunk][offset] = t;
+        }
+
+        @Override
+        public void insertAfter(T t) {
+            insert(index, t);
+            locate();
+        }
+
+        @Override
+        public void removeNext() {
+            if (index >= size)
+                throw new NoSuchElementException();
+            ChunkedArrayList.this.remove(index);
+            locate();
+        }
+    }
+
+    @Override
+    public void clear() {
+        chunks = null;
+        sizes = null;
+        tree = null;
+        setChunkCapacity(DEFAULT_INITIAL_CHUNKS);
+        chunkCount = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int chunkCount() {
+        return chunkCount;
+    }
+
+
+    /**
+     * Sorts the part of every chunk within [start, end) on its own, then k-way merges the parts
+     * through a buffer of end - start elements and copies the result back. Stable if the sorting type is.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean sortInPlace(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        if (end - start <= 1)
+            return true;
+
+        final int first = find(start);
+        final int firstOffset = foundOffset;
+        final int last = find(end - 1);
+        final int k = last - first + 1;
+
+        Object[][] parts = new Object[k][];
+        int[] starts = new int[k];
+        int[] ends = new int[k];
+        for (int i = 0; i < k; i++) {
+            parts[i] = chunks[first + i];
+            starts[i] = i == 0 ? firstOffset : 0;
+            ends[i] = i == k - 1 ? foundOffset + 1 : sizes[first + i];
+            Sorts.sort(parts[i], starts[i], ends[i], (Comparator) comparator, sortingType);
+        }
+        if (k == 1)
+            return true;
+
+        Object[] merged = new Object[end - start];
+        KWayMerge.merge(parts, starts, ends, merged, 0, (Comparator) comparator, true);
+        for (int i = 0, m = 0; i < k; i++) {
+            System.arraycopy(merged, m, parts[i], starts[i], ends[i] - starts[i]);
+            m += ends[i] - starts[i];
+        }
+        return true;
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        for (int c = 0, i = 0; c < chunkCount; i += sizes[c], c++)
+            System.arraycopy(chunks[c], 0, array, i, sizes[c]);
+        return array;
+    }
+
+    /**
+     * Fills full chunks.
+     */
+    @Override
+    public final void setData(Object[] objs) {
+        chunks = null;
+        sizes = null;
+        tree = null;
+        chunkCount = (objs.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        setChunkCapacity(Math.max(chunkCount, DEFAULT_INITIAL_CHUNKS));
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new Object[CHUNK_SIZE];
+            sizes[c] = Math.min(CHUNK_SIZE, objs.length - c * CHUNK_SIZE);
+            System.arraycopy(objs, c * CHUNK_SIZE, chunks[c], 0, sizes[c]);
+        }
+        size = objs.length;
+        rebuildTree();
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int c = 0; c < chunkCount; c++) {
+            for (int i = 0; i < sizes[c]; i++) {
+                if (c > 0 || i > 0)
+                    sb.append(", ");
+                sb.append(chunks[c][i].toString());
+            }
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,303 @@
+package containers;
+
+import algo.Sorts;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * List of fixed-width records laid out by a {@link RecordCodec} in byte buffers outside of the heap,
+ * the common part of {@link OffHeapArrayList} and {@link MappedArrayList}.
+ * <p>
+ * A buffer can't exceed 2 GB, so the records are split into chunks of a power of two records, 1 GB at most.
+ * The capacity grows as the one of {@link ArrayList}; only the last chunk is ever resized, full chunks never change.
+ * Subclasses decide where chunks come from.
+ */
+abstract class ChunkedRecordList<T> implements List<T> {
+
+
+    static final double CAPACITY_MULTIPLIER = 1.73205080757;
+    static final int MAX_CHUNK_BYTES = 1 << 30;
+
+
+    final RecordCodec<T> codec;
+    final int recordSize;
+
+    /**
+     * A chunk holds 1 &lt;&lt; chunkShift records, the last one may hold less.
+     */
+    final int chunkShift;
+
+    ByteBuffer[] chunks = new ByteBuffer[0];
+    int capacity = 0;
+    int size = 0;
+
+    private final byte[] record1;
+    private final byte[] record2;
+
+
+    ChunkedRecordList(RecordCodec<T> codec) {
+        if (codec.recordSize() <= 0 || codec.recordSize() > MAX_CHUNK_BYTES)
+            throw new IllegalArgumentException("Record size " + codec.recordSize());
+        this.codec = codec;
+        this.recordSize = codec.recordSize();
+        this.chunkShift = 31 - Integer.numberOfLeadingZeros(MAX_CHUNK_BYTES / recordSize);
+        this.record1 = new byte[recordSize];
+        this.record2 = new byte[recordSize];
+    }
+
+
+    /**
+     * @return chunk c resized to bytes, with the contents of old if it isn't null, which must not be used any more
+     */
+    abstract ByteBuffer resizeChunk(int c, ByteBuffer old, int bytes);
+
+    /**
+     * Frees chunk c, which is no longer part of the list.
+     */
+    abstract void releaseChunk(int c, ByteBuffer chunk);
+
+
+    void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    ByteBuffer chunk(int index) {
+        return chunks[index >>> chunkShift];
+    }
+
+    int offset(int index) {
+        return (index & ((1 << chunkShift) - 1)) * recordSize;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (capacity >= minCapacity)
+            return;
+        long newCapacity = Math.max((long) (capacity * CAPACITY_MULTIPLIER), minCapacity);
+        setCapacity((int) Math.min(newCapacity, Integer.MAX_VALUE - 8));
+    }
+
+    void setCapacity(int newCapacity) {
+        if (newCapacity < size)
+            throw new IllegalArgumentException();
+
+        final int chunkCount = newCapacity == 0 ? 0 : ((newCapacity - 1) >>> chunkShift) + 1;
+        ByteBuffer[] newChunks = Arrays.copyOf(chunks, chunkCount);
+
+        for (int c = chunkCount; c < chunks.length; c++)
+            releaseChunk(c, chunks[c]);
+        for (int c = 0; c < chunkCount; c++) {
+            int bytes = Math.min(1 << chunkShift, newCapacity - (c << chunkShift)) * recordSize;
+            ByteBuffer old = c < chunks.length ? chunks[c] : null;
+            if (old == null || old.capacity() != bytes)
+                newChunks[c] = resizeChunk(c, old, bytes);
+        }
+
+        chunks = newChunks;
+        capacity = newCapacity;
+    }
+
+
+    void write(int index, T t) {
+        ByteBuffer chunk = chunk(index);
+        chunk.position(offset(index));
+        codec.encode(t, chunk);
+    }
+
+    void moveRecord(int from, int to) {
+        chunk(from).get(offset(from), record1);
+        chunk(to).put(offset(to), record1);
+    }
+
+    void swap(int i, int j) {
+        if (i == j)
+            return;
+        ByteBuffer chunkI = chunk(i);
+        ByteBuffer chunkJ = chunk(j);
+        chunkI.get(offset(i), record1);
+        chunkJ.get(offset(j), record2);
+        chunkI.put(offset(i), record2);
+        chunkJ.put(offset(j), record1);
+    }
+
+
+    @Override
+    public void add(T t) {
+        ensureCapacity(size + 1);
+        write(size, t);
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        checkIndex(index);
+        write(index, t);
+    }
+
+    @Override
+    public void insert(int index, T t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + 1);
+        for (int i = size; i > index; i--)
+            moveRecord(i - 1, i);
+        write(index, t);
+        size++;
+    }
+
+    @Override
+    public void remove(int index) {
+        checkIndex(index);
+        for (int i = index + 1; i < size; i++)
+            moveRecord(i, i - 1);
+        size--;
+    }
+
+    @Override
+    public void insertAll(int index, T[] values) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + values.length);
+        for (int i = size - 1; i >= index; i--)
+            moveRecord(i, i + values.length);
+        for (int i = 0; i < values.length; i++)
+            write(index + i, values[i]);
+        size += values.length;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        for (int i = to; i < size; i++)
+            moveRecord(i, i - (to - from));
+        size -= to - from;
+    }
+
+    /**
+     * Tests all the records before moving any, so a filter throwing leaves the list as it was.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        final long[] removed = new long[(size + 63) >>> 6];
+        boolean any = false;
+        for (int i = 0; i < size; i++) {
+            if (filter.test(get(i))) {
+                removed[i >>> 6] |= 1L << i;
+                any = true;
+            }
+        }
+        if (!any)
+            return false;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((removed[i >>> 6] & 1L << i) == 0) {
+                if (kept != i)
+                    moveRecord(i, kept);
+                ++kept;
+            }
+        }
+        size = kept;
+        return true;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        ByteBuffer chunk = chunk(index);
+        chunk.position(offset(index));
+        return codec.decode(chunk);
+    }
+
+    /**
+     * Keeps the memory.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+
+    /**
+     * Sorts by comparing the encoded records and swapping their bytes, without decoding anything.
+     * Not stable.
+     */
+    public void sort(RecordComparator comparator) {
+        sort(0, size, comparator);
+    }
+
+    public void sort(int start, int end, RecordComparator comparator) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Sorts.sort(start, end, (i, j) -> comparator.compare(chunk(i), offset(i), chunk(j), offset(j)), this::swap);
+    }
+
+    /**
+     * Unstable sorting types swap the records in place, decoding the two compared each time.
+     * Stable ones, {@code DEFAULT} too when the current default is, are left to the copying sort,
+     * which decodes the whole list to the heap.
+     */
+    @Override
+    public boolean sortInPlace(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (sortingType == Sorts.SortingType.DEFAULT)
+            sortingType = Sorts.SortingType.getCurrentDefault();
+        switch (sortingType) {
+            case QUICK_SORT, PDQSORT, HEAP_SORT -> { }
+            default -> { return false; }
+        }
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Sorts.sort(start, end, (i, j) -> comparator.compare(get(i), get(j)), this::swap);
+        return true;
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++)
+            array[i] = get(i);
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void setData(Object[] objs) {
+        size = 0;
+        ensureCapacity(objs.length);
+        for (Object obj : objs)
+            write(size++, (T) obj);
+    }
+
+
+    public void minimizeCapacity() {
+        setCapacity(size);
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(get(i).toString());
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,117 @@
+package containers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Append-only list for many writers: {@link #add} reserves an index with one atomic increment, which never fails
+ * and never retries, and writes the element to its own slot, so concurrent additions don't serialize on a lock.
+ * <p>
+ * Elements live in chunks of doubling sizes, the chunk of an index found by a count of leading zeros.
+ * A chunk is allocated by the first thread to need it and never moves, so growing copies nothing
+ * and a reader never sees an element in a stale array.
+ * <p>
+ * Null elements aren't allowed: a null slot below {@link #size()} is an addition under way,
+ * which {@link #get} waits for.
+ */
+public class ConcurrentAppendList<T> {
+
+
+    private static final int FIRST_CHUNK_SHIFT = 4;
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_SHIFT;
+
+    /**
+     * Chunk c holds FIRST_CHUNK_SIZE &lt;&lt; c elements, enough chunks for every int index.
+     */
+    private static final int CHUNK_COUNT = Integer.SIZE - FIRST_CHUNK_SHIFT;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+
+    private final Object[][] chunks = new Object[CHUNK_COUNT][];
+
+    private final AtomicInteger size = new AtomicInteger();
+
+
+    private static int chunkIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_SHIFT) + 1);
+    }
+
+    private static int offset(int index, int chunk) {
+        return index - (FIRST_CHUNK_SIZE << chunk) + FIRST_CHUNK_SIZE;
+    }
+
+    private Object[] chunk(int c) {
+        Object[] chunk = (Object[]) SLOTS.getAcquire(chunks, c);
+        if (chunk != null)
+            return chunk;
+        // the last chunk stops at Integer.MAX_VALUE
+        long length = Math.min((long) FIRST_CHUNK_SIZE << c, (1L << 31) - ((long) FIRST_CHUNK_SIZE << c) + FIRST_CHUNK_SIZE);
+        Object[] created = new Object[(int) length];
+        Object[] witness = (Object[]) SLOTS.compareAndExchange(chunks, c, null, created);
+        return witness == null ? created : witness;
+    }
+
+
+    /**
+     * @return the index of t
+     */
+    public int add(T t) {
+        if (t == null)
+            throw new NullPointerException();
+        final int index = size.getAndIncrement();
+        if (index < 0) {
+            size.getAndDecrement();
+            throw new IllegalStateException("List is full");
+        }
+        final int c = chunkIndex(index);
+        SLOTS.setRelease(chunk(c), offset(index, c), t);
+        return index;
+    }
+
+    /**
+     * Waits for the element if its addition is still under way.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException();
+        final int c = chunkIndex(index);
+        final Object[] chunk = chunk(c);
+        final int offset = offset(index, c);
+        Object t;
+        while ((t = SLOTS.getAcquire(chunk, offset)) == null)
+            Thread.onSpinWait();
+        return (T) t;
+    }
+
+    /**
+     * @return the indices reserved so far, some of them may still be under way
+     */
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    public boolean empty() {
+        return size() == 0;
+    }
+
+    /**
+     * Goes through the elements added before the call.
+     */
+    public void forEach(Consumer<? super T> action) {
+        final int size = size();
+        for (int i = 0; i < size; i++)
+            action.accept(get(i));
+    }
+
+    public Object[] toArray() {
+        final int size = size();
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++)
+            array[i] = get(i);
+        return array;
+    }
+}
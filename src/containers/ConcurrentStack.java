@@ -0,0 +1,153 @@
+package containers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free unbounded stack of Treiber: a chain of immutable nodes whose head is swapped with a CAS.
+ * <p>
+ * Under contention the CAS on the head fails for most threads, so a thread whose CAS failed backs off
+ * to an elimination array instead of retrying at once: a push leaves its node in a random slot for a while,
+ * and a pop finding a node there takes it. The two cancel out without touching the head,
+ * as if the push had happened right before the pop, and the more threads contend the more pairs meet.
+ * <p>
+ * Null elements aren't allowed, {@link #pop()} and {@link #top()} return null when the stack is empty.
+ */
+public class ConcurrentStack<T> {
+
+
+    private static final int DEFAULT_ELIMINATION_SLOTS = 16;
+
+    /**
+     * How long a push waits in its slot for a pop, in spins.
+     */
+    private static final int ELIMINATION_SPINS = 64;
+
+    private static final VarHandle HEAD;
+    static {
+        try {
+            HEAD = MethodHandles.lookup().findVarHandle(ConcurrentStack.class, "head", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    private static final class Node <T> {
+        final T data;
+        final Node<T> next;
+        Node(T t, Node<T> n) { data = t; next = n; }
+    }
+
+
+    @SuppressWarnings("unused") // through HEAD
+    private volatile Node<T> head;
+
+    /**
+     * Nodes offered by pushes that failed their CAS, null where no push waits.
+     */
+    private final AtomicReferenceArray<Node<T>> eliminationSlots;
+
+
+    public ConcurrentStack() {
+        this(DEFAULT_ELIMINATION_SLOTS);
+    }
+
+    /**
+     * @param eliminationSlots the size of the elimination array, 0 for a plain Treiber stack retrying at once
+     */
+    public ConcurrentStack(int eliminationSlots) {
+        if (eliminationSlots < 0)
+            throw new IllegalArgumentException("Negative elimination slots " + eliminationSlots);
+        this.eliminationSlots = new AtomicReferenceArray<>(eliminationSlots);
+    }
+
+
+    public void push(T t) {
+        if (t == null)
+            throw new NullPointerException();
+        for (;;) {
+            Node<T> top = head;
+            Node<T> node = new Node<>(t, top);
+            if (HEAD.compareAndSet(this, top, node))
+                return;
+            if (eliminationSlots.length() > 0 && eliminatePush(node))
+                return;
+        }
+    }
+
+    /**
+     * @return the element removed from the top, null if the stack is empty
+     */
+    public T pop() {
+        for (;;) {
+            Node<T> top = head;
+            if (top == null)
+                return null;
+            if (HEAD.compareAndSet(this, top, top.next))
+                return top.data;
+            if (eliminationSlots.length() > 0) {
+                T t = eliminatePop();
+                if (t != null)
+                    return t;
+            }
+        }
+    }
+
+    /**
+     * @return the element at the top, null if the stack is empty
+     */
+    public T top() {
+        Node<T> top = head;
+        return top == null ? null : top.data;
+    }
+
+    public boolean empty() {
+        return head == null;
+    }
+
+    /**
+     * Walks the stack, so it takes linear time and is only a snapshot under concurrent changes.
+     */
+    public int size() {
+        int size = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next)
+            ++size;
+        return size;
+    }
+
+    public void clear() {
+        head = null;
+    }
+
+
+    /**
+     * Offers node in a random slot and waits for a pop to take it.
+     * @return whether a pop took it, otherwise the push must retry on the head
+     */
+    private boolean eliminatePush(Node<T> node) {
+        final int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+        if (!eliminationSlots.compareAndSet(slot, null, node))
+            return false;
+        for (int i = 0; i < ELIMINATION_SPINS; i++) {
+            if (eliminationSlots.get(slot) != node)
+                return true;
+            Thread.onSpinWait();
+        }
+        // failing to withdraw means a pop took the node in the meantime
+        return !eliminationSlots.compareAndSet(slot, node, null);
+    }
+
+    /**
+     * @return the element of a push waiting in a random slot, null if there is none
+     */
+    private T eliminatePop() {
+        final int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+        Node<T> node = eliminationSlots.get(slot);
+        if (node != null && eliminationSlots.compareAndSet(slot, node, null))
+            return node.data;
+        return null;
+    }
+}
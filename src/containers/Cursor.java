@@ -0,0 +1,36 @@
+package containers;
+
+import java.util.Iterator;
+
+/**
+ * Position between two elements of a {@link List}, moving forward only.
+ * A cursor passes each element once and changes the list where it stands,
+ * so a traversal through it is linear whether the list is an array or a chain of nodes.
+ * <p>
+ * The list must not be changed but through the cursor while it is used.
+ */
+public interface Cursor<T> extends Iterator<T> {
+
+    /**
+     * @return the element after the cursor, which doesn't move
+     * @throws java.util.NoSuchElementException at the end of the list
+     */
+    T peek();
+
+    /**
+     * Replaces the element after the cursor, which doesn't move.
+     * @throws java.util.NoSuchElementException at the end of the list
+     */
+    void setNext(T t);
+
+    /**
+     * Inserts t after the cursor, which doesn't move, so t is the next element.
+     */
+    void insertAfter(T t);
+
+    /**
+     * Removes the element after the cursor, which doesn't move.
+     * @throws java.util.NoSuchElementException at the end of the list
+     */
+    void removeNext();
+}
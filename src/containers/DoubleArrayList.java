@@ -0,0 +1,212 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * {@link ArrayList} of unboxed {@code double}s: a plain {@code double[]} without an object per element,
+ * iterated and sorted without boxing or comparators.
+ */
+public class DoubleArrayList {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private double[] arr;
+    private int size = 0;
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity() {
+        ensureCapacity(size + 1);
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (capacity() >= minCapacity)
+            return;
+        setCapacity(Math.max((int) (capacity() * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    private void setCapacity(int newCapacity) {
+        if (newCapacity < size)
+            throw new IllegalArgumentException();
+        if (newCapacity == capacity())
+            return;
+        double[] newArr = new double[newCapacity];
+        System.arraycopy(arr, 0, newArr, 0, size);
+        arr = newArr;
+    }
+
+
+    public DoubleArrayList() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public DoubleArrayList(int initialCapacity) {
+        arr = new double[initialCapacity];
+    }
+
+    public DoubleArrayList(double[] values) {
+        setData(values);
+    }
+
+    public DoubleArrayList(DoubleArrayList other) {
+        arr = new double[other.size];
+        System.arraycopy(other.arr, 0, arr, 0, other.size);
+        size = other.size;
+    }
+
+
+    public void add(double value) {
+        ensureCapacity();
+        arr[size] = value;
+        size++;
+    }
+
+    public void addAll(double[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    /**
+     * Appends values[start, end) with a single copy.
+     */
+    public void addAll(double[] values, int start, int end) {
+        if (start < 0 || end > values.length || start > end)
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + end - start);
+        System.arraycopy(values, start, arr, size, end - start);
+        size += end - start;
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        arr[index] = value;
+    }
+
+    public void insert(int index, double value) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity();
+        System.arraycopy(arr, index, arr, index + 1, size - index);
+        arr[index] = value;
+        size++;
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        System.arraycopy(arr, index + 1, arr, index, size - index - 1);
+        size--;
+    }
+
+    public void removeLast() {
+        remove(size - 1);
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return arr[index];
+    }
+
+    public double getLast() {
+        return get(size - 1);
+    }
+
+    /**
+     * Compares like {@link Double#equals}: NaN is found, 0.0 and -0.0 are different.
+     */
+    public boolean contains(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < size; i++)
+            if (Double.doubleToLongBits(arr[i]) == bits)
+                return true;
+        return false;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        for (int i = 0; i < size; i++)
+            action.accept(arr[i]);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+
+    public void sort() {
+        sort(0, size, Sorts.SortingType.DEFAULT);
+    }
+
+    public void sort(Sorts.SortingType sortingType) {
+        sort(0, size, sortingType);
+    }
+
+    public void sort(int start, int end, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Sorts.sort(arr, start, end, sortingType);
+    }
+
+
+    public double[] toArray() {
+        return Arrays.copyOf(arr, size);
+    }
+
+    public final void setData(double[] values) {
+        arr = Arrays.copyOf(values, values.length);
+        size = arr.length;
+    }
+
+
+    public void minimizeCapacity() {
+        setCapacity(size);
+    }
+
+
+    /**
+     * Cuts the list to size elements or pads it with zeros.
+     */
+    public void resize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException();
+        if (size > this.size) {
+            ensureCapacity(size);
+            Arrays.fill(arr, this.size, size, 0.0);
+        }
+        this.size = size;
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(arr[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
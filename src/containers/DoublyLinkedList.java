@@ -0,0 +1,352 @@
+package containers;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Doubly linked list: adding, reading and removing at both ends take constant time,
+ * and access by index walks from the nearer end.
+ * <p>
+ * Removed nodes are kept in a pool and reused by the next additions, up to a number of nodes given at construction,
+ * so a list used as a queue or a deque allocates nothing once it has reached its working size.
+ */
+public class DoublyLinkedList<T> implements List<T> {
+
+
+    private static final int DEFAULT_MAX_POOLED_NODES = 1024;
+
+
+    private static final class Node <T> {
+        Node<T> prev;
+        Node<T> next;
+        T data;
+    }
+
+
+    private Node<T> head;
+    private Node<T> tail;
+
+    private int size = 0;
+
+    /**
+     * Free nodes linked through next.
+     */
+    private Node<T> pool;
+    private int pooledNodes = 0;
+    private final int maxPooledNodes;
+
+
+    public DoublyLinkedList() {
+        this(DEFAULT_MAX_POOLED_NODES);
+    }
+
+    /**
+     * @param maxPooledNodes the most removed nodes kept for reuse, 0 to keep none
+     */
+    public DoublyLinkedList(int maxPooledNodes) {
+        if (maxPooledNodes < 0)
+            throw new IllegalArgumentException("Negative pool size " + maxPooledNodes);
+        this.maxPooledNodes = maxPooledNodes;
+    }
+
+    public DoublyLinkedList(List<? extends T> other) {
+        this();
+        for (T t : other)
+            add(t);
+    }
+
+
+    private Node<T> newNode(T t) {
+        Node<T> node = pool;
+        if (node == null) {
+            node = new Node<>();
+        } else {
+            pool = node.next;
+            --pooledNodes;
+        }
+        node.data = t;
+        return node;
+    }
+
+    private void recycle(Node<T> node) {
+        node.prev = null;
+        node.data = null;
+        if (pooledNodes < maxPooledNodes) {
+            node.next = pool;
+            pool = node;
+            ++pooledNodes;
+        } else {
+            node.next = null;
+        }
+    }
+
+    /**
+     * Links a new node before next, or at the end if next is null.
+     */
+    private void linkBefore(Node<T> next, T t) {
+        Node<T> node = newNode(t);
+        Node<T> prev = next == null ? tail : next.prev;
+        node.prev = prev;
+        node.next = next;
+        if (prev == null)
+            head = node;
+        else
+            prev.next = node;
+        if (next == null)
+            tail = node;
+        else
+            next.prev = node;
+        size++;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev == null)
+            head = node.next;
+        else
+            node.prev.next = node.next;
+        if (node.next == null)
+            tail = node.prev;
+        else
+            node.next.prev = node.prev;
+        size--;
+        recycle(node);
+    }
+
+    private Node<T> findNode(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        Node<T> cur;
+        if (index < size / 2) {
+            cur = head;
+            while (index-- > 0)
+                cur = cur.next;
+        } else {
+            cur = tail;
+            for (int i = size - 1; i > index; i--)
+                cur = cur.prev;
+        }
+        return cur;
+    }
+
+
+    @Override
+    public void add(T t) {
+        linkBefore(null, t);
+    }
+
+    @Override
+    public void addFirst(T t) {
+        linkBefore(head, t);
+    }
+
+    @Override
+    public void set(int index, T t) {
+        findNode(index).data = t;
+    }
+
+    @Override
+    public void insert(int index, T t) {
+        if (index == size)
+            linkBefore(null, t);
+        else
+            linkBefore(findNode(index), t);
+    }
+
+    @Override
+    public void remove(int index) {
+        unlink(findNode(index));
+    }
+
+    @Override
+    public void removeFirst() {
+        if (head == null)
+            throw new IndexOutOfBoundsException();
+        unlink(head);
+    }
+
+    @Override
+    public void removeLast() {
+        if (tail == null)
+            throw new IndexOutOfBoundsException();
+        unlink(tail);
+    }
+
+    @Override
+    public T get(int index) {
+        return findNode(index).data;
+    }
+
+    @Override
+    public T getFirst() {
+        if (head == null)
+            throw new IndexOutOfBoundsException();
+        return head.data;
+    }
+
+    @Override
+    public T getLast() {
+        if (tail == null)
+            throw new IndexOutOfBoundsException();
+        return tail.data;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        for (Node<T> cur = head; cur != null; cur = cur.next)
+            if (Objects.equals(cur.data, t))
+                return true;
+        return false;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (Node<T> cur = head; cur != null; cur = cur.next)
+            action.accept(cur.data);
+    }
+
+    /**
+     * Walks to index from the nearer end once, the cursor then moves and changes the list in constant time.
+     */
+    @Override
+    public Cursor<T> cursor(int index) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        return new NodeCursor(index == size ? null : findNode(index));
+    }
+
+    private final class NodeCursor implements Cursor<T> {
+
+        /**
+         * The node after the cursor, null at the end.
+         */
+        private Node<T> next;
+
+        NodeCursor(Node<T> next) {
+            this.next = next;
+        }
+
+        private Node<T> nextNode() {
+            if (next == null)
+                throw new NoSuchElementException();
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            T t = nextNode().data;
+            next = next.next;
+            return t;
+        }
+
+        @Override
+        public T peek() {
+            return nextNode().data;
+        }
+
+        @Override
+        public void setNext(T t) {
+            nextNode().data = t;
+        }
+
+        @Override
+        public void insertAfter(T t) {
+            linkBefore(next, t);
+            next = next == null ? tail : next.prev;
+        }
+
+        @Override
+        public void removeNext() {
+            Node<T> node = nextNode();
+            next = node.next;
+            unlink(node);
+        }
+    }
+
+    /**
+     * Puts the nodes back to the pool as far as it takes them.
+     */
+    @Override
+    public void clear() {
+        for (Node<T> cur = head; cur != null && pooledNodes < maxPooledNodes;) {
+            Node<T> next = cur.next;
+            recycle(cur);
+            cur = next;
+        }
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        int i = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next)
+            array[i++] = cur.data;
+        return array;
+    }
+
+    /**
+     * Reuses the nodes in place, so the copying sort allocates no node.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void setData(Object[] objs) {
+        Node<T> cur = head;
+        int i = 0;
+        for (; i < objs.length && cur != null; i++, cur = cur.next)
+            cur.data = (T) objs[i];
+        if (i < objs.length) {
+            for (; i < objs.length; i++)
+                add((T) objs[i]);
+        } else if (cur != null) {
+            removeRange(i, size);
+        }
+    }
+
+    /**
+     * Walks to from once and unlinks the nodes up to to.
+     */
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        if (from == to)
+            return;
+        Node<T> cur = findNode(from);
+        for (int i = from; i < to; i++) {
+            Node<T> next = cur.next;
+            unlink(cur);
+            cur = next;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        Node<T> cur = head;
+        for (;;) {
+            sb.append(cur.data.toString());
+            cur = cur.next;
+            if (cur == null)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -1,8 +1,18 @@
 package containers;
 
+import algo.Sorts;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
+/**
+ * Singly linked list. Both ends are kept, so adding at either end and reading either end take constant time;
+ * removing the last element still walks the list, {@link DoublyLinkedList} doesn't.
+ */
 public class ForwardList<T> implements List<T> {
 
 
@@ -15,23 +25,47 @@ public class ForwardList<T> implements List<T> {
 
     private Node<T> head;
 
+    /**
+     * The last node, null when the list is empty.
+     */
+    private Node<T> tail;
+
     private int size = 0;
 
+    /**
+     * Told about every change if attached.
+     */
+    private HashIndex<T> hashIndex;
+
 
     @SafeVarargs
     public ForwardList(T... objs) {
         setData(objs);
     }
 
-    public ForwardList(ArrayList<T> arrayList) {
-        for (int i = arrayList.size() - 1; i >= 0; i--)
-            addFirst(arrayList.get(i));
+    /**
+     * Links the elements of other in one traversal.
+     */
+    public ForwardList(List<? extends T> other) {
+        Node<T> last = null;
+        for (T t : other) {
+            Node<T> node = new Node<>(null, t);
+            if (last == null)
+                head = node;
+            else
+                last.next = node;
+            last = node;
+        }
+        tail = last;
+        size = other.size();
     }
 
 
     private Node<T> findNode(int index) {
         if (index < 0 || index >= size)
             throw new IndexOutOfBoundsException();
+        if (index == size - 1)
+            return tail;
         Node<T> cur = head;
         while (index-- > 0)
             cur = cur.next;
@@ -41,31 +75,148 @@ public class ForwardList<T> implements List<T> {
 
     @Override
     public void set(int index, T t) {
-        findNode(index).data = t;
+        Node<T> node = findNode(index);
+        T old = node.data;
+        node.data = t;
+        if (hashIndex != null)
+            hashIndex.replaced(index, old, t);
+    }
+
+    @Override
+    public void add(T t) {
+        Node<T> node = new Node<>(null, t);
+        if (tail == null)
+            head = node;
+        else
+            tail.next = node;
+        tail = node;
+        size++;
+        if (hashIndex != null)
+            hashIndex.added(size - 1, t);
     }
 
     @Override
     public void insert(int index, T t) {
-        if (index == 0) {
-            head = new Node<>(head, t);
+        if (index == size) {
+            add(t);
         } else {
-            Node<T> prev = findNode(index - 1);
-            prev.next = new Node<>(prev.next, t);
+            if (index == 0) {
+                head = new Node<>(head, t);
+            } else {
+                Node<T> prev = findNode(index - 1);
+                prev.next = new Node<>(prev.next, t);
+            }
+            size++;
+            if (hashIndex != null)
+                hashIndex.added(index, t);
         }
-        size++;
     }
 
     @Override
     public void remove(int index) {
-        if (size == 0)
+        if (index < 0 || index >= size)
             throw new IndexOutOfBoundsException();
+        T old;
         if (index == 0) {
+            old = head.data;
             head = head.next;
+            if (head == null)
+                tail = null;
         } else {
             Node<T> prev = findNode(index - 1);
+            old = prev.next.data;
             prev.next = prev.next.next;
+            if (prev.next == null)
+                tail = prev;
         }
         size--;
+        if (hashIndex != null)
+            hashIndex.removed(index, old);
+    }
+
+    /**
+     * Finds the node before index once and links the new nodes after it.
+     */
+    @Override
+    public void insertAll(int index, T[] values) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        if (values.length == 0)
+            return;
+        Node<T> prev = index == 0 ? null : findNode(index - 1);
+        Node<T> rest = prev == null ? head : prev.next;
+        for (int i = values.length - 1; i >= 0; i--) {
+            rest = new Node<>(rest, values[i]);
+            if (rest.next == null)
+                tail = rest;
+        }
+        if (prev == null)
+            head = rest;
+        else
+            prev.next = rest;
+        size += values.length;
+        invalidateIndex();
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        if (from == to)
+            return;
+        Node<T> prev = from == 0 ? null : findNode(from - 1);
+        Node<T> rest = prev == null ? head : prev.next;
+        for (int i = from; i < to; i++)
+            rest = rest.next;
+        if (prev == null)
+            head = rest;
+        else
+            prev.next = rest;
+        if (rest == null)
+            tail = prev;
+        size -= to - from;
+        invalidateIndex();
+    }
+
+    /**
+     * Tests all the elements before unlinking any, so a filter throwing leaves the list as it was.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        final long[] removed = new long[(size + 63) >>> 6];
+        boolean any = false;
+        int i = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next, i++) {
+            if (filter.test(cur.data)) {
+                removed[i >>> 6] |= 1L << i;
+                any = true;
+            }
+        }
+        if (!any)
+            return false;
+        Node<T> prev = null;
+        i = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next, i++) {
+            if ((removed[i >>> 6] & 1L << i) != 0) {
+                if (prev == null)
+                    head = cur.next;
+                else
+                    prev.next = cur.next;
+                --size;
+            } else {
+                prev = cur;
+            }
+        }
+        tail = prev;
+        invalidateIndex();
+        return true;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        for (Node<T> cur = head; cur != null; cur = cur.next)
+            cur.data = operator.apply(cur.data);
+        invalidateIndex();
     }
 
     @Override
@@ -73,8 +224,17 @@ public class ForwardList<T> implements List<T> {
         return findNode(index).data;
     }
 
+    @Override
+    public T getLast() {
+        if (tail == null)
+            throw new IndexOutOfBoundsException();
+        return tail.data;
+    }
+
     @Override
     public boolean contains(T t) {
+        if (hashIndex != null)
+            return hashIndex.contains(t);
         for (Node<T> cur = head; cur != null; cur = cur.next)
             if (Objects.equals(cur.data, t))
                 return true;
@@ -82,15 +242,118 @@ public class ForwardList<T> implements List<T> {
     }
 
     @Override
-    public void forEach(Consumer<T> action) {
+    public int indexOf(T t) {
+        if (hashIndex != null)
+            return hashIndex.indexOf(t);
+        int i = 0;
+        for (Node<T> cur = head; cur != null; cur = cur.next, i++)
+            if (Objects.equals(cur.data, t))
+                return i;
+        return -1;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
         for (Node<T> cur = head; cur != null; cur = cur.next)
             action.accept(cur.data);
     }
 
+    /**
+     * Walks to the node before index once, the cursor then moves and changes the list in constant time.
+     */
+    @Override
+    public Cursor<T> cursor(int index) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        return new NodeCursor(index == 0 ? null : findNode(index - 1), index);
+    }
+
+    private final class NodeCursor implements Cursor<T> {
+
+        /**
+         * The node before the cursor, null at the head.
+         */
+        private Node<T> prev;
+
+        /**
+         * The position of the cursor, for the index.
+         */
+        private int position;
+
+        NodeCursor(Node<T> prev, int position) {
+            this.prev = prev;
+            this.position = position;
+        }
+
+        private Node<T> nextNode() {
+            Node<T> node = prev == null ? head : prev.next;
+            if (node == null)
+                throw new NoSuchElementException();
+            return node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (prev == null ? head : prev.next) != null;
+        }
+
+        @Override
+        public T next() {
+            prev = nextNode();
+            position++;
+            return prev.data;
+        }
+
+        @Override
+        public T peek() {
+            return nextNode().data;
+        }
+
+        @Override
+        public void setNext(T t) {
+            Node<T> node = nextNode();
+            T old = node.data;
+            node.data = t;
+            if (hashIndex != null)
+                hashIndex.replaced(position, old, t);
+        }
+
+        @Override
+        public void insertAfter(T t) {
+            Node<T> node;
+            if (prev == null)
+                head = node = new Node<>(head, t);
+            else
+                prev.next = node = new Node<>(prev.next, t);
+            if (node.next == null)
+                tail = node;
+            size++;
+            if (hashIndex != null)
+                hashIndex.added(position, t);
+        }
+
+        @Override
+        public void removeNext() {
+            Node<T> node = nextNode();
+            if (prev == null)
+                head = node.next;
+            else
+                prev.next = node.next;
+            if (node.next == null)
+                tail = prev;
+            size--;
+            if (hashIndex != null)
+                hashIndex.removed(position, node.data);
+        }
+    }
+
     @Override
     public void clear() {
         head = null;
+        tail = null;
         size = 0;
+        if (hashIndex != null)
+            hashIndex.cleared();
     }
 
     @Override
@@ -99,6 +362,134 @@ public class ForwardList<T> implements List<T> {
     }
 
 
+    /**
+     * Stable sorts take a bottom-up merge sort relinking the existing nodes: O(n log n) comparisons,
+     * no new nodes and no extra memory but a few dozen references. Other sorting types are left to the copying sort.
+     */
+    @Override
+    public boolean sortInPlace(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        switch (sortingType) {
+            case DEFAULT, MERGE_SORT, TIMSORT -> { }
+            default -> { return false; }
+        }
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        if (end - start <= 1)
+            return true;
+
+        Node<T> prev = start == 0 ? null : findNode(start - 1);
+        Node<T> first = prev == null ? head : prev.next;
+        Node<T> last = first;
+        for (int i = start + 1; i < end; i++)
+            last = last.next;
+        Node<T> rest = last.next;
+        last.next = null;
+
+        first = mergeSort(first, comparator);
+
+        if (prev == null)
+            head = first;
+        else
+            prev.next = first;
+        for (last = first; last.next != null; last = last.next)
+            ;
+        last.next = rest;
+        if (rest == null)
+            tail = last;
+        invalidateIndex();
+        return true;
+    }
+
+    /**
+     * Sorts a null-terminated chain of nodes. pending[i] holds a sorted chain of about 2^i runs or null,
+     * and every ascending run taken is carried through them as through the bits of a binary counter,
+     * so merges happen while the nodes are still in cache, and a sorted chain takes no merge at all.
+     * @return the first node of the sorted chain
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> mergeSort(Node<T> first, Comparator<? super T> comparator) {
+
+        Node<T>[] pending = (Node<T>[]) new Node<?>[Integer.SIZE];
+
+        while (first != null) {
+            Node<T> carry = first;
+            while (first.next != null && comparator.compare(first.next.data, first.data) >= 0)
+                first = first.next;
+            Node<T> runLast = first;
+            first = first.next;
+            runLast.next = null;
+            int i = 0;
+            // pending chains hold earlier nodes, so they go left for stability
+            for (; pending[i] != null; i++) {
+                carry = merge(pending[i], carry, comparator);
+                pending[i] = null;
+            }
+            pending[i] = carry;
+        }
+
+        Node<T> sorted = null;
+        for (Node<T> chain : pending)
+            if (chain != null)
+                sorted = sorted == null ? chain : merge(chain, sorted, comparator);
+        return sorted;
+    }
+
+    /**
+     * Merges two non-empty null-terminated chains, taking from the left one on ties.
+     */
+    private static <T> Node<T> merge(Node<T> left, Node<T> right, Comparator<? super T> comparator) {
+        Node<T> first;
+        if (comparator.compare(right.data, left.data) < 0) {
+            first = right;
+            right = right.next;
+        } else {
+            first = left;
+            left = left.next;
+        }
+        Node<T> tail = first;
+        while (left != null && right != null) {
+            if (comparator.compare(right.data, left.data) < 0) {
+                tail.next = right;
+                tail = right;
+                right = right.next;
+            } else {
+                tail.next = left;
+                tail = left;
+                left = left.next;
+            }
+        }
+        tail.next = left != null ? left : right;
+        return first;
+    }
+
+
+    /**
+     * Attaches an eager {@link HashIndex}, see {@link #attachIndex(HashIndex.Mode)}.
+     */
+    public HashIndex<T> attachIndex() {
+        return attachIndex(HashIndex.Mode.EAGER);
+    }
+
+    /**
+     * Attaches a hash index answering {@link #contains} and {@link #indexOf} from then on,
+     * built at the first query; replaces the one attached before. See {@link HashIndex} for the costs.
+     * @return the index, which reports its memory
+     */
+    public HashIndex<T> attachIndex(HashIndex.Mode mode) {
+        hashIndex = new HashIndex<>(this, mode);
+        return hashIndex;
+    }
+
+    public void detachIndex() {
+        hashIndex = null;
+    }
+
+    private void invalidateIndex() {
+        if (hashIndex != null)
+            hashIndex.invalidate();
+    }
+
+
     @Override
     public Object[] toArray() {
         Object[] array = new Object[size];
@@ -115,8 +506,9 @@ public class ForwardList<T> implements List<T> {
     @Override
     @SuppressWarnings("unchecked")
     public final void setData(Object[] objs) {
-        for (int i = objs.length - 1; i >= 0; i--)
-            addFirst((T) objs[i]);
+        clear();
+        for (Object obj : objs)
+            add((T) obj);
     }
 
 
@@ -0,0 +1,311 @@
+package containers;
+
+import java.util.Objects;
+
+/**
+ * Side index of a list from each distinct element to its count and its first position. {@code contains} and
+ * {@code count} take O(1) expected time, so does {@code indexOf} unless the first occurrence has been removed,
+ * see {@link #indexOf}. Lists that can carry one attach it with {@code attachIndex} and tell it about every change.
+ * <p>
+ * The index is an open-addressing hash table with linear probing: parallel arrays of keys, counts and first positions,
+ * kept at most half full, and deletions shift the following entries back instead of leaving tombstones.
+ * <ul>
+ *     <li>{@link Mode#EAGER} updates the index with every change. Adding at the end, setting and clearing take O(1);
+ *     inserting or removing before the end moves the first positions after it, a pass over the whole table
+ *     of 2 to 4 slots per distinct element, on top of the shift of the list itself. Removing the first occurrence
+ *     of an element forgets its first position, which the next {@code indexOf} of it finds again by an O(n) scan:
+ *     the next occurrence is unknown without keeping every position, which middle inserts would all move.</li>
+ *     <li>{@link Mode#LAZY} only marks the index stale on a change, and the next query rebuilds it in O(n),
+ *     for loading many elements before querying.</li>
+ * </ul>
+ * Bulk changes (insertAll, removeRange, removeIf, replaceAll, sorting) mark the index stale in both modes.
+ */
+public final class HashIndex<T> {
+
+
+    public enum Mode {
+        EAGER,
+        LAZY
+    }
+
+
+    /**
+     * Bytes of a reference, assuming compressed references as on heaps below 32 GB.
+     */
+    static final int REFERENCE_BYTES = 4;
+    static final int ARRAY_HEADER_BYTES = 16;
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Stands for null elements in keys, where null marks a free slot.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * First position to be found again by a scan.
+     */
+    private static final int UNKNOWN = -1;
+
+
+    private final List<T> list;
+    private final Mode mode;
+
+    private Object[] keys;
+    private int[] counts;
+    private int[] firsts;
+    private int distinct = 0;
+
+    private boolean stale = true;
+
+
+    HashIndex(List<T> list, Mode mode) {
+        this.list = list;
+        this.mode = mode;
+        allocate(MIN_CAPACITY);
+    }
+
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public boolean contains(T t) {
+        refresh();
+        return slot(t) >= 0;
+    }
+
+    /**
+     * @return the number of occurrences of t
+     */
+    public int count(T t) {
+        refresh();
+        int slot = slot(t);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * O(1) expected, but in EAGER mode O(n) once after the first occurrence of t has been removed or replaced:
+     * a scan finds the new first position, which is kept.
+     * @return the first index of t, -1 if the list doesn't hold it
+     */
+    public int indexOf(T t) {
+        refresh();
+        int slot = slot(t);
+        if (slot < 0)
+            return -1;
+        if (firsts[slot] == UNKNOWN)
+            firsts[slot] = scan(t);
+        return firsts[slot];
+    }
+
+    /**
+     * @return the bytes held by the index
+     */
+    public long memoryBytes() {
+        return (long) keys.length * (REFERENCE_BYTES + 2 * Integer.BYTES) + 3 * ARRAY_HEADER_BYTES;
+    }
+
+    /**
+     * @return the bytes held by the index per element of the list, as of its last rebuild if stale
+     */
+    public double bytesPerElement() {
+        return list.empty() ? 0 : (double) memoryBytes() / list.size();
+    }
+
+
+    /**
+     * t is now at index, the elements from index on moved one position up.
+     */
+    void added(int index, T t) {
+        if (mode == Mode.LAZY || stale) {
+            stale = true;
+            return;
+        }
+        if (index < list.size() - 1)
+            shiftFirsts(index, 1);
+        int slot = insertSlot(t);
+        counts[slot]++;
+        if (counts[slot] == 1 || firsts[slot] != UNKNOWN && index < firsts[slot])
+            firsts[slot] = index;
+    }
+
+    /**
+     * t was at index, the elements after it moved one position down.
+     */
+    void removed(int index, T t) {
+        if (mode == Mode.LAZY || stale) {
+            stale = true;
+            return;
+        }
+        int slot = slot(t);
+        if (--counts[slot] == 0) {
+            delete(slot);
+        } else if (firsts[slot] == index) {
+            firsts[slot] = UNKNOWN;
+        }
+        if (index < list.size())
+            shiftFirsts(index, -1);
+    }
+
+    /**
+     * old at index has been replaced by t.
+     */
+    void replaced(int index, T old, T t) {
+        if (mode == Mode.LAZY || stale) {
+            stale = true;
+            return;
+        }
+        if (Objects.equals(old, t))
+            return;
+        int slot = slot(old);
+        if (--counts[slot] == 0)
+            delete(slot);
+        else if (firsts[slot] == index)
+            firsts[slot] = UNKNOWN;
+        slot = insertSlot(t);
+        counts[slot]++;
+        if (counts[slot] == 1 || firsts[slot] != UNKNOWN && index < firsts[slot])
+            firsts[slot] = index;
+    }
+
+    void cleared() {
+        allocate(MIN_CAPACITY);
+        stale = false;
+    }
+
+    void invalidate() {
+        stale = true;
+    }
+
+
+    private void refresh() {
+        if (!stale)
+            return;
+        allocate(capacityFor(list.size()));
+        int index = 0;
+        for (T t : list) {
+            int slot = insertSlot(t);
+            if (counts[slot]++ == 0)
+                firsts[slot] = index;
+            ++index;
+        }
+        stale = false;
+    }
+
+    private int scan(T t) {
+        int index = 0;
+        for (T element : list) {
+            if (Objects.equals(element, t))
+                return index;
+            ++index;
+        }
+        throw new IllegalStateException("Index out of sync with its list");
+    }
+
+    /**
+     * Moves the first positions from index on by delta, O(capacity).
+     */
+    private void shiftFirsts(int index, int delta) {
+        for (int slot = 0; slot < keys.length; slot++)
+            if (keys[slot] != null && firsts[slot] >= index)
+                firsts[slot] += delta;
+    }
+
+
+    private static int capacityFor(int elements) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2L * elements)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        counts = new int[capacity];
+        firsts = new int[capacity];
+        distinct = 0;
+    }
+
+    private int home(Object key) {
+        // Fibonacci hashing spreads poor hash codes over the high bits
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(keys.length));
+    }
+
+    /**
+     * @return the slot of t, or -1
+     */
+    private int slot(T t) {
+        final Object key = t == null ? NULL_KEY : t;
+        final int mask = keys.length - 1;
+        for (int slot = home(key); keys[slot] != null; slot = (slot + 1) & mask)
+            if (keys[slot] == key || keys[slot].equals(key))
+                return slot;
+        return -1;
+    }
+
+    /**
+     * @return the slot of t, taken for it with a zero count if it was free
+     */
+    private int insertSlot(T t) {
+        if (2 * (distinct + 1) > keys.length)
+            grow();
+        final Object key = t == null ? NULL_KEY : t;
+        final int mask = keys.length - 1;
+        int slot = home(key);
+        for (; keys[slot] != null; slot = (slot + 1) & mask)
+            if (keys[slot] == key || keys[slot].equals(key))
+                return slot;
+        keys[slot] = key;
+        counts[slot] = 0;
+        firsts[slot] = UNKNOWN;
+        ++distinct;
+        return slot;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldFirsts = firsts;
+        allocate(keys.length * 2);
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = home(oldKeys[i]);
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            firsts[slot] = oldFirsts[i];
+            ++distinct;
+        }
+    }
+
+    /**
+     * Frees slot and moves back the entries of the probe run after it that may take it.
+     */
+    private void delete(int slot) {
+        final int mask = keys.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            // next may move to free unless its home lies cyclically in (free, next]
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                counts[free] = counts[next];
+                firsts[free] = firsts[next];
+                free = next;
+            }
+        }
+        keys[free] = null;
+        --distinct;
+    }
+
+
+    @Override
+    public String toString() {
+        return "HashIndex{mode=" + mode + ", distinct=" + distinct + ", capacity=" + keys.length
+                + ", stale=" + stale + ", bytesPerElement=" + String.format("%.1f", bytesPerElement()) + "}";
+    }
+}
@@ -0,0 +1,59 @@
+package containers;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor of any {@link List} through its indices, linear for lists with constant-time access by index.
+ */
+class IndexCursor<T> implements Cursor<T> {
+
+    private final List<T> list;
+    private int index;
+
+
+    IndexCursor(List<T> list, int index) {
+        if (index < 0 || index > list.size()) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        this.list = list;
+        this.index = index;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        return index < list.size();
+    }
+
+    @Override
+    public T next() {
+        T t = peek();
+        index++;
+        return t;
+    }
+
+    @Override
+    public T peek() {
+        if (index >= list.size())
+            throw new NoSuchElementException();
+        return list.get(index);
+    }
+
+    @Override
+    public void setNext(T t) {
+        if (index >= list.size())
+            throw new NoSuchElementException();
+        list.set(index, t);
+    }
+
+    @Override
+    public void insertAfter(T t) {
+        list.insert(index, t);
+    }
+
+    @Override
+    public void removeNext() {
+        if (index >= list.size())
+            throw new NoSuchElementException();
+        list.remove(index);
+    }
+}
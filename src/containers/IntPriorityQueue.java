@@ -0,0 +1,330 @@
+package containers;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link PriorityQueue} of int ids ordered by unboxed int keys, least key first, as schedulers and shortest-path
+ * searches use it: the caller names its items by ids from 0 up and changes their keys with {@link #decreaseKey}.
+ * <p>
+ * The d-ary heap keeps the keys next to the ids in parallel int arrays, so the sifts compare without loading
+ * any object, and the heap position of each id in a third one, grown to the greatest id offered.
+ */
+public class IntPriorityQueue {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+    private static final int ABSENT = -1;
+
+
+    private final int arity;
+
+    private int[] keys;
+    private int[] ids;
+    private int size = 0;
+
+    /**
+     * Heap position of each id, ABSENT for ids not in the queue.
+     */
+    private int[] positions;
+
+
+    public IntPriorityQueue() {
+        this(PriorityQueue.DEFAULT_ARITY);
+    }
+
+    public IntPriorityQueue(int arity) {
+        this(arity, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public IntPriorityQueue(int arity, int initialCapacity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("arity = " + arity);
+        this.arity = arity;
+        keys = new int[initialCapacity];
+        ids = new int[initialCapacity];
+        positions = new int[initialCapacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+
+    public void ensureCapacity(int minCapacity) {
+        if (keys.length >= minCapacity)
+            return;
+        int newCapacity = Math.max((int) (keys.length * CAPACITY_MULTIPLIER), minCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+
+    private void ensureId(int id) {
+        if (id < 0)
+            throw new IllegalArgumentException("id = " + id);
+        if (id < positions.length)
+            return;
+        int oldLength = positions.length;
+        positions = Arrays.copyOf(positions, Math.max((int) (oldLength * CAPACITY_MULTIPLIER), id + 1));
+        Arrays.fill(positions, oldLength, positions.length, ABSENT);
+    }
+
+
+    public void offer(int id, int key) {
+        ensureId(id);
+        if (positions[id] != ABSENT)
+            throw new IllegalArgumentException("Id " + id + " is in the queue already");
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        ids[size] = id;
+        positions[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Adds ids[i] with keys[i] for all i by heapifying the whole queue in O(size + n)
+     * if that's cheaper than n offers, taking O(n log size).
+     * Adds nothing if an id is negative, in the queue already or given twice.
+     */
+    public void addAll(int[] ids, int[] keys) {
+        if (ids.length != keys.length)
+            throw new IllegalArgumentException("Lengths differ: " + ids.length + " and " + keys.length);
+        checkNewIds(ids);
+        if (ids.length < size >> 2) {
+            for (int i = 0; i < ids.length; i++)
+                offer(ids[i], keys[i]);
+            return;
+        }
+        ensureCapacity(size + ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            this.keys[size] = keys[i];
+            this.ids[size] = id;
+            positions[id] = size++;
+        }
+        heapify();
+    }
+
+    /**
+     * Marks each id with the position it would take, beyond size, to find ids given twice, and clears the marks.
+     */
+    private void checkNewIds(int[] ids) {
+        int maxId = -1;
+        for (int id : ids) {
+            if (id < 0)
+                throw new IllegalArgumentException("id = " + id);
+            maxId = Math.max(maxId, id);
+        }
+        if (maxId >= 0)
+            ensureId(maxId);
+        int i = 0;
+        try {
+            for (; i < ids.length; i++) {
+                int position = positions[ids[i]];
+                if (position >= size)
+                    throw new IllegalArgumentException("Id " + ids[i] + " is given twice");
+                if (position != ABSENT)
+                    throw new IllegalArgumentException("Id " + ids[i] + " is in the queue already");
+                positions[ids[i]] = size + i;
+            }
+        } finally {
+            while (--i >= 0)
+                positions[ids[i]] = ABSENT;
+        }
+    }
+
+    /**
+     * @return the id with the least key
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return ids[0];
+    }
+
+    public int peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return keys[0];
+    }
+
+    /**
+     * Removes the id with the least key.
+     */
+    public int poll() {
+        int id = peek();
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Polls n ids to dest[destStart, destStart + n) in ascending order of keys.
+     */
+    public void pollN(int[] dest, int destStart, int n) {
+        if (n < 0 || n > size)
+            throw new IndexOutOfBoundsException();
+        for (int i = 0; i < n; i++) {
+            dest[destStart+i] = ids[0];
+            removeAt(0);
+        }
+    }
+
+    public void pollN(int[] dest) {
+        pollN(dest, 0, dest.length);
+    }
+
+
+    public boolean contains(int id) {
+        return id >= 0 && id < positions.length && positions[id] != ABSENT;
+    }
+
+    public int keyOf(int id) {
+        return keys[position(id)];
+    }
+
+    /**
+     * Sets the key of id to key, which must not be greater.
+     */
+    public void decreaseKey(int id, int key) {
+        int position = position(id);
+        if (key > keys[position])
+            throw new IllegalArgumentException("The new key " + key + " is greater than " + keys[position]);
+        keys[position] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Sets the key of id to key, moving it either way.
+     */
+    public void update(int id, int key) {
+        int position = position(id);
+        keys[position] = key;
+        siftUp(position);
+        siftDown(positions[id]);
+    }
+
+    public void remove(int id) {
+        removeAt(position(id));
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[ids[i]] = ABSENT;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+
+    private int position(int id) {
+        if (!contains(id))
+            throw new IllegalArgumentException("Id " + id + " is not in the queue");
+        return positions[id];
+    }
+
+    private void removeAt(int position) {
+        positions[ids[position]] = ABSENT;
+        if (position == --size)
+            return;
+        int moved = ids[size];
+        keys[position] = keys[size];
+        ids[position] = moved;
+        positions[moved] = position;
+        siftUp(position);
+        siftDown(positions[moved]);
+    }
+
+    private void heapify() {
+        if (size <= 1)
+            return;
+        for (int i = (size - 2) / arity; i >= 0; i--)
+            siftDown(i);
+    }
+
+    private void siftUp(int i) {
+        final int[] keys = this.keys;
+        final int[] ids = this.ids;
+        final int[] positions = this.positions;
+        final int arity = this.arity;
+        final int key = keys[i];
+        final int id = ids[i];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (keys[parent] <= key)
+                break;
+            keys[i] = keys[parent];
+            int moved = ids[parent];
+            ids[i] = moved;
+            positions[moved] = i;
+            i = parent;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
+    }
+
+    private void siftDown(int i) {
+        final int[] keys = this.keys;
+        final int[] ids = this.ids;
+        final int[] positions = this.positions;
+        final int arity = this.arity;
+        final int size = this.size;
+        final int key = keys[i];
+        final int id = ids[i];
+        int first;
+        while ((first = arity * i + 1) < size) {
+            int least = first;
+            int leastKey = keys[first];
+            // see PriorityQueue.siftDown
+            if (arity == 2) {
+                if (first + 1 < size && keys[first+1] < leastKey)
+                    leastKey = keys[least = first + 1];
+            } else {
+                int last = Math.min(first + arity, size);
+                for (int child = first + 1; child < last; child++) {
+                    if (keys[child] < leastKey) {
+                        least = child;
+                        leastKey = keys[child];
+                    }
+                }
+            }
+            if (leastKey >= key)
+                break;
+            keys[i] = leastKey;
+            int moved = ids[least];
+            ids[i] = moved;
+            positions[moved] = i;
+            i = least;
+        }
+        keys[i] = key;
+        ids[i] = id;
+        positions[id] = i;
+    }
+
+
+    /**
+     * Lists the ids with their keys in heap order.
+     */
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(ids[i]).append('=').append(keys[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -3,10 +3,13 @@ package containers;
 import algo.Sorts;
 
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
-public interface List<T> {
+public interface List<T> extends Iterable<T> {
 
 
     default void add(T t) {
@@ -30,6 +33,74 @@ public interface List<T> {
 
     void remove(int index);
 
+
+    default void addAll(T[] values) {
+        insertAll(size(), values);
+    }
+
+    default void addAll(List<? extends T> other) {
+        insertAll(size(), other);
+    }
+
+    /**
+     * Inserts values so that the first of them gets the index, lists override this to shift their elements once.
+     */
+    default void insertAll(int index, T[] values) {
+        Cursor<T> cursor = cursor(index);
+        for (T value : values) {
+            cursor.insertAfter(value);
+            cursor.next();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    default void insertAll(int index, List<? extends T> other) {
+        insertAll(index, (T[]) other.toArray());
+    }
+
+    /**
+     * Removes [from, to), lists override this to shift their elements once.
+     */
+    default void removeRange(int from, int to) {
+        if (from < 0 || to > size() || from > to)
+            throw new IndexOutOfBoundsException();
+        Cursor<T> cursor = cursor(from);
+        for (int i = from; i < to; i++)
+            cursor.removeNext();
+    }
+
+    /**
+     * Tests all the elements before removing any, so a filter throwing leaves the list as it was.
+     * @return whether any element has been removed
+     */
+    default boolean removeIf(Predicate<? super T> filter) {
+        final long[] removed = new long[(size() + 63) >>> 6];
+        boolean any = false;
+        int i = 0;
+        for (T element : this) {
+            if (filter.test(element)) {
+                removed[i >>> 6] |= 1L << i;
+                any = true;
+            }
+            ++i;
+        }
+        if (!any)
+            return false;
+        i = 0;
+        for (Cursor<T> cursor = cursor(); cursor.hasNext(); i++) {
+            if ((removed[i >>> 6] & 1L << i) != 0)
+                cursor.removeNext();
+            else
+                cursor.next();
+        }
+        return true;
+    }
+
+    default void replaceAll(UnaryOperator<T> operator) {
+        for (Cursor<T> cursor = cursor(); cursor.hasNext(); cursor.next())
+            cursor.setNext(operator.apply(cursor.peek()));
+    }
+
     default void removeFirst() {
         remove(0);
     }
@@ -64,16 +135,50 @@ public interface List<T> {
 
 
     default boolean contains(T t) {
-        for (int i = 0; i < size(); i++)
-            if (Objects.equals(get(i), t))
+        for (T element : this)
+            if (Objects.equals(element, t))
                 return true;
         return false;
     }
 
 
-    default void forEach(Consumer<T> action) {
-        for (int i = 0; i < size(); i++)
-            action.accept(get(i));
+    /**
+     * @return the first index of t, -1 if the list doesn't hold it
+     */
+    default int indexOf(T t) {
+        int index = 0;
+        for (T element : this) {
+            if (Objects.equals(element, t))
+                return index;
+            ++index;
+        }
+        return -1;
+    }
+
+
+    /**
+     * @return a cursor before the first element
+     */
+    default Cursor<T> cursor() {
+        return cursor(0);
+    }
+
+    /**
+     * @return a cursor before the element at index, or at the end if index is size()
+     */
+    default Cursor<T> cursor(int index) {
+        return new IndexCursor<>(this, index);
+    }
+
+    @Override
+    default Iterator<T> iterator() {
+        return cursor();
+    }
+
+    @Override
+    default void forEach(Consumer<? super T> action) {
+        for (T element : this)
+            action.accept(element);
     }
 
 
@@ -99,15 +204,35 @@ public interface List<T> {
         sort(0, size(), comparator, sortingType);
     }
 
+    /**
+     * Sorts [start, end) in place if the list can, otherwise copies the elements through {@link #toArray()},
+     * sorts the copy and puts it back with {@link #setData}.
+     */
     @SuppressWarnings({"unchecked", "rawtypes"})
     default void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (sortInPlace(start, end, comparator, sortingType))
+            return;
         Object[] array = toArray();
         Sorts.sort(array, start, end, (Comparator) comparator, sortingType);
         setData(array);
     }
 
+    /**
+     * Hook for lists able to sort without copying their elements out, called by every sort method.
+     * @return whether [start, end) has been sorted, false if the list leaves this sorting type to the copying sort
+     */
+    default boolean sortInPlace(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        return false;
+    }
 
-    Object[] toArray();
+
+    default Object[] toArray() {
+        Object[] array = new Object[size()];
+        int i = 0;
+        for (T element : this)
+            array[i++] = element;
+        return array;
+    }
 
     void setData(Object[] objs);
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package containers;
+
+import java.util.Arrays;
+
+/**
+ * {@link Stack} of unboxed {@code long}s in a plain {@code long[]}, allocation-free once it has grown to its working depth.
+ * <p>
+ * {@link #pop()} and {@link #top()} have no check of their own: the bounds check of the array access
+ * throws an {@link IndexOutOfBoundsException} on an empty stack before anything changes.
+ */
+public class LongStack {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private long[] arr;
+    private int size = 0;
+
+
+    public LongStack() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public LongStack(int initialCapacity) {
+        arr = new long[initialCapacity];
+    }
+
+
+    public void ensureCapacity(int minCapacity) {
+        if (arr.length >= minCapacity)
+            return;
+        setCapacity(Math.max((int) (arr.length * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    private void setCapacity(int newCapacity) {
+        arr = Arrays.copyOf(arr, newCapacity);
+    }
+
+    /**
+     * Shrinks the capacity to the size.
+     */
+    public void trimToSize() {
+        if (arr.length != size)
+            setCapacity(size);
+    }
+
+
+    public void push(long value) {
+        if (size == arr.length)
+            ensureCapacity(size + 1);
+        arr[size++] = value;
+    }
+
+    public void pushAll(long[] values) {
+        pushAll(values, 0, values.length);
+    }
+
+    /**
+     * Pushes values[start, end) with a single copy, values[end - 1] ends on the top.
+     */
+    public void pushAll(long[] values, int start, int end) {
+        if (start < 0 || end > values.length || start > end)
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + end - start);
+        System.arraycopy(values, start, arr, size, end - start);
+        size += end - start;
+    }
+
+    public long pop() {
+        long value = arr[size - 1];
+        size--;
+        return value;
+    }
+
+    public void popN(long[] dest) {
+        popN(dest, 0, dest.length);
+    }
+
+    /**
+     * Pops n values with a single copy to dest[destStart, destStart + n) in the order they were pushed,
+     * so the former top ends last and {@link #pushAll} gives them back as they were.
+     */
+    public void popN(long[] dest, int destStart, int n) {
+        if (n < 0 || n > size)
+            throw new IndexOutOfBoundsException();
+        System.arraycopy(arr, size - n, dest, destStart, n);
+        size -= n;
+    }
+
+    public long top() {
+        return arr[size - 1];
+    }
+
+    /**
+     * @return the value depth below the top, the top itself for 0
+     */
+    public long peek(int depth) {
+        if (depth < 0 || depth >= size)
+            throw new IndexOutOfBoundsException();
+        return arr[size - 1 - depth];
+    }
+
+    /**
+     * Keeps the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+
+    /**
+     * @return the values from the bottom to the top
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(arr, size);
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(arr[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,170 @@
+package containers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link ArrayList} of fixed-width records persisted in a memory-mapped file, laid out by a {@link RecordCodec}.
+ * Opening an existing file maps it and reads nothing else than its header, so it takes the same time whatever the size.
+ * <p>
+ * The file starts with a page of header: a magic number, the record size, the size and the capacity of the list,
+ * then the records follow in chunks mapped one by one as in {@link ChunkedRecordList}.
+ * Growing the list extends the file and maps the new part, no record is ever copied.
+ * <p>
+ * Records are written to the mapping at once, but the size in the header changes only on {@link #flush()} or {@link #force()},
+ * so reopening after a crash gives the list as of the last of them, never a size covering records not written.
+ * {@link #flush()} is enough for a crash of the process, the operating system keeps the written pages;
+ * {@link #force()} writes the records to the disk before the size, for a crash of the machine.
+ * Changes of records below the flushed size aren't atomic.
+ */
+public class MappedArrayList<T> extends ChunkedRecordList<T> implements Closeable {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    static final int HEADER_BYTES = 4096;
+
+    private static final int MAGIC = 0x4d41524c;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int RECORD_SIZE_OFFSET = 4;
+    private static final int SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+
+    public MappedArrayList(Path path, RecordCodec<T> codec) throws IOException {
+        this(path, codec, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Opens the list persisted in path, or creates an empty one.
+     * @param initialCapacity the capacity of a new list
+     * @throws IOException if the file isn't such a list, has another record size, or can't be mapped
+     */
+    public MappedArrayList(Path path, RecordCodec<T> codec, int initialCapacity) throws IOException {
+        super(codec);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final boolean created = channel.size() == 0;
+            if (!created && channel.size() < HEADER_BYTES)
+                throw new IOException(path + " is too short for a list header");
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+            if (created) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(RECORD_SIZE_OFFSET, recordSize);
+                header.putLong(SIZE_OFFSET, 0);
+                setCapacity(initialCapacity);
+                force();
+            } else {
+                if (header.getInt(MAGIC_OFFSET) != MAGIC)
+                    throw new IOException(path + " is not a list");
+                if (header.getInt(RECORD_SIZE_OFFSET) != recordSize)
+                    throw new IOException(path + " holds records of " + header.getInt(RECORD_SIZE_OFFSET)
+                            + " bytes, not " + recordSize);
+                long storedCapacity = (channel.size() - HEADER_BYTES) / recordSize;
+                if (storedCapacity > Integer.MAX_VALUE - 8)
+                    throw new IOException(path + " holds " + storedCapacity + " records, more than a list can");
+                long storedSize = header.getLong(SIZE_OFFSET);
+                if (storedSize < 0 || storedSize > storedCapacity)
+                    throw new IOException(path + " has size " + storedSize + " beyond its capacity " + storedCapacity);
+                setCapacity((int) storedCapacity);
+                size = (int) storedSize;
+            }
+        } catch (IOException | RuntimeException e) {
+            // nothing is written to a file rejected or not set up
+            release();
+            throw e;
+        }
+    }
+
+
+    @Override
+    ByteBuffer resizeChunk(int c, ByteBuffer old, int bytes) {
+        DirectMemory.free(old);
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + ((long) c << chunkShift) * recordSize, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    void releaseChunk(int c, ByteBuffer chunk) {
+        DirectMemory.free(chunk);
+    }
+
+    /**
+     * Mapping past the end of the file extends it, a shrunk list truncates it once the mappings are gone.
+     * A published size beyond the new capacity is cut down and written first, or the file couldn't be reopened
+     * after a crash.
+     */
+    @Override
+    void setCapacity(int newCapacity) {
+        super.setCapacity(newCapacity);
+        header.putLong(CAPACITY_OFFSET, newCapacity);
+        try {
+            if (header.getLong(SIZE_OFFSET) > newCapacity) {
+                header.putLong(SIZE_OFFSET, newCapacity);
+                header.force();
+            }
+            channel.truncate(HEADER_BYTES + (long) newCapacity * recordSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /**
+     * Publishes the size in the header, which survives a crash of the process.
+     */
+    public void flush() {
+        header.putLong(SIZE_OFFSET, size);
+    }
+
+    /**
+     * Writes the records to the disk, then publishes the size and writes the header,
+     * which survives a crash of the machine.
+     */
+    public void force() {
+        for (ByteBuffer chunk : chunks)
+            ((MappedByteBuffer) chunk).force();
+        flush();
+        header.force();
+    }
+
+    /**
+     * Forces the list to the disk and unmaps the file. The list must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel.isOpen())
+                force();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Unmaps the file and closes it without writing anything.
+     */
+    private void release() throws IOException {
+        for (ByteBuffer chunk : chunks)
+            DirectMemory.free(chunk);
+        chunks = new ByteBuffer[0];
+        capacity = 0;
+        size = 0;
+        DirectMemory.free(header);
+        channel.close();
+    }
+}
@@ -0,0 +1,58 @@
+package containers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ArrayList} of fixed-width records kept outside of the heap in direct buffers, laid out by a {@link RecordCodec},
+ * so that tens of GB of records add nothing to GC pauses. Records are encoded on the way in and decoded on the way out,
+ * see {@link ChunkedRecordList} for the layout.
+ * <p>
+ * The memory is freed at once by {@link #release()}, or by the garbage collector once the list is unreachable.
+ */
+public class OffHeapArrayList<T> extends ChunkedRecordList<T> {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+
+
+    public OffHeapArrayList(RecordCodec<T> codec) {
+        this(codec, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OffHeapArrayList(RecordCodec<T> codec, int initialCapacity) {
+        super(codec);
+        setCapacity(initialCapacity);
+    }
+
+
+    @Override
+    ByteBuffer resizeChunk(int c, ByteBuffer old, int bytes) {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(bytes);
+        if (old != null) {
+            chunk.put(0, old, 0, Math.min(old.capacity(), bytes));
+            DirectMemory.free(old);
+        }
+        return chunk;
+    }
+
+    @Override
+    void releaseChunk(int c, ByteBuffer chunk) {
+        DirectMemory.free(chunk);
+    }
+
+
+    /**
+     * @return the bytes of memory held outside of the heap
+     */
+    public long memoryBytes() {
+        return (long) capacity * recordSize;
+    }
+
+    /**
+     * Frees the memory at once and empties the list, which may be filled again.
+     */
+    public void release() {
+        size = 0;
+        setCapacity(0);
+    }
+}
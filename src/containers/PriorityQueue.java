@@ -0,0 +1,327 @@
+package containers;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-priority queue on an array-backed d-ary heap: the children of the node i are d * i + 1, ..., d * i + d.
+ * A wider heap is shallower, so offer and decreaseKey do fewer moves, and the d children compared by poll
+ * are next to each other in memory; d = 4 by default.
+ * <p>
+ * Every offered element gets a handle, an int valid until the element leaves the queue, for {@link #decreaseKey}
+ * and {@link #remove}. The heap position of each handle is kept in an int array updated by the sifts, which move
+ * a hole instead of swapping. Handles of polled elements are reused.
+ */
+public class PriorityQueue<T> {
+
+
+    public static final int DEFAULT_ARITY = 4;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+    private static final int ABSENT = -1;
+
+
+    private final Comparator<? super T> comparator;
+    private final int arity;
+
+    private Object[] heap;
+    private int size = 0;
+
+    /**
+     * Handle of the element at each heap position.
+     */
+    private int[] handles;
+
+    /**
+     * Heap position of each handle, ABSENT for free ones.
+     */
+    private int[] positions;
+    private int handleCount = 0;
+    private final IntStack freeHandles = new IntStack();
+
+
+    public PriorityQueue(Comparator<? super T> comparator) {
+        this(comparator, DEFAULT_ARITY);
+    }
+
+    public PriorityQueue(Comparator<? super T> comparator, int arity) {
+        this(comparator, arity, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public PriorityQueue(Comparator<? super T> comparator, int arity, int initialCapacity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("arity = " + arity);
+        this.comparator = comparator;
+        this.arity = arity;
+        heap = new Object[initialCapacity];
+        handles = new int[initialCapacity];
+        positions = new int[initialCapacity];
+    }
+
+    /**
+     * Heapifies a copy of values in O(n), their handles are 0, ..., values.length - 1.
+     */
+    public PriorityQueue(Comparator<? super T> comparator, int arity, T[] values) {
+        this(comparator, arity, Math.max(values.length, 1));
+        addAll(values);
+    }
+
+
+    public void ensureCapacity(int minCapacity) {
+        if (heap.length >= minCapacity)
+            return;
+        int newCapacity = Math.max((int) (heap.length * CAPACITY_MULTIPLIER), minCapacity);
+        heap = Arrays.copyOf(heap, newCapacity);
+        handles = Arrays.copyOf(handles, newCapacity);
+        positions = Arrays.copyOf(positions, newCapacity);
+    }
+
+
+    /**
+     * @return the handle of t
+     */
+    public int offer(T t) {
+        ensureCapacity(size + 1);
+        int handle = newHandle();
+        heap[size] = t;
+        handles[size] = handle;
+        positions[handle] = size;
+        siftUp(size++);
+        return handle;
+    }
+
+    /**
+     * Adds values by heapifying the whole queue in O(size + n) if that's cheaper than n offers, taking O(n log size).
+     */
+    public void addAll(T[] values) {
+        ensureCapacity(size + values.length);
+        if (values.length < size >> 2) {
+            for (T value : values)
+                offer(value);
+            return;
+        }
+        for (T value : values) {
+            int handle = newHandle();
+            heap[size] = value;
+            handles[size] = handle;
+            positions[handle] = size;
+            ++size;
+        }
+        heapify();
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return (T) heap[0];
+    }
+
+    /**
+     * Removes the least element.
+     */
+    public T poll() {
+        T t = peek();
+        removeAt(0);
+        return t;
+    }
+
+    /**
+     * Polls n elements to dest[destStart, destStart + n) in ascending order.
+     */
+    @SuppressWarnings("unchecked")
+    public void pollN(T[] dest, int destStart, int n) {
+        if (n < 0 || n > size)
+            throw new IndexOutOfBoundsException();
+        for (int i = 0; i < n; i++) {
+            dest[destStart+i] = (T) heap[0];
+            removeAt(0);
+        }
+    }
+
+    public void pollN(T[] dest) {
+        pollN(dest, 0, dest.length);
+    }
+
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < handleCount && positions[handle] != ABSENT;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int handle) {
+        return (T) heap[position(handle)];
+    }
+
+    /**
+     * Replaces the element of handle with t, which must not be greater.
+     */
+    @SuppressWarnings("unchecked")
+    public void decreaseKey(int handle, T t) {
+        int position = position(handle);
+        if (comparator.compare(t, (T) heap[position]) > 0)
+            throw new IllegalArgumentException("The new element is greater than the old one");
+        heap[position] = t;
+        siftUp(position);
+    }
+
+    /**
+     * Replaces the element of handle with t, moving it either way.
+     */
+    public void update(int handle, T t) {
+        int position = position(handle);
+        heap[position] = t;
+        siftUp(position);
+        siftDown(positions[handle]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T remove(int handle) {
+        int position = position(handle);
+        T t = (T) heap[position];
+        removeAt(position);
+        return t;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            heap[i] = null;
+        size = 0;
+        handleCount = 0;
+        freeHandles.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int arity() {
+        return arity;
+    }
+
+
+    private int newHandle() {
+        return freeHandles.empty() ? handleCount++ : freeHandles.pop();
+    }
+
+    private int position(int handle) {
+        if (!contains(handle))
+            throw new IllegalArgumentException("No element with handle " + handle);
+        return positions[handle];
+    }
+
+    private void removeAt(int position) {
+        int handle = handles[position];
+        positions[handle] = ABSENT;
+        freeHandles.push(handle);
+        if (position == --size) {
+            heap[size] = null;
+            return;
+        }
+        int moved = handles[size];
+        heap[position] = heap[size];
+        handles[position] = moved;
+        positions[moved] = position;
+        heap[size] = null;
+        siftUp(position);
+        siftDown(positions[moved]);
+    }
+
+    private void heapify() {
+        if (size <= 1)
+            return;
+        for (int i = (size - 2) / arity; i >= 0; i--)
+            siftDown(i);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftUp(int i) {
+        final Object[] heap = this.heap;
+        final int[] handles = this.handles;
+        final int[] positions = this.positions;
+        final Comparator<? super T> comparator = this.comparator;
+        final int arity = this.arity;
+        final T t = (T) heap[i];
+        final int handle = handles[i];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            Object p = heap[parent];
+            if (comparator.compare((T) p, t) <= 0)
+                break;
+            heap[i] = p;
+            int h = handles[parent];
+            handles[i] = h;
+            positions[h] = i;
+            i = parent;
+        }
+        heap[i] = t;
+        handles[i] = handle;
+        positions[handle] = i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void siftDown(int i) {
+        final Object[] heap = this.heap;
+        final int[] handles = this.handles;
+        final int[] positions = this.positions;
+        final Comparator<? super T> comparator = this.comparator;
+        final int arity = this.arity;
+        final int size = this.size;
+        final T t = (T) heap[i];
+        final int handle = handles[i];
+        int first;
+        while ((first = arity * i + 1) < size) {
+            int least = first;
+            T leastElement = (T) heap[first];
+            // a loop of a single iteration makes binary heaps poll twice as slow
+            if (arity == 2) {
+                if (first + 1 < size && comparator.compare((T) heap[first+1], leastElement) < 0)
+                    leastElement = (T) heap[least = first + 1];
+            } else {
+                int last = Math.min(first + arity, size);
+                for (int child = first + 1; child < last; child++) {
+                    T element = (T) heap[child];
+                    if (comparator.compare(element, leastElement) < 0) {
+                        least = child;
+                        leastElement = element;
+                    }
+                }
+            }
+            if (comparator.compare(leastElement, t) >= 0)
+                break;
+            heap[i] = leastElement;
+            int h = handles[least];
+            handles[i] = h;
+            positions[h] = i;
+            i = least;
+        }
+        heap[i] = t;
+        handles[i] = handle;
+        positions[handle] = i;
+    }
+
+
+    /**
+     * Lists the elements in heap order.
+     */
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(heap[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,74 @@
+package containers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary layout of a record, for storing records outside of the heap.
+ * <p>
+ * {@link #encode} writes exactly {@link #recordSize()} bytes at the buffer's position and
+ * {@link #decode} reads them back; callers reposition the buffer after each record themselves,
+ * so a codec may use either relative or absolute access.
+ */
+public interface RecordCodec<T> {
+
+    RecordCodec<Integer> INT = new RecordCodec<>() {
+        @Override
+        public int recordSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer record, ByteBuffer buffer) {
+            buffer.putInt(record);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    RecordCodec<Long> LONG = new RecordCodec<>() {
+        @Override
+        public int recordSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long record, ByteBuffer buffer) {
+            buffer.putLong(record);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    RecordCodec<Double> DOUBLE = new RecordCodec<>() {
+        @Override
+        public int recordSize() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void encode(Double record, ByteBuffer buffer) {
+            buffer.putDouble(record);
+        }
+
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+
+    int recordSize();
+
+    void encode(T record, ByteBuffer buffer);
+
+    /**
+     * @return the decoded record, never null
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,11 @@
+package containers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares two records encoded by a {@link RecordCodec} where they lie, without decoding them.
+ */
+@FunctionalInterface
+public interface RecordComparator {
+    int compare(ByteBuffer buffer1, int offset1, ByteBuffer buffer2, int offset2);
+}
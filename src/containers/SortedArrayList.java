@@ -0,0 +1,316 @@
+package containers;
+
+import algo.SortWorkspace;
+import algo.Sorts;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Array kept in comparator order, for lookups by binary search instead of sorting and then scanning.
+ * <p>
+ * Added elements wait in a buffer until the next read, which sorts the buffer with {@link Sorts#timsort}
+ * and merges it into the array with {@link Sorts#merge}: a batch of k elements costs O(k log k) and a merge,
+ * which moves only the elements after the first new one, instead of sorting all the elements again.
+ * Reads and removals take O(log n) to find their position. Equal elements keep no particular order.
+ */
+public class SortedArrayList<T> implements Iterable<T> {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private final Comparator<? super T> comparator;
+
+    private T[] arr;
+    private int size = 0;
+
+    /**
+     * Added elements not merged into arr yet, in the order of addition.
+     */
+    private T[] pending;
+    private int pendingCount = 0;
+
+    private final SortWorkspace workspace = new SortWorkspace();
+
+
+    public SortedArrayList(Comparator<? super T> comparator) {
+        this(comparator, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SortedArrayList(Comparator<? super T> comparator, int initialCapacity) {
+        this.comparator = comparator;
+        arr = (T[]) new Object[initialCapacity];
+        pending = (T[]) new Object[DEFAULT_INITIAL_CAPACITY];
+    }
+
+    /**
+     * Sorts a copy of the elements of other.
+     */
+    @SuppressWarnings("unchecked")
+    public SortedArrayList(Comparator<? super T> comparator, List<? extends T> other) {
+        this.comparator = comparator;
+        arr = (T[]) other.toArray();
+        size = arr.length;
+        pending = (T[]) new Object[DEFAULT_INITIAL_CAPACITY];
+        Sorts.timsort(arr, 0, size, comparator, workspace);
+    }
+
+
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+
+    /**
+     * Buffers t until the next read.
+     */
+    public void add(T t) {
+        ensurePendingCapacity(pendingCount + 1);
+        pending[pendingCount++] = t;
+    }
+
+    public void addAll(T[] values) {
+        ensurePendingCapacity(pendingCount + values.length);
+        System.arraycopy(values, 0, pending, pendingCount, values.length);
+        pendingCount += values.length;
+    }
+
+    public void addAll(List<? extends T> other) {
+        ensurePendingCapacity(pendingCount + other.size());
+        for (T t : other)
+            pending[pendingCount++] = t;
+    }
+
+    /**
+     * Sorts the buffered elements and merges them in; every read does this first.
+     */
+    public void flush() {
+        if (pendingCount == 0)
+            return;
+        Sorts.timsort(pending, 0, pendingCount, comparator, workspace);
+        ensureCapacity(size + pendingCount);
+        System.arraycopy(pending, 0, arr, size, pendingCount);
+        for (int i = 0; i < pendingCount; i++)
+            pending[i] = null;
+        Sorts.merge(arr, 0, size, size + pendingCount, comparator, workspace);
+        size += pendingCount;
+        pendingCount = 0;
+    }
+
+
+    /**
+     * Removes one element equal to t.
+     * @return whether there was one
+     */
+    public boolean remove(T t) {
+        int index = binarySearch(t);
+        if (index < 0)
+            return false;
+        removeAt(index);
+        return true;
+    }
+
+    public void removeAt(int index) {
+        flush();
+        checkIndex(index);
+        System.arraycopy(arr, index + 1, arr, index, size - index - 1);
+        arr[--size] = null;
+    }
+
+    /**
+     * Removes the elements not less than from and less than to.
+     * @return the number of removed elements
+     */
+    public int removeRange(T from, T to) {
+        int start = lowerBound(from);
+        int end = Math.max(start, lowerBound(to));
+        System.arraycopy(arr, end, arr, start, size - end);
+        for (int i = size - (end - start); i < size; i++)
+            arr[i] = null;
+        size -= end - start;
+        return end - start;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            arr[i] = null;
+        for (int i = 0; i < pendingCount; i++)
+            pending[i] = null;
+        size = 0;
+        pendingCount = 0;
+    }
+
+
+    public T get(int index) {
+        flush();
+        checkIndex(index);
+        return arr[index];
+    }
+
+    public T getFirst() {
+        return get(0);
+    }
+
+    public T getLast() {
+        return get(size() - 1);
+    }
+
+    /**
+     * Counts the buffered elements too.
+     */
+    public int size() {
+        return size + pendingCount;
+    }
+
+    public boolean empty() {
+        return size() == 0;
+    }
+
+
+    /**
+     * @return the first index of t, or -(insertion point) - 1 if there is no element equal to it
+     */
+    public int binarySearch(T t) {
+        flush();
+        return Sorts.binarySearch(arr, 0, size, t, comparator);
+    }
+
+    /**
+     * @return the index of the first element not less than t, size if there is none
+     */
+    public int lowerBound(T t) {
+        flush();
+        return Sorts.lowerBound(arr, 0, size, t, comparator);
+    }
+
+    /**
+     * @return the index of the first element greater than t, size if there is none
+     */
+    public int upperBound(T t) {
+        flush();
+        return Sorts.upperBound(arr, 0, size, t, comparator);
+    }
+
+    public boolean contains(T t) {
+        return binarySearch(t) >= 0;
+    }
+
+    /**
+     * @return the number of elements equal to t
+     */
+    public int count(T t) {
+        return upperBound(t) - lowerBound(t);
+    }
+
+    /**
+     * @return the number of elements not less than from and less than to
+     */
+    public int countRange(T from, T to) {
+        return Math.max(0, lowerBound(to) - lowerBound(from));
+    }
+
+    /**
+     * @return the elements not less than from and less than to, in order
+     */
+    public ArrayList<T> range(T from, T to) {
+        int start = lowerBound(from);
+        int end = Math.max(start, lowerBound(to));
+        ArrayList<T> values = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            values.add(arr[i]);
+        return values;
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        flush();
+        return new Iterator<>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (index >= size)
+                    throw new NoSuchElementException();
+                return arr[index++];
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        flush();
+        for (int i = 0; i < size; i++)
+            action.accept(arr[i]);
+    }
+
+    public Object[] toArray() {
+        flush();
+        Object[] array = new Object[size];
+        System.arraycopy(arr, 0, array, 0, size);
+        return array;
+    }
+
+
+    public void minimizeCapacity() {
+        flush();
+        setCapacity(size);
+        pending = copyOf(pending, DEFAULT_INITIAL_CAPACITY);
+    }
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (arr.length >= minCapacity)
+            return;
+        setCapacity(Math.max((int) (arr.length * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    private void setCapacity(int newCapacity) {
+        arr = copyOf(arr, newCapacity);
+    }
+
+    private void ensurePendingCapacity(int minCapacity) {
+        if (pending.length >= minCapacity)
+            return;
+        pending = copyOf(pending, Math.max((int) (pending.length * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] copyOf(T[] array, int newLength) {
+        T[] newArray = (T[]) new Object[newLength];
+        System.arraycopy(array, 0, newArray, 0, Math.min(array.length, newLength));
+        return newArray;
+    }
+
+
+    @Override
+    public String toString() {
+        flush();
+        if (size == 0)
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(arr[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -8,14 +8,40 @@ public class Stack<T> {
         list.addLast(t);
     }
 
+    /**
+     * Pushes values in order with a single copy, the last one ends on the top.
+     */
+    public void pushAll(T[] values) {
+        list.addAll(values);
+    }
+
     public T pop() {
         return list.popLast();
     }
 
+    /**
+     * Pops n elements to dest[destStart, destStart + n) in the order they were pushed,
+     * so the former top ends last and {@link #pushAll} gives them back as they were.
+     */
+    public void popN(T[] dest, int destStart, int n) {
+        if (n < 0 || n > list.size())
+            throw new IndexOutOfBoundsException();
+        list.copyTo(list.size() - n, list.size(), dest, destStart);
+        list.removeRange(list.size() - n, list.size());
+    }
+
     public T top() {
         return list.getLast();
     }
 
+    public void ensureCapacity(int minCapacity) {
+        list.ensureCapacity(minCapacity);
+    }
+
+    public void trimToSize() {
+        list.minimizeCapacity();
+    }
+
     public void clear() {
         list.clear();
     }
@@ -27,4 +53,4 @@ public class Stack<T> {
     public boolean empty() {
         return list.empty();
     }
-}
\ No newline at end of file
+}